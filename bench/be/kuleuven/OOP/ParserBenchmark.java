@@ -0,0 +1,70 @@
+package be.kuleuven.OOP;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A class of benchmarks for ingesting FASTA files, parameterised by the number of records and the length of
+ * their nucleotide sequences.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    /**
+     * Variable registering the number of records of the benchmarked FASTA file.
+     */
+    @Param({"1", "1000"})
+    public int records;
+
+    /**
+     * Variable registering the length of the nucleotide sequence of each record.
+     */
+    @Param({"1000", "100000"})
+    public int length;
+
+    private final Alphabet alphabet = new DnaAlphabet();
+
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = SyntheticSequences.fastaFile(alphabet, records, length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public void readSequences(Blackhole blackhole) throws Exception {
+        try (FastaReader reader = SequenceFileParser.readSequences(alphabet, file)) {
+            while (reader.hasNext())
+                blackhole.consume(reader.next());
+        }
+    }
+
+    @Benchmark
+    public void mapSequences(Blackhole blackhole) throws Exception {
+        try (FastaReader reader = SequenceFileParser.mapSequences(alphabet, file)) {
+            while (reader.hasNext())
+                blackhole.consume(reader.next());
+        }
+    }
+
+    @Benchmark
+    public int addSequencesTo() throws Exception {
+        return SequenceFileParser.addSequencesTo(new SequenceRepository(), alphabet, file);
+    }
+}
@@ -0,0 +1,74 @@
+package be.kuleuven.OOP;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * A class of benchmarks for the queries of a sequence repository, parameterised by the number of biological
+ * sequences in the repository and the length of their nucleotide sequences. The repository holds as many DNA
+ * as RNA sequences. Each query result is terminated right away.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    /**
+     * Variable registering the number of biological sequences in the benchmarked sequence repository.
+     */
+    @Param({"1000", "100000"})
+    public int repositorySize;
+
+    /**
+     * Variable registering the length of the nucleotide sequence of each biological sequence.
+     */
+    @Param({"100", "1000"})
+    public int length;
+
+    private SequenceRepository repository;
+
+    private String subsequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(SyntheticSequences.SEED);
+        repository = new SequenceRepository();
+        for (BiologicalSequence biologicalSequence : SyntheticSequences.biologicalSequences(random, new DnaAlphabet(), "DNA", repositorySize / 2, length))
+            repository.addBiologicalSequence(biologicalSequence);
+        for (BiologicalSequence biologicalSequence : SyntheticSequences.biologicalSequences(random, new RnaAlphabet(), "RNA", repositorySize / 2, length))
+            repository.addBiologicalSequence(biologicalSequence);
+        subsequence = SyntheticSequences.nucleotides(random, new DnaAlphabet(), 8).replace('N', 'A');
+    }
+
+    @Benchmark
+    public int getAllIds() throws Exception {
+        return sizeOf(repository.getAllIds(DnaAlphabet.class));
+    }
+
+    @Benchmark
+    public int getIdsForOrganism() throws Exception {
+        return sizeOf(repository.getIdsForOrganism("chicken", DnaAlphabet.class));
+    }
+
+    @Benchmark
+    public int getIdsForSubsequence() throws Exception {
+        return sizeOf(repository.getIdsForSubsequence(subsequence, DnaAlphabet.class));
+    }
+
+    /**
+     * Return the number of sequence identifiers in the given query result, and terminate it.
+     */
+    private int sizeOf(QueryResult queryResult) {
+        int size = queryResult.getQueryResult().size();
+        repository.terminateQueryResult(queryResult);
+        return size;
+    }
+}
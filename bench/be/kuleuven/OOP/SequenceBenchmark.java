@@ -0,0 +1,65 @@
+package be.kuleuven.OOP;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A class of benchmarks for the validation, counting, complementing and mutating of single biological sequences,
+ * parameterised by the length of the nucleotide sequence.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SequenceBenchmark {
+
+    /**
+     * Variable registering the length of the benchmarked nucleotide sequence.
+     */
+    @Param({"1000", "100000", "10000000"})
+    public int length;
+
+    private final Alphabet alphabet = new DnaAlphabet();
+
+    private String nucleotides;
+
+    private BiologicalSequence biologicalSequence;
+
+    private String replacement;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(SyntheticSequences.SEED);
+        nucleotides = SyntheticSequences.nucleotides(random, alphabet, length);
+        biologicalSequence = new BiologicalSequence("BENCHMARK", "human", nucleotides, alphabet);
+        replacement = SyntheticSequences.nucleotides(random, alphabet, 100);
+    }
+
+    @Benchmark
+    public boolean isValidNucleotideSequence() throws Exception {
+        return alphabet.isValidNucleotideSequence(nucleotides);
+    }
+
+    @Benchmark
+    public void getNumberForEachNucleotide(Blackhole blackhole) {
+        blackhole.consume(biologicalSequence.getNumberForEachNucleotide());
+    }
+
+    @Benchmark
+    public BiologicalSequence complementaryNucleotideSequenceOf() throws Exception {
+        return BiologicalSequence.complementaryNucleotideSequenceOf(biologicalSequence);
+    }
+
+    @Benchmark
+    public String mutateNucleotideSequence() throws Exception {
+        return biologicalSequence.mutateNucleotideSequence(length / 2, Math.min(100, length / 2), replacement);
+    }
+}
@@ -0,0 +1,80 @@
+package be.kuleuven.OOP;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * A class of generators of synthetic biological data for the benchmarks. All data is generated from a seed,
+ * so that every run of a benchmark works on the same nucleotides.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+final class SyntheticSequences {
+
+    /**
+     * Constant registering the seed of all generated data.
+     */
+    static final long SEED = 20161018L;
+
+    /**
+     * Constant registering the organisms assigned to generated biological sequences.
+     */
+    static final String[] ORGANISMS = {"human", "mouse", "chicken", "rabbit", "zebrafish", "yeast", "rice", "maize"};
+
+    private SyntheticSequences() {
+    }
+
+    /**
+     * Return a nucleotide sequence of the given length with the valid symbols of the given alphabet,
+     * holding the unknown nucleotide 'N' about once every thousand positions.
+     *
+     * @param random   The random generator to draw from.
+     * @param alphabet The alphabet of the nucleotide sequence.
+     * @param length   The length of the nucleotide sequence.
+     */
+    static String nucleotides(Random random, Alphabet alphabet, int length) {
+        char[] symbols = alphabet.getPackedSymbols();
+        char[] result = new char[length];
+        for (int index = 0; index < length; index++)
+            result[index] = random.nextInt(1000) == 0 ? 'N' : symbols[random.nextInt(4)];
+        return new String(result);
+    }
+
+    /**
+     * Return the given number of biological sequences of the given length and alphabet, with sequence
+     * identifiers starting with the given prefix.
+     */
+    static BiologicalSequence[] biologicalSequences(Random random, Alphabet alphabet, String prefix, int count, int length) throws Exception {
+        BiologicalSequence[] result = new BiologicalSequence[count];
+        for (int index = 0; index < count; index++)
+            result[index] = new BiologicalSequence(prefix + index, ORGANISMS[index % ORGANISMS.length], nucleotides(random, alphabet, length), alphabet);
+        return result;
+    }
+
+    /**
+     * Write a FASTA file with the given number of records of the given length and alphabet to a new temporary file,
+     * wrapping the nucleotides at 60 symbols per line.
+     *
+     * @return The written temporary file, which is deleted when the virtual machine exits.
+     */
+    static File fastaFile(Alphabet alphabet, int records, int length) throws IOException {
+        Random random = new Random(SEED);
+        File file = File.createTempFile("benchmark", ".fasta");
+        file.deleteOnExit();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (int record = 0; record < records; record++) {
+                writer.write(">SEQ" + record + "|" + ORGANISMS[record % ORGANISMS.length] + "\n");
+                String nucleotides = nucleotides(random, alphabet, length);
+                for (int from = 0; from < length; from += 60) {
+                    writer.write(nucleotides, from, Math.min(60, length - from));
+                    writer.write('\n');
+                }
+            }
+        }
+        return file;
+    }
+}
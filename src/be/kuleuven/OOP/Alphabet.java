@@ -1,6 +1,7 @@
 
 package be.kuleuven.OOP;
 
+import java.util.Arrays;
 import java.util.List;
 
 import be.kuleuven.OOP.exceptions.*;
@@ -9,7 +10,12 @@ import be.kuleuven.cs.som.annotate.Raw;
 
 /**
  * A class of biological alphabets.
+ * The nucleotides of biological sequences are stored packed in 2 bits each, with the unknown nucleotide 'N' kept
+ * apart. An alphabet can therefore have at most four symbols besides 'N'; alphabets with more symbols, such as
+ * amino acid alphabets, cannot be represented by this class.
  *
+ * @invar An alphabet has at most four symbols besides 'N'.
+ * | getValidSymbols().replace("N", "").length() <= 4
  * @author delphinecappelle
  * @version 1.0
  */
@@ -17,10 +23,14 @@ import be.kuleuven.cs.som.annotate.Raw;
 public abstract class Alphabet {
     /**
      * Initialize this alphabet with given name, given list of symbols,
-     * and create a valid symbols string based on the given list of symbols.
+     * and create a valid symbols string and an encoding table based on the given list of symbols.
+     * The symbol 'N' is encoded as the unknown nucleotide, the other symbols are encoded as the codes 0 to 3
+     * in the order of the given list.
      *
      * @param alphabetName The name for this new alphabet.
      * @param symbols      The symbols for this new alphabet.
+     * @throws IllegalArgumentException ("An alphabet can have at most four symbols besides N")
+     *                                  The given symbols cannot be encoded in 2 bits each.
      * @post The alphabet name for this new alphabet is the same as the given alphabet name.
      * | new.getAlphabetName() == alphabetName
      * @post The symbols for this new alphabet are equal to the given symbols.
@@ -28,15 +38,41 @@ public abstract class Alphabet {
      * @post The resulting string contains all the actual symbols as valid symbols for this new alphabet.
      * | new.getValidSymbols() == validSymbols
      */
-    public Alphabet(String alphabetName, List<Symbol> symbols) {
+    public Alphabet(String alphabetName, List<Symbol> symbols) throws IllegalArgumentException {
         this.alphabetName = alphabetName;
         this.symbols = symbols;
 
         StringBuilder allSymbols = new StringBuilder();
+        Arrays.fill(encodingTable, PackedNucleotideSequence.INVALID_CODE);
+        byte nextCode = 0;
         for (Symbol symbol : symbols) {
-            allSymbols.append(symbol.getActual());
+            char actual = symbol.getActual();
+            allSymbols.append(actual);
+            byte code;
+            if (actual == 'N') {
+                code = PackedNucleotideSequence.N_CODE;
+            } else if (nextCode < PackedNucleotideSequence.N_CODE) {
+                code = nextCode++;
+            } else {
+                throw new IllegalArgumentException("An alphabet can have at most four symbols besides N");
+            }
+            encodingTable[Character.toUpperCase(actual) & 0xFF] = code;
+            encodingTable[Character.toLowerCase(actual) & 0xFF] = code;
+            packedSymbols[code] = actual;
+            symbolIndexes[code] = allSymbols.length() - 1;
         }
         this.validSymbols = allSymbols.toString();
+
+        for (byte code = 0; code <= PackedNucleotideSequence.N_CODE; code++)
+            complementCodes[code] = code;
+        for (Symbol symbol : symbols) {
+            byte code = encode(symbol.getActual());
+            byte complement = encode(symbol.getComplementary());
+            if (complement != PackedNucleotideSequence.INVALID_CODE)
+                complementCodes[code] = complement;
+            complementTable[Character.toUpperCase(symbol.getActual()) & 0xFF] = symbol.getComplementary();
+            complementTable[Character.toLowerCase(symbol.getActual()) & 0xFF] = symbol.getComplementary();
+        }
     }
 
     /**
@@ -92,21 +128,137 @@ public abstract class Alphabet {
      */
     private final String validSymbols;
 
+    /**
+     * Return the code of the given symbol in this alphabet, regardless of its case.
+     *
+     * @param symbol The symbol to encode.
+     * @return The code 0 to 3 of the given symbol, N_CODE for the unknown nucleotide 'N',
+     * or INVALID_CODE if the given symbol does not belong to this alphabet.
+     */
+    public byte encode(char symbol) {
+        return symbol < 256 ? encodingTable[symbol] : PackedNucleotideSequence.INVALID_CODE;
+    }
+
+    /**
+     * Return the symbol of this alphabet corresponding to the given code.
+     *
+     * @param code The code 0 to 3, or N_CODE, to decode.
+     */
+    public char decode(int code) {
+        return packedSymbols[code];
+    }
+
+    /**
+     * Return the symbols of this alphabet indexed by their code, with the unknown nucleotide at N_CODE.
+     */
+    char[] getPackedSymbols() {
+        return packedSymbols;
+    }
+
+    /**
+     * Return the complement of the given symbol in this alphabet, regardless of the case of the given symbol.
+     *
+     * @param symbol The symbol to complement.
+     * @throws IllegalArgumentException ("Illegal nucleotide symbol")
+     *                                  The given symbol does not belong to this alphabet.
+     *                                  | encode(symbol) == INVALID_CODE
+     */
+    public char complementOf(char symbol) throws IllegalArgumentException {
+        if (encode(symbol) == PackedNucleotideSequence.INVALID_CODE)
+            throw new IllegalArgumentException("Illegal nucleotide symbol " + symbol);
+        return complementTable[symbol];
+    }
+
+    /**
+     * Variable referencing the table mapping each of the 256 first characters of this alphabet to its complement.
+     */
+    private final char[] complementTable = new char[256];
+
+    /**
+     * Return the code of the complement of the symbol with the given code.
+     *
+     * @param code The code 0 to 3, or N_CODE, to complement.
+     */
+    int complementCode(int code) {
+        return complementCodes[code];
+    }
+
+    /**
+     * Check whether each of the codes 0 to 3 of this alphabet is complemented by inverting its two bits,
+     * so that whole packed words can be complemented at once.
+     */
+    boolean hasInvertibleComplements() {
+        for (int code = 0; code < PackedNucleotideSequence.N_CODE; code++) {
+            if (complementCodes[code] != (code ^ 3)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Variable referencing the code of the complement of each code of this alphabet.
+     */
+    private final byte[] complementCodes = new byte[PackedNucleotideSequence.N_CODE + 1];
+
+    /**
+     * Return the position in the valid symbols of this alphabet of the symbol with the given code.
+     *
+     * @param code The code 0 to 3, or N_CODE, of the symbol.
+     * @return | getValidSymbols().charAt(result) == decode(code)
+     */
+    int indexOfCode(int code) {
+        return symbolIndexes[code];
+    }
+
+    /**
+     * Variable referencing the position in the valid symbols of this alphabet of each code.
+     */
+    private final int[] symbolIndexes = new int[PackedNucleotideSequence.N_CODE + 1];
+
+    /**
+     * Variable referencing the table mapping each of the 256 first characters to its code in this alphabet.
+     */
+    private final byte[] encodingTable = new byte[256];
+
+    /**
+     * Variable referencing the symbols of this alphabet indexed by their code.
+     */
+    private final char[] packedSymbols = new char[PackedNucleotideSequence.N_CODE + 1];
+
+    /**
+     * Return the offset of the first symbol in the given nucleotide sequence that is not a valid symbol for
+     * this alphabet, regardless of its case.
+     *
+     * @param nucleotideSequence The nucleotide sequence to check.
+     * @return The lowest offset holding a symbol that this alphabet cannot encode, or -1 if there is none.
+     * | result == -1 || encode(nucleotideSequence.charAt(result)) == INVALID_CODE
+     */
+    public int indexOfInvalidSymbol(CharSequence nucleotideSequence) {
+        for (int index = 0, length = nucleotideSequence.length(); index < length; index++) {
+            char symbol = nucleotideSequence.charAt(index);
+            if (symbol >= 256 || encodingTable[symbol] == PackedNucleotideSequence.INVALID_CODE)
+                return index;
+        }
+        return -1;
+    }
+
 
     /**
      * Check whether the given nucleotide sequence is a valid nucleotide sequence for this alphabet.
      *
      * @param nucleotideSequence The nucleotide sequence to check
-     * @return True if and only if the given nucleotide sequence consists only of valid symbols for this alphabet.
-     * | result == nucleotideSequence.toUpperCase().matches("\\[" + validSymbols + "]+")
+     * @return True if and only if the given nucleotide sequence is not empty and consists only of valid symbols for this alphabet.
+     * | result == !nucleotideSequence.isEmpty() && indexOfInvalidSymbol(nucleotideSequence) == -1
      * @throws IllegalAlphabetException The given nucleotide sequence is not an valid nucleotide sequence for this alphabet.
-     *                                  | ! nucleotideSequence.toUpperCase().matches("\\[" + validSymbols + "]+")
+     *                                  | nucleotideSequence.isEmpty() || indexOfInvalidSymbol(nucleotideSequence) != -1
      */
     public boolean isValidNucleotideSequence(String nucleotideSequence) throws IllegalAlphabetException {
-        if (nucleotideSequence.toUpperCase().matches("[" + validSymbols + "]+")) {
+        if (nucleotideSequence.isEmpty())
+            throw new IllegalAlphabetException("An empty sequence does not match the requirements of a " + alphabetName + " sequence.");
+        int offset = indexOfInvalidSymbol(nucleotideSequence);
+        if (offset == -1) {
             return true;
         } else
-            throw new IllegalAlphabetException(nucleotideSequence + " has one or more non-valid symbols, does not match the requirements of a " + alphabetName + " sequence.");
+            throw new IllegalAlphabetException("Symbol " + nucleotideSequence.charAt(offset) + " at offset " + offset + " is not a valid symbol, does not match the requirements of a " + alphabetName + " sequence.");
     }
 
     /**
@@ -115,11 +267,12 @@ public abstract class Alphabet {
      * @param symbol The symbol to check
      * @return True if and only if the given symbols occurs in the list of valid symbols for this alphabet.
      * | result == validSymbols.indexOf(symbol) != -1
-     * @throws IllegalAlphabetException The given symbol is not a valid symbol for this alphabet. If index of symbol isn't found indexOf will return -1 as index
+     * @throws IllegalAlphabetException The given symbol is not a valid symbol for this alphabet.
      *                                  | ! validSymbols.indexOf(symbol) != -1
      */
     public boolean isValidNucleotideSymbol(char symbol) throws IllegalAlphabetException {
-        if (validSymbols.indexOf(symbol) != -1)
+        byte code = encode(symbol);
+        if (code != PackedNucleotideSequence.INVALID_CODE && packedSymbols[code] == symbol)
             return true;
         else
             throw new IllegalAlphabetException(symbol + "is not a valid symbol of the " + alphabetName + " alphabet.");
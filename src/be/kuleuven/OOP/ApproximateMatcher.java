@@ -0,0 +1,267 @@
+package be.kuleuven.OOP;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import be.kuleuven.OOP.exceptions.*;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of matchers locating the occurrences of a pattern of at most 64 nucleotides in biological sequences,
+ * tolerating a maximal number of errors.
+ * Each nucleotide of the pattern is a bit of a long, so that a whole column of the dynamic programming matrix is
+ * updated with a handful of word operations per nucleotide of the biological sequence: mismatches are counted by the
+ * shift-and algorithm, edit distances by the bit-vector algorithm of Myers.
+ * As for exact matches, an unknown nucleotide 'N' only matches an unknown nucleotide 'N'.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public final class ApproximateMatcher {
+
+    /**
+     * An enumeration of the distances between a pattern and the nucleotides it is matched against.
+     */
+    public enum Distance {
+        /**
+         * The number of mismatching nucleotides of equally long nucleotide sequences.
+         */
+        HAMMING,
+        /**
+         * The minimal number of substituted, inserted and deleted nucleotides.
+         */
+        EDIT
+    }
+
+    /**
+     * Constant registering the maximal number of nucleotides of a pattern.
+     */
+    public static final int MAX_PATTERN_LENGTH = Long.SIZE;
+
+    /**
+     * Constant registering the number of nucleotides decoded at once while scanning a biological sequence.
+     */
+    static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Initialize this new approximate matcher for the given pattern of the given alphabet.
+     *
+     * @param pattern   The pattern to locate.
+     * @param alphabet  The alphabet of the given pattern.
+     * @param maxErrors The maximal number of errors of a match.
+     * @param distance  The distance counting the errors of a match.
+     * @throws IllegalArgumentException ("Illegal pattern length")
+     *                                  | ! isValidPatternLength(pattern.length())
+     * @throws IllegalArgumentException ("Illegal number of errors")
+     *                                  | ! isValidNumberOfErrors(maxErrors, pattern.length())
+     * @throws IllegalArgumentException ("The distance cannot be null")
+     *                                  | distance == null
+     * @throws IllegalNucleotideSequenceException The given pattern holds a symbol that is not a valid symbol of the given alphabet.
+     * @post | new.getPattern().equals(pattern.toString())
+     * @post | new.getMaxErrors() == maxErrors
+     * @post | new.getDistance() == distance
+     */
+    public ApproximateMatcher(CharSequence pattern, Alphabet alphabet, int maxErrors, Distance distance)
+            throws IllegalArgumentException, IllegalNucleotideSequenceException {
+        if (!isValidPatternLength(pattern.length()))
+            throw new IllegalArgumentException("Illegal pattern length");
+        if (!isValidNumberOfErrors(maxErrors, pattern.length()))
+            throw new IllegalArgumentException("Illegal number of errors");
+        if (distance == null)
+            throw new IllegalArgumentException("The distance cannot be null");
+        int length = pattern.length();
+        for (int index = 0; index < length; index++) {
+            byte code = alphabet.encode(pattern.charAt(index));
+            if (code == PackedNucleotideSequence.INVALID_CODE)
+                throw new IllegalNucleotideSequenceException("Symbol " + pattern.charAt(index) + " at offset " + index + " of the pattern is not a valid symbol");
+            matchMasks[code] |= 1L << index;
+            reversedMatchMasks[code] |= 1L << (length - 1 - index);
+        }
+        this.pattern = pattern.toString();
+        this.maxErrors = maxErrors;
+        this.distance = distance;
+    }
+
+    /**
+     * Check whether the given length is a valid length for the pattern of an approximate matcher.
+     *
+     * @param length The length to check.
+     * @return | result == (length > 0 && length <= MAX_PATTERN_LENGTH)
+     */
+    public static boolean isValidPatternLength(int length) {
+        return length > 0 && length <= MAX_PATTERN_LENGTH;
+    }
+
+    /**
+     * Check whether the given number of errors is a valid maximal number of errors for a pattern of the given length.
+     *
+     * @param maxErrors     The number of errors to check.
+     * @param patternLength The length of the pattern.
+     * @return | result == (maxErrors >= 0 && maxErrors < patternLength)
+     */
+    public static boolean isValidNumberOfErrors(int maxErrors, int patternLength) {
+        return maxErrors >= 0 && maxErrors < patternLength;
+    }
+
+    /**
+     * Return the pattern located by this approximate matcher.
+     */
+    @Basic
+    @Immutable
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Variable registering the pattern located by this approximate matcher.
+     */
+    private final String pattern;
+
+    /**
+     * Return the maximal number of errors of a match of this approximate matcher.
+     */
+    @Basic
+    @Immutable
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    /**
+     * Variable registering the maximal number of errors of a match of this approximate matcher.
+     */
+    private final int maxErrors;
+
+    /**
+     * Return the distance counting the errors of a match of this approximate matcher.
+     */
+    @Basic
+    @Immutable
+    public Distance getDistance() {
+        return distance;
+    }
+
+    /**
+     * Variable registering the distance counting the errors of a match of this approximate matcher.
+     */
+    private final Distance distance;
+
+    /**
+     * Variables referencing, for each code, the bits of the positions of the pattern holding that code, in the
+     * pattern and in the reversed pattern.
+     */
+    private final long[] matchMasks = new long[PackedNucleotideSequence.N_CODE + 1],
+            reversedMatchMasks = new long[PackedNucleotideSequence.N_CODE + 1];
+
+    /**
+     * Return the matches of the pattern of this approximate matcher in the given biological sequence.
+     * For the Hamming distance, each position at which the pattern occurs with at most getMaxErrors() mismatches is a
+     * match. For the edit distance, the ends of the occurrences with at most getMaxErrors() errors form runs of
+     * consecutive positions; each run yields one match, starting where the best alignment ending in the run starts.
+     *
+     * @param biologicalSequence The biological sequence to look in.
+     * @return The matches in the given biological sequence, sorted by position.
+     */
+    public List<SequenceMatch> locateIn(BiologicalSequence biologicalSequence) {
+        PackedNucleotideSequence nucleotides = biologicalSequence.getPackedNucleotideSequence();
+        List<SequenceMatch> matches = new ArrayList<>();
+        int length = nucleotides.length();
+        if (length < pattern.length() - (distance == Distance.EDIT ? maxErrors : 0)) return matches;
+        byte[] codes = new byte[Math.min(length, CHUNK_SIZE)];
+        long high = 1L << (pattern.length() - 1);
+        if (distance == Distance.HAMMING) {
+            long[] states = new long[maxErrors + 1];
+            for (int from = 0; from < length; from += codes.length) {
+                int to = Math.min(length, from + codes.length);
+                nucleotides.codesOf(from, to, codes);
+                for (int position = from; position < to; position++) {
+                    long mask = matchMasks[codes[position - from]];
+                    long previous = states[0];
+                    states[0] = ((previous << 1) | 1) & mask;
+                    for (int errors = 1; errors <= maxErrors; errors++) {
+                        long current = states[errors];
+                        states[errors] = (((current << 1) | 1) & mask) | ((previous << 1) | 1);
+                        previous = current;
+                    }
+                    if ((states[maxErrors] & high) != 0)
+                        matches.add(new SequenceMatch(biologicalSequence.getId(), position - pattern.length() + 1));
+                }
+            }
+            return matches;
+        }
+        long positive = -1L, negative = 0;
+        int score = pattern.length(), runEnd = -1, runScore = Integer.MAX_VALUE, lastStart = -1;
+        for (int from = 0; from < length; from += codes.length) {
+            int to = Math.min(length, from + codes.length);
+            nucleotides.codesOf(from, to, codes);
+            for (int position = from; position < to; position++) {
+                long mask = matchMasks[codes[position - from]];
+                long vertical = mask | negative;
+                long horizontal = (((mask & positive) + positive) ^ positive) | mask;
+                long horizontalPositive = negative | ~(horizontal | positive);
+                long horizontalNegative = positive & horizontal;
+                if ((horizontalPositive & high) != 0) score++;
+                else if ((horizontalNegative & high) != 0) score--;
+                horizontalPositive <<= 1;
+                horizontalNegative <<= 1;
+                positive = horizontalNegative | ~(vertical | horizontalPositive);
+                negative = horizontalPositive & vertical;
+                if (score <= maxErrors) {
+                    if (score < runScore) {
+                        runEnd = position;
+                        runScore = score;
+                    }
+                } else if (runEnd >= 0) {
+                    lastStart = addMatch(matches, biologicalSequence.getId(), startOf(nucleotides, runEnd), lastStart);
+                    runEnd = -1;
+                    runScore = Integer.MAX_VALUE;
+                }
+            }
+        }
+        if (runEnd >= 0)
+            addMatch(matches, biologicalSequence.getId(), startOf(nucleotides, runEnd), lastStart);
+        return matches;
+    }
+
+    /**
+     * Add a match at the given start position to the given matches, unless the previous match starts there too.
+     *
+     * @return The given start position.
+     */
+    private static int addMatch(List<SequenceMatch> matches, String id, int start, int lastStart) {
+        if (start != lastStart)
+            matches.add(new SequenceMatch(id, start));
+        return start;
+    }
+
+    /**
+     * Return the start position of the alignment with the fewest edits of the pattern ending at the given position
+     * of the given nucleotides, preferring the shortest alignment among equally good ones.
+     * The reversed pattern is aligned against the nucleotides read backwards from the given end position, with the
+     * bit-vector algorithm anchored at that end.
+     */
+    private int startOf(PackedNucleotideSequence nucleotides, int end) {
+        long positive = -1L, negative = 0, high = 1L << (pattern.length() - 1);
+        int score = pattern.length(), bestScore = Integer.MAX_VALUE, best = end;
+        int span = Math.min(end + 1, pattern.length() + maxErrors);
+        for (int offset = 0; offset < span; offset++) {
+            int position = end - offset;
+            int code = nucleotides.isUnknownAt(position) ? PackedNucleotideSequence.N_CODE : nucleotides.codeAt(position);
+            long mask = reversedMatchMasks[code];
+            long vertical = mask | negative;
+            long horizontal = (((mask & positive) + positive) ^ positive) | mask;
+            long horizontalPositive = negative | ~(horizontal | positive);
+            long horizontalNegative = positive & horizontal;
+            if ((horizontalPositive & high) != 0) score++;
+            else if ((horizontalNegative & high) != 0) score--;
+            horizontalPositive = (horizontalPositive << 1) | 1;
+            horizontalNegative <<= 1;
+            positive = horizontalNegative | ~(vertical | horizontalPositive);
+            negative = horizontalPositive & vertical;
+            if (score < bestScore) {
+                bestScore = score;
+                best = position;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,285 @@
+package be.kuleuven.OOP;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of input streams decompressing block-gzip (BGZF) input, as written by bgzip.
+ * BGZF input is a series of gzip members of at most 64 KiB, each announcing its compressed size in a 'BC' extra field.
+ * The blocks are read one after the other, but are inflated in parallel in a fork/join pool, keeping a bounded window
+ * of blocks in flight; their output is returned in the order of the blocks.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class BgzfInputStream extends InputStream {
+
+    /**
+     * Constant registering the maximal number of bytes of a BGZF block.
+     */
+    public static final int MAX_BLOCK_SIZE = 1 << 16;
+
+    /**
+     * Constant registering the number of bytes of the header of a BGZF block.
+     */
+    static final int HEADER_SIZE = 18;
+
+    /**
+     * Initialize this new BGZF input stream on the given compressed input, inflating blocks in the common pool.
+     *
+     * @param input The BGZF input to decompress.
+     */
+    public BgzfInputStream(InputStream input) {
+        this(input, ForkJoinPool.commonPool(), 2 * ForkJoinPool.commonPool().getParallelism());
+    }
+
+    /**
+     * Initialize this new BGZF input stream on the given compressed input, inflating at most the given number of
+     * blocks ahead in the given pool.
+     *
+     * @param input  The BGZF input to decompress.
+     * @param pool   The fork/join pool inflating the blocks.
+     * @param window The maximal number of blocks read ahead of the block being returned.
+     * @throws IllegalArgumentException ("Illegal window")
+     *                                  | window < 1
+     * @post | new.getWindow() == window
+     */
+    public BgzfInputStream(InputStream input, ForkJoinPool pool, int window) throws IllegalArgumentException {
+        if (window < 1)
+            throw new IllegalArgumentException("Illegal window");
+        this.input = input;
+        this.pool = pool;
+        this.window = window;
+    }
+
+    /**
+     * Check whether the given bytes start with the header of a BGZF block.
+     *
+     * @param bytes  The bytes to check.
+     * @param length The number of valid bytes.
+     * @return True if and only if the given bytes start with a gzip header holding only a 'BC' extra field.
+     */
+    public static boolean isBgzfHeader(byte[] bytes, int length) {
+        return length >= HEADER_SIZE && (bytes[0] & 0xff) == 31 && (bytes[1] & 0xff) == 139 && bytes[2] == 8
+                && (bytes[3] & 4) != 0 && bytes[10] == 6 && bytes[11] == 0
+                && bytes[12] == 'B' && bytes[13] == 'C' && bytes[14] == 2 && bytes[15] == 0;
+    }
+
+    /**
+     * Variable referencing the compressed input of this BGZF input stream.
+     */
+    private final InputStream input;
+
+    /**
+     * Variable referencing the fork/join pool inflating the blocks of this BGZF input stream.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Return the maximal number of blocks read ahead of the block being returned.
+     */
+    @Basic
+    @Immutable
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Variable registering the maximal number of blocks read ahead of the block being returned.
+     */
+    private final int window;
+
+    /**
+     * Variable referencing the blocks being inflated, in the order of the input.
+     */
+    private final Deque<ForkJoinTask<byte[]>> inFlight = new ArrayDeque<>();
+
+    /**
+     * Variable registering whether the compressed input is exhausted.
+     */
+    private boolean endOfInput;
+
+    /**
+     * Variable referencing the inflated block being returned, and the position of the next byte in it.
+     */
+    private byte[] block = new byte[0];
+    private int position;
+
+    /**
+     * Return the next byte of the decompressed input, or -1 at its end.
+     */
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) return -1;
+        return block[position++] & 0xff;
+    }
+
+    /**
+     * Read up to the given number of decompressed bytes into the given array from the given offset on.
+     */
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (!ensureAvailable()) return -1;
+        int count = Math.min(length, block.length - position);
+        System.arraycopy(block, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Return the number of decompressed bytes that can be read without waiting for a block.
+     */
+    @Override
+    public int available() {
+        return block.length - position;
+    }
+
+    /**
+     * Make sure that the current block has a byte left to return, moving on to the next non-empty inflated block.
+     *
+     * @return False if and only if the decompressed input is exhausted.
+     */
+    private boolean ensureAvailable() throws IOException {
+        while (position == block.length) {
+            fillWindow();
+            if (inFlight.isEmpty()) return false;
+            block = join(inFlight.poll());
+            position = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Read compressed blocks and submit them for inflation until the window is full or the input is exhausted.
+     */
+    private void fillWindow() throws IOException {
+        while (!endOfInput && inFlight.size() < window) {
+            final byte[] compressed = readBlock();
+            if (compressed == null) {
+                endOfInput = true;
+            } else {
+                inFlight.add(pool.submit(() -> inflate(compressed)));
+            }
+        }
+    }
+
+    /**
+     * Return the next whole compressed block of the input, header and trailer included, or null at its end.
+     *
+     * @throws IOException ("Corrupt BGZF block")
+     *                     The input does not continue with a BGZF block.
+     */
+    private byte[] readBlock() throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        int read = readFully(header, 0, HEADER_SIZE);
+        if (read == 0) return null;
+        if (read < HEADER_SIZE || !isBgzfHeader(header, read))
+            throw new IOException("Corrupt BGZF block");
+        int blockSize = ((header[16] & 0xff) | (header[17] & 0xff) << 8) + 1;
+        if (blockSize < HEADER_SIZE + 8)
+            throw new IOException("Corrupt BGZF block");
+        byte[] compressed = new byte[blockSize];
+        System.arraycopy(header, 0, compressed, 0, HEADER_SIZE);
+        if (readFully(compressed, HEADER_SIZE, blockSize - HEADER_SIZE) < blockSize - HEADER_SIZE)
+            throw new IOException("Truncated BGZF block");
+        return compressed;
+    }
+
+    /**
+     * Read bytes from the input until the given number of bytes are read or the input ends.
+     *
+     * @return The number of bytes read.
+     */
+    private int readFully(byte[] bytes, int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = input.read(bytes, offset + total, length - total);
+            if (read < 0) break;
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Return the inflated contents of the given whole compressed block, checking its size and CRC32 checksum.
+     *
+     * @throws IOException ("Corrupt BGZF block")
+     *                     The block cannot be inflated or does not match its size or checksum.
+     */
+    static byte[] inflate(byte[] compressed) throws IOException {
+        int trailer = compressed.length - 8;
+        int size = readInt(compressed, trailer + 4);
+        if (size < 0 || size > MAX_BLOCK_SIZE)
+            throw new IOException("Corrupt BGZF block");
+        byte[] inflated = new byte[size];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed, HEADER_SIZE, trailer - HEADER_SIZE);
+            int count = 0;
+            while (count < size && !inflater.finished()) {
+                int inflatedBytes = inflater.inflate(inflated, count, size - count);
+                if (inflatedBytes == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                count += inflatedBytes;
+            }
+            if (count != size)
+                throw new IOException("Corrupt BGZF block");
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt BGZF block", e);
+        } finally {
+            inflater.end();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(inflated, 0, size);
+        if ((int) crc.getValue() != readInt(compressed, trailer))
+            throw new IOException("Corrupt BGZF block: checksum mismatch");
+        return inflated;
+    }
+
+    /**
+     * Return the little-endian int at the given offset of the given bytes.
+     */
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8 | (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    /**
+     * Wait for the given inflation and return its result, rethrowing its IOException.
+     */
+    private static byte[] join(ForkJoinTask<byte[]> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while inflating a BGZF block");
+        } catch (ExecutionException e) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) throw (IOException) cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Close this BGZF input stream and its compressed input, cancelling the blocks in flight.
+     */
+    @Override
+    public void close() throws IOException {
+        for (ForkJoinTask<byte[]> task : inFlight)
+            task.cancel(false);
+        inFlight.clear();
+        endOfInput = true;
+        input.close();
+    }
+}
@@ -61,6 +61,28 @@ public class BiologicalSequence {
     }
 
 
+    /**
+     * Initialize this new biological sequence with given sequence identifier, given organism,
+     * given packed nucleotide sequence and given alphabet, without validating the nucleotides again.
+     *
+     * @param id                 The sequence identifier for this new biological sequence.
+     * @param organism           The organism from where this new biological sequence originates.
+     * @param nucleotideSequence The packed nucleotides for this new biological sequence.
+     * @param alphabet           The alphabet corresponding to this new biological sequence.
+     * @throws IllegalIdException The given sequence identifier is not a valid identifier for any biological sequence.
+     *                            | ! isValidId(id)
+     * @post The new packed nucleotide sequence of this new biological sequence is the given packed nucleotide sequence.
+     * | new.getPackedNucleotideSequence() == nucleotideSequence
+     */
+    @Raw
+    BiologicalSequence(String id, String organism, PackedNucleotideSequence nucleotideSequence, Alphabet alphabet)
+            throws IllegalIdException {
+        setId(id);
+        setOrganism(organism);
+        this.alphabet = alphabet;
+        this.nucleotideSequence = nucleotideSequence;
+    }
+
     /**
      * Initialize this new biological sequence with given sequence identifier, given organism, given alphabet,
      * and nucleotide sequence that is a concatenation of nucleotide sequences from two given biological sequences.
@@ -238,14 +260,23 @@ public class BiologicalSequence {
     /**
      * Return the nucleotide sequence of this biological sequence.
      * The nucleotide sequence is expresses the successive order of nucleotides in a biological sequence.
-     * The nucleotides are represented by their corresponding single letter codes ('A', 'T', 'C', 'G', 'U' or 'N').
+     * The nucleotides are represented by their corresponding upper case single letter codes ('A', 'T', 'C', 'G', 'U' or 'N').
+     * The nucleotide sequence is decoded from its packed representation on each call.
      */
     @Basic
     @Raw
     public String getNucleotideSequence() {
-        return nucleotideSequence;
+        return nucleotideSequence.toString();
     }
 
+    /**
+     * Return the packed nucleotide sequence of this biological sequence.
+     */
+    @Basic
+    @Raw
+    PackedNucleotideSequence getPackedNucleotideSequence() {
+        return nucleotideSequence;
+    }
 
     /**
      * Set the nucleotide sequence of this biological sequence to the given nucleotide sequence.
@@ -254,21 +285,21 @@ public class BiologicalSequence {
      * @throws IllegalNucleotideSequenceException("The given nucleotide sequence is not a valid nucleotide sequence")
      *                                                 The given nucleotide sequence is not a valid nucleotide sequence for any biological sequence.
      *                                                 | ! isValidNucleotideSequence(nucleotideSequence)
-     * @post The new nucleotide sequence of this biological sequence is equal to the given nucleotide sequence.
-     * | new.getNucleotideSequence() == nucleotideSequence
+     * @post The new nucleotide sequence of this biological sequence is equal to the given nucleotide sequence in upper case.
+     * | new.getNucleotideSequence().equals(nucleotideSequence.toUpperCase())
      */
     @Raw
     @Model
     private void setNucleotideSequence(String nucleotideSequence) throws IllegalNucleotideSequenceException, IllegalAlphabetException {
         if (!alphabet.isValidNucleotideSequence(nucleotideSequence))
             throw new IllegalNucleotideSequenceException("The given nucleotide sequence is not a valid nucleotide sequence for any biological sequence");
-        this.nucleotideSequence = nucleotideSequence;
+        this.nucleotideSequence = new PackedNucleotideSequence(nucleotideSequence, alphabet);
     }
 
     /**
-     * Variable registering the nucleotide sequence of a biological sequence.
+     * Variable registering the nucleotide sequence of a biological sequence, packed in 2 bits per nucleotide.
      */
-    private String nucleotideSequence;
+    private PackedNucleotideSequence nucleotideSequence;
 
 
     /**
@@ -278,7 +309,7 @@ public class BiologicalSequence {
      * | result == getNucleotideSequence().length()
      */
     public int getNucleotideSequenceLength() {
-        return getNucleotideSequence().length();
+        return nucleotideSequence.length();
     }
 
     /**
@@ -294,13 +325,60 @@ public class BiologicalSequence {
     public int getNumberOfNucleotide(char nucleotideSymbol) throws IllegalAlphabetException {
         if (!alphabet.isValidNucleotideSymbol(nucleotideSymbol))
             throw new IllegalAlphabetException("Entered an illegal nucleotide symbol");
-        int count = 0;
-        for (char element : nucleotideSequence.toCharArray()) {
-            if (element == nucleotideSymbol) count++;
+        return getStatistics().getNumberOf(nucleotideSymbol);
+    }
+
+    /**
+     * Return the statistics of the nucleotide sequence of this biological sequence.
+     * The statistics are computed on first access and reused as long as the nucleotide sequence does not change;
+     * concurrent first accesses may each compute them, but all return equal statistics.
+     *
+     * @return | result.getLength() == getNucleotideSequenceLength()
+     */
+    public SequenceStatistics getStatistics() {
+        PackedNucleotideSequence nucleotides = nucleotideSequence;
+        SequenceStatistics result = statistics;
+        if (result == null || result.getSource() != nucleotides) {
+            result = new SequenceStatistics(nucleotides);
+            statistics = result;
         }
-        return count;
+        return result;
     }
 
+    /**
+     * Variable referencing the statistics of the nucleotide sequence of this biological sequence, or null if they
+     * have not been computed yet. Statistics of another packed nucleotide sequence than the current one are outdated.
+     */
+    private volatile SequenceStatistics statistics;
+
+
+    /**
+     * Return the nucleotide composition of this biological sequence.
+     *
+     * @return An array holding, for each valid symbol of the alphabet of this biological sequence, the number of
+     * times it occurs in the nucleotide sequence, indexed by the position of that symbol in the valid symbols.
+     * | for each index in 0..getAlphabet().getValidSymbols().length() - 1:
+     * |   result[index] == getNumberOfNucleotide(getAlphabet().getValidSymbols().charAt(index))
+     */
+    public int[] getComposition() {
+        return getStatistics().getComposition();
+    }
+
+    /**
+     * Store the nucleotide composition of this biological sequence in the given array, so that repeated
+     * compositions do not allocate.
+     *
+     * @param composition The array to store the composition in.
+     * @return The given array, holding for each valid symbol of the alphabet of this biological sequence the number
+     * of times it occurs in the nucleotide sequence, indexed by the position of that symbol in the valid symbols.
+     * | result == composition
+     * @throws IllegalArgumentException ("Illegal composition array")
+     *                                  The given array cannot hold a count for each valid symbol.
+     *                                  | composition == null || composition.length < getAlphabet().getValidSymbols().length()
+     */
+    public int[] getComposition(int[] composition) throws IllegalArgumentException {
+        return getStatistics().getComposition(composition);
+    }
 
     /**
      * Return a map with as key each nucleotide and as value the number of occurences of the nucleotide in the sequence
@@ -309,9 +387,11 @@ public class BiologicalSequence {
      */
     public Set<Map.Entry<Character, Integer>> getNumberForEachNucleotide() {
         Map<Character, Integer> symbols = new HashMap<>();
-        for (char element : nucleotideSequence.toCharArray()) {
-            if (symbols.containsKey(element)) symbols.put(element, symbols.get(element) + 1);
-            else symbols.put(element, 1);
+        String validSymbols = alphabet.getValidSymbols();
+        SequenceStatistics statistics = getStatistics();
+        for (int index = 0; index < validSymbols.length(); index++) {
+            int count = statistics.getNumberOf(validSymbols.charAt(index));
+            if (count > 0) symbols.put(validSymbols.charAt(index), count);
         }
         return symbols.entrySet();
     }
@@ -322,21 +402,25 @@ public class BiologicalSequence {
      * @return The nucleotides in the sequence.
      */
     public Set<Character> getNucleotides() {
-        Set<Character> symbols = new TreeSet<>();
-        for (char element : nucleotideSequence.toCharArray()) {
-            symbols.add(element);
-        }
-        return symbols;
+        return new TreeSet<>(getStatistics().getNucleotides());
     }
 
     /**
-     * Check if the given subsequence is a part of this nucleotide sequence
+     * Check if the given subsequence is a part of this nucleotide sequence.
+     * The comparison is case-sensitive: the nucleotides of this biological sequence are stored in upper case,
+     * so that a subsequence holding a lower-case symbol is never part of them.
      *
      * @param subsequence The subsequence to check
+     * @return True if and only if the given subsequence occurs in the nucleotide sequence of this biological sequence.
+     * | result == getNucleotideSequence().contains(subsequence)
      * @throws IllegalNucleotideSequenceException The given nucleotide sequence is not a valid nucleotide sequence for any biological sequence.
      */
 
     public boolean containsSubsequence(String subsequence) throws IllegalNucleotideSequenceException {
+        for (int index = 0; index < subsequence.length(); index++) {
+            if (Character.isLowerCase(subsequence.charAt(index)))
+                return false;
+        }
         return nucleotideSequence.contains(subsequence);
     }
 
@@ -358,15 +442,55 @@ public class BiologicalSequence {
             throws IllegalAlphabetException, IllegalIdException, IllegalNucleotideSequenceException, IllegalBiologicalSequenceException {
         if (sequence == null)
             throw new IllegalBiologicalSequenceException("The biological sequence cannot be null");
-        String strand = sequence.getNucleotideSequence();
-        char[] complementaryString = new char[strand.toCharArray().length];
-        int index = 0;
-        for (char nucleotide : strand.toUpperCase().toCharArray()) {
-            for (Symbol symbol : sequence.getAlphabet().getSymbols()) {
-                if (nucleotide == symbol.getActual()) complementaryString[index++] = symbol.getComplementary();
-            }
-        }
-        return new BiologicalSequence(sequence.getId(), sequence.getOrganism(), new String(complementaryString), sequence.alphabet);
+        return new BiologicalSequence(sequence.getId(), sequence.getOrganism(), sequence.nucleotideSequence.complement(), sequence.alphabet);
+    }
+
+    /**
+     * Return the reverse complement of the given biological sequence.
+     *
+     * @param sequence The biological sequence from which the reverse complement needs to be returned.
+     * @return A new biological sequence with the sequence identifier, the organism and the alphabet of the given
+     * biological sequence, holding the complements of its nucleotides in reverse order.
+     * | result.getNucleotideSequence().equals(sequence.getReverseComplementView().toString())
+     * @throws IllegalIdException                 The identifier is not a valid identifier
+     * @throws IllegalBiologicalSequenceException ("The biological sequence cannot be null")
+     *                                            The given biological sequence must be effective (i.e., cannot be null)
+     */
+    public static BiologicalSequence reverseComplementaryNucleotideSequenceOf(BiologicalSequence sequence)
+            throws IllegalIdException, IllegalBiologicalSequenceException {
+        if (sequence == null)
+            throw new IllegalBiologicalSequenceException("The biological sequence cannot be null");
+        return new BiologicalSequence(sequence.getId(), sequence.getOrganism(), sequence.nucleotideSequence.reverseComplement(), sequence.alphabet);
+    }
+
+    /**
+     * Return a view of the region of the nucleotide sequence of this biological sequence starting at the given
+     * position and holding the given number of nucleotides, without copying them.
+     *
+     * @param startPosition The start position of the region.
+     * @param length        The number of nucleotides of the region.
+     * @return | result.toString().equals(getNucleotideSequence().substring(startPosition, startPosition + length))
+     * @throws IllegalArgumentException ("Illegal region")
+     *                                  | startPosition < 0 || length < 0 || startPosition + length > getNucleotideSequenceLength()
+     */
+    public NucleotideView getRegion(int startPosition, int length) throws IllegalArgumentException {
+        return new NucleotideView(nucleotideSequence, startPosition, length);
+    }
+
+    /**
+     * Return a view of the complement of the nucleotide sequence of this biological sequence, which complements
+     * each nucleotide when it is read instead of building a new nucleotide sequence.
+     */
+    public CharSequence getComplementView() {
+        return nucleotideSequence.complementView();
+    }
+
+    /**
+     * Return a view of the reverse complement of the nucleotide sequence of this biological sequence, which
+     * complements each nucleotide when it is read instead of building a new nucleotide sequence.
+     */
+    public CharSequence getReverseComplementView() {
+        return nucleotideSequence.reverseComplementView();
     }
 
     /**
@@ -388,6 +512,7 @@ public class BiologicalSequence {
      *                                            |
      */
     public String mutateNucleotideSequence(int startPosition, int length, String newSubSequence) throws IllegalArgumentException, IllegalNucleotideSequenceException, IllegalAlphabetException {
+        String nucleotideSequence = getNucleotideSequence();
         if (startPosition < 0 || startPosition > nucleotideSequence.length() - 1)
             throw new IllegalArgumentException("Illegal startpostion");
         if (length < 0 || length > nucleotideSequence.length()) throw new IllegalArgumentException("Illegal length");
@@ -396,9 +521,52 @@ public class BiologicalSequence {
         if (!alphabet.isValidNucleotideSequence(newSubSequence))
             throw new IllegalNucleotideSequenceException("New subsequence: " + newSubSequence + " is not a valid subsequence");
 
-        return String.format("%s%s%s",
-                nucleotideSequence.substring(0, startPosition),
-                newSubSequence,
-                nucleotideSequence.substring(startPosition + length));
+        return new StringBuilder(nucleotideSequence.length() - length + newSubSequence.length())
+                .append(nucleotideSequence, 0, startPosition)
+                .append(newSubSequence)
+                .append(nucleotideSequence, startPosition + length, nucleotideSequence.length())
+                .toString();
+    }
+
+    /**
+     * Return a batch of the given sequence edits, expressed in the coordinates of the nucleotide sequence of this
+     * biological sequence.
+     *
+     * @param edits The sequence edits, in any order.
+     * @return | result.getOriginalLength() == getNucleotideSequenceLength() && result.getAlphabet() == getAlphabet()
+     * @throws IllegalArgumentException           A sequence edit ends after this biological sequence, or two sequence edits overlap.
+     *                                            | see SequenceEditBatch(edits, getNucleotideSequenceLength(), getAlphabet())
+     * @throws IllegalNucleotideSequenceException A replacement is not a valid nucleotide sequence for the alphabet of this biological sequence.
+     *                                            | see SequenceEditBatch(edits, getNucleotideSequenceLength(), getAlphabet())
+     */
+    public SequenceEditBatch newEditBatch(Collection<SequenceEdit> edits) throws IllegalArgumentException, IllegalNucleotideSequenceException {
+        return new SequenceEditBatch(edits, nucleotideSequence.length(), alphabet);
+    }
+
+    /**
+     * Apply all given sequence edits, expressed in the coordinates of the original sequence, at once.
+     * The sequence edits are validated, sorted and checked for overlaps once, and the new sequence is produced
+     * in a single pass over the original sequence.
+     *
+     * @param edits The sequence edits, in any order.
+     * @return The new sequence, that includes all replacements.
+     * | result.equals(newEditBatch(edits).applyTo(getPackedNucleotideSequence()).toString())
+     * @throws IllegalArgumentException           A sequence edit ends after this biological sequence, or two sequence edits overlap.
+     *                                            | see newEditBatch(edits)
+     * @throws IllegalNucleotideSequenceException A replacement is not a valid nucleotide sequence for the alphabet of this biological sequence.
+     *                                            | see newEditBatch(edits)
+     */
+    public String mutateNucleotideSequence(Collection<SequenceEdit> edits) throws IllegalArgumentException, IllegalNucleotideSequenceException {
+        return newEditBatch(edits).applyTo(nucleotideSequence).toString();
+    }
+
+    /**
+     * Return a mutable nucleotide sequence holding the nucleotides of this biological sequence, to which many
+     * mutations can be applied without copying the whole nucleotide sequence for each of them.
+     *
+     * @return | result.toString().equals(getNucleotideSequence())
+     */
+    public MutableNucleotideSequence toMutableNucleotideSequence() {
+        return new MutableNucleotideSequence(nucleotideSequence);
     }
 }
@@ -0,0 +1,332 @@
+package be.kuleuven.OOP;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import be.kuleuven.OOP.exceptions.*;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of bulk loaders adding the biological sequences of many FASTA files to one sequence repository.
+ * The files are parsed concurrently by a bounded pool of workers, which also validate and pack the nucleotides;
+ * each parsed file is handed over through a bounded queue to the loading thread, which adds the biological
+ * sequences to the sequence repository in batches, each added at once. A file that cannot be parsed, or a biological sequence with a
+ * sequence identifier that is already stored, is reported as an error of its file without aborting the load.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class BulkLoader {
+
+    /**
+     * Constant registering the default number of biological sequences added to the sequence repository at once.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * Initialize this new bulk loader adding biological sequences of the given alphabet to the given sequence
+     * repository, parsing files on the given number of workers.
+     *
+     * @param repository The sequence repository to add the biological sequences to.
+     * @param alphabet   The alphabet of the biological sequences in the files.
+     * @param nbWorkers  The number of files parsed concurrently.
+     * @throws IllegalArgumentException ("Illegal number of workers")
+     *                                  | nbWorkers < 1
+     * @post | new.getNbWorkers() == nbWorkers
+     * @post | new.getBatchSize() == DEFAULT_BATCH_SIZE
+     */
+    public BulkLoader(SequenceRepository repository, Alphabet alphabet, int nbWorkers) throws IllegalArgumentException {
+        if (nbWorkers < 1)
+            throw new IllegalArgumentException("Illegal number of workers");
+        this.repository = repository;
+        this.alphabet = alphabet;
+        this.nbWorkers = nbWorkers;
+    }
+
+    /**
+     * Initialize this new bulk loader adding biological sequences of the given alphabet to the given sequence
+     * repository, parsing files on as many workers as there are processors.
+     *
+     * @param repository The sequence repository to add the biological sequences to.
+     * @param alphabet   The alphabet of the biological sequences in the files.
+     * @effect | this(repository, alphabet, Runtime.getRuntime().availableProcessors())
+     */
+    public BulkLoader(SequenceRepository repository, Alphabet alphabet) {
+        this(repository, alphabet, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Variable referencing the sequence repository to which this bulk loader adds biological sequences.
+     */
+    private final SequenceRepository repository;
+
+    /**
+     * Variable referencing the alphabet of the biological sequences loaded by this bulk loader.
+     */
+    private final Alphabet alphabet;
+
+    /**
+     * Return the number of files this bulk loader parses concurrently.
+     */
+    @Basic
+    @Immutable
+    public int getNbWorkers() {
+        return nbWorkers;
+    }
+
+    /**
+     * Variable registering the number of files this bulk loader parses concurrently.
+     */
+    private final int nbWorkers;
+
+    /**
+     * Return the number of biological sequences this bulk loader adds to the sequence repository at once.
+     */
+    @Basic
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the number of biological sequences this bulk loader adds to the sequence repository at once.
+     *
+     * @param batchSize The new batch size.
+     * @throws IllegalArgumentException ("Illegal batch size")
+     *                                  | batchSize < 1
+     * @post | new.getBatchSize() == batchSize
+     */
+    public void setBatchSize(int batchSize) throws IllegalArgumentException {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Illegal batch size");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Variable registering the number of biological sequences this bulk loader adds to the sequence repository at once.
+     */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Add the biological sequences of all given FASTA files to the sequence repository of this bulk loader.
+     *
+     * @param files The FASTA files to load, plain or compressed.
+     * @return A report of the load, holding its throughput and the errors of each file.
+     * @throws InterruptedException The loading thread was interrupted while waiting for parsed files.
+     */
+    public Report load(Collection<File> files) throws InterruptedException {
+        long start = System.nanoTime();
+        BlockingQueue<ParsedFile> parsed = new ArrayBlockingQueue<>(2 * nbWorkers);
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(nbWorkers, Math.max(1, files.size())));
+        Report report = new Report();
+        try {
+            for (final File file : files) {
+                workers.execute(() -> {
+                    ParsedFile parsedFile;
+                    try {
+                        parsedFile = parse(file);
+                    } catch (Error e) {
+                        parsedFile = new ParsedFile(file, null, e.toString());
+                    }
+                    handOver(parsed, parsedFile);
+                });
+            }
+            List<ParsedFile> batch = new ArrayList<>();
+            int batchedSequences = 0;
+            for (int remaining = files.size(); remaining > 0; remaining--) {
+                ParsedFile parsedFile = parsed.take();
+                report.nbFiles++;
+                if (parsedFile.error != null) {
+                    report.addError(parsedFile.file, parsedFile.error);
+                    continue;
+                }
+                batch.add(parsedFile);
+                batchedSequences += parsedFile.biologicalSequences.size();
+                if (batchedSequences >= batchSize) {
+                    insert(batch, report);
+                    batch.clear();
+                    batchedSequences = 0;
+                }
+            }
+            insert(batch, report);
+        } finally {
+            workers.shutdownNow();
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /**
+     * Return the biological sequences of the given FASTA file, or the reason why it cannot be parsed.
+     */
+    private ParsedFile parse(File file) {
+        List<BiologicalSequence> biologicalSequences = new ArrayList<>();
+        try (FastaReader reader = SequenceFileParser.readSequences(alphabet, file)) {
+            while (reader.hasNext())
+                biologicalSequences.add(reader.next());
+            return new ParsedFile(file, biologicalSequences, null);
+        } catch (IllegalParseException | IllegalAlphabetException | IllegalIdException | IOException | RuntimeException e) {
+            return new ParsedFile(file, null, e.getMessage() == null ? e.toString() : e.getMessage());
+        }
+    }
+
+    /**
+     * Hand the given parsed file over to the loading thread through the given queue, waiting for room in the queue.
+     */
+    private static void handOver(BlockingQueue<ParsedFile> parsed, ParsedFile parsedFile) {
+        try {
+            parsed.put(parsedFile);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Add the biological sequences of the given parsed files to the sequence repository, reporting the biological
+     * sequences that cannot be added as errors of their files.
+     * The biological sequences are added as one batch; only if that batch is rejected are they added one by one,
+     * to find the biological sequences to blame.
+     */
+    private void insert(List<ParsedFile> batch, Report report) {
+        List<BiologicalSequence> biologicalSequences = new ArrayList<>();
+        long nbNucleotides = 0;
+        for (ParsedFile parsedFile : batch) {
+            biologicalSequences.addAll(parsedFile.biologicalSequences);
+            for (BiologicalSequence biologicalSequence : parsedFile.biologicalSequences)
+                nbNucleotides += biologicalSequence.getNucleotideSequenceLength();
+        }
+        try {
+            report.nbSequences += repository.addBiologicalSequences(biologicalSequences);
+            report.nbNucleotides += nbNucleotides;
+            return;
+        } catch (IllegalIdException | IllegalBiologicalSequenceException e) {
+            // Fall through to find the offending biological sequences.
+        }
+        for (ParsedFile parsedFile : batch) {
+            for (BiologicalSequence biologicalSequence : parsedFile.biologicalSequences) {
+                try {
+                    repository.addBiologicalSequence(biologicalSequence);
+                    report.nbSequences++;
+                    report.nbNucleotides += biologicalSequence.getNucleotideSequenceLength();
+                } catch (IllegalIdException | IllegalBiologicalSequenceException e) {
+                    report.addError(parsedFile.file, biologicalSequence.getId() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * A class of files parsed by a worker, holding either their biological sequences or the reason why they could
+     * not be parsed.
+     */
+    private static final class ParsedFile {
+
+        ParsedFile(File file, List<BiologicalSequence> biologicalSequences, String error) {
+            this.file = file;
+            this.biologicalSequences = biologicalSequences;
+            this.error = error;
+        }
+
+        private final File file;
+        private final List<BiologicalSequence> biologicalSequences;
+        private final String error;
+    }
+
+    /**
+     * A class of reports of a bulk load, holding its throughput and the errors of each file.
+     */
+    public static final class Report {
+
+        /**
+         * Return the number of files handled by the bulk load, including the files with errors.
+         */
+        public int getNbFiles() {
+            return nbFiles;
+        }
+
+        private int nbFiles;
+
+        /**
+         * Return the number of biological sequences added to the sequence repository.
+         */
+        public int getNbSequences() {
+            return nbSequences;
+        }
+
+        private int nbSequences;
+
+        /**
+         * Return the number of nucleotides in the biological sequences added to the sequence repository.
+         */
+        public long getNbNucleotides() {
+            return nbNucleotides;
+        }
+
+        private long nbNucleotides;
+
+        /**
+         * Return the number of nanoseconds the bulk load took.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        private long elapsedNanos;
+
+        /**
+         * Return the number of biological sequences added per second.
+         */
+        public double getSequencesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : nbSequences * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Return the number of nucleotides added per second.
+         */
+        public double getNucleotidesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : nbNucleotides * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Return the errors of each file with errors, in the order in which they occurred.
+         */
+        public Map<File, List<String>> getErrors() {
+            return Collections.unmodifiableMap(errors);
+        }
+
+        /**
+         * Check whether the bulk load ran without errors.
+         *
+         * @return | result == getErrors().isEmpty()
+         */
+        public boolean isSuccessful() {
+            return errors.isEmpty();
+        }
+
+        /**
+         * Register the given error of the given file.
+         */
+        private void addError(File file, String error) {
+            if (!errors.containsKey(file))
+                errors.put(file, new ArrayList<String>());
+            errors.get(file).add(error);
+        }
+
+        private final Map<File, List<String>> errors = new LinkedHashMap<>();
+
+        @Override
+        public String toString() {
+            return String.format("%d files, %d sequences, %d nucleotides in %.3f s (%.0f sequences/s, %.0f nucleotides/s), %d files with errors",
+                    nbFiles, nbSequences, nbNucleotides, elapsedNanos / 1e9, getSequencesPerSecond(), getNucleotidesPerSecond(), errors.size());
+        }
+    }
+}
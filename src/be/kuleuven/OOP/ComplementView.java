@@ -0,0 +1,120 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of views of the complement, or the reverse complement, of a region of a packed nucleotide sequence.
+ * The views do not copy any nucleotides: each position is mapped onto the packed nucleotide sequence and
+ * complemented through the complement table of its alphabet when it is read.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ * @invar The region of each complement view lies within its packed nucleotide sequence.
+ * | start >= 0 && start + length() <= nucleotides.length()
+ */
+public final class ComplementView implements CharSequence {
+
+    /**
+     * Initialize this new complement view of the whole given packed nucleotide sequence.
+     *
+     * @param nucleotides The packed nucleotide sequence to view.
+     * @param reversed    Whether this new complement view reads the nucleotides in reverse order.
+     */
+    ComplementView(PackedNucleotideSequence nucleotides, boolean reversed) {
+        this(nucleotides, reversed, 0, nucleotides.length());
+    }
+
+    /**
+     * Initialize this new complement view of the given region of the given packed nucleotide sequence.
+     *
+     * @param nucleotides The packed nucleotide sequence to view.
+     * @param reversed    Whether this new complement view reads the nucleotides in reverse order.
+     * @param start       The first position of the region in the packed nucleotide sequence.
+     * @param length      The number of nucleotides of the region.
+     */
+    ComplementView(PackedNucleotideSequence nucleotides, boolean reversed, int start, int length) {
+        this.nucleotides = nucleotides;
+        this.reversed = reversed;
+        this.start = start;
+        this.length = length;
+    }
+
+    /**
+     * Variable referencing the viewed packed nucleotide sequence.
+     */
+    private final PackedNucleotideSequence nucleotides;
+
+    /**
+     * Check whether this complement view reads the nucleotides in reverse order.
+     */
+    @Basic
+    @Immutable
+    public boolean isReversed() {
+        return reversed;
+    }
+
+    /**
+     * Variable registering whether this complement view reads the nucleotides in reverse order.
+     */
+    private final boolean reversed;
+
+    /**
+     * Variable registering the first position of the viewed region in the packed nucleotide sequence.
+     */
+    private final int start;
+
+    /**
+     * Return the number of nucleotides in this complement view.
+     */
+    @Basic
+    @Immutable
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Variable registering the number of nucleotides in this complement view.
+     */
+    private final int length;
+
+    /**
+     * Return the complement of the nucleotide at the given position of this view.
+     *
+     * @param index The position in this view.
+     * @throws IndexOutOfBoundsException The given index is not a position of this view.
+     * | index < 0 || index >= length()
+     */
+    @Override
+    public char charAt(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Illegal index " + index);
+        return nucleotides.complementAt(reversed ? start + length - 1 - index : start + index);
+    }
+
+    /**
+     * Return a view of the nucleotides between the given positions of this view, without copying them.
+     *
+     * @param from The start position (inclusive).
+     * @param to   The end position (exclusive).
+     * @throws IndexOutOfBoundsException The given positions do not describe a region of this view.
+     * | from < 0 || to > length() || from > to
+     */
+    @Override
+    public ComplementView subSequence(int from, int to) throws IndexOutOfBoundsException {
+        if (from < 0 || to > length || from > to)
+            throw new IndexOutOfBoundsException("Illegal region " + from + "-" + to);
+        return new ComplementView(nucleotides, reversed, reversed ? start + length - to : start + from, to - from);
+    }
+
+    /**
+     * Return the nucleotides of this view as a string.
+     */
+    @Override
+    public String toString() {
+        char[] symbols = new char[length];
+        for (int index = 0; index < length; index++)
+            symbols[index] = charAt(index);
+        return new String(symbols);
+    }
+}
@@ -0,0 +1,31 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of sequence repositories that can be shared between threads without external locking.
+ * The biological sequences and the organism and alphabet type indexes are stored in concurrent maps, so that
+ * lookups and queries never lock and queries can scan while other threads add or remove biological sequences.
+ * Additions and removals are striped over locks by sequence identifier, so that writes of different sequence
+ * identifiers rarely contend. The k-mer index, if any, keeps its posting lists in concurrent collections, and the
+ * substring search engine, if any, publishes immutable FM-indexes with a concurrent delta buffer and is rebuilt
+ * off to the side, so that queries use both without locking.
+ * A query running concurrently with writes sees every biological sequence that was stored during the whole
+ * query, and may or may not see biological sequences added or removed while it runs.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class ConcurrentSequenceRepository extends SequenceRepository {
+
+    /**
+     * Initialize this new concurrent sequence repository as a non-terminated sequence repository with no
+     * biological sequences.
+     *
+     * @effect | super(true)
+     */
+    @Raw
+    public ConcurrentSequenceRepository() {
+        super(true);
+    }
+}
@@ -0,0 +1,367 @@
+package be.kuleuven.OOP;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import be.kuleuven.OOP.exceptions.*;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of indexes on FASTA files, registering for each record its sequence identifier, its organism,
+ * its number of nucleotides, the offset of its first nucleotide and its line geometry.
+ * The index is stored in the tab-separated layout of a .fai file, with the organism as an extra column:
+ * id, length, offset, nucleotides per line, bytes per line and organism.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ * @invar Each entry of a FASTA index has a unique sequence identifier.
+ */
+public class FastaIndex {
+
+    /**
+     * Initialize this new FASTA index with the given entries.
+     *
+     * @param entries The entries of this new FASTA index, in the order of their records.
+     * @throws IllegalParseException ("The id ... occurs more than once")
+     *                               Two of the given entries have the same sequence identifier.
+     */
+    public FastaIndex(List<Entry> entries) throws IllegalParseException {
+        for (Entry entry : entries) {
+            if (this.entries.put(entry.getId(), entry) != null)
+                throw new IllegalParseException("The id " + entry.getId() + " occurs more than once");
+        }
+    }
+
+    /**
+     * Return the entries of this FASTA index, in the order of their records.
+     */
+    @Basic
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+    }
+
+    /**
+     * Return the entry of this FASTA index for the given sequence identifier, or null if there is none.
+     *
+     * @param id The sequence identifier to look up.
+     */
+    public Entry getEntry(String id) {
+        return entries.get(id);
+    }
+
+    /**
+     * Variable referencing a map collecting the entries of this FASTA index by their sequence identifier.
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * Build the index of the given FASTA file.
+     *
+     * @param fasta The FASTA file to index.
+     * @return A FASTA index with an entry for each record of the given file.
+     * @throws IllegalParseException The given file cannot be read, holds nucleotides before its first header,
+     *                               or holds a record whose lines are not all of the same length except for its last line.
+     */
+    public static FastaIndex build(File fasta) throws IllegalParseException {
+        try (InputStream input = new FileInputStream(fasta)) {
+            return new FastaIndex(new Indexer().index(input));
+        } catch (IOException exc) {
+            throw new IllegalParseException("File could not be indexed: " + exc.getMessage());
+        }
+    }
+
+    /**
+     * Read a FASTA index from the given index file.
+     *
+     * @param indexFile The index file to read.
+     * @throws IllegalParseException The given file cannot be read or is not a valid index file.
+     */
+    public static FastaIndex read(File indexFile) throws IllegalParseException {
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(indexFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] fields = line.split("\t");
+                if (fields.length < 5)
+                    throw new IllegalParseException("Illegal index line: " + line);
+                entries.add(new Entry(fields[0], fields.length > 5 ? fields[5] : "unknown",
+                        Integer.parseInt(fields[1]), Long.parseLong(fields[2]),
+                        Integer.parseInt(fields[3]), Integer.parseInt(fields[4])));
+            }
+        } catch (IOException exc) {
+            throw new IllegalParseException("Index file could not be read: " + exc.getMessage());
+        } catch (IllegalArgumentException exc) {
+            throw new IllegalParseException("Illegal index file: " + exc.getMessage());
+        }
+        return new FastaIndex(entries);
+    }
+
+    /**
+     * Write this FASTA index to the given index file.
+     *
+     * @param indexFile The index file to write to.
+     * @throws IOException The given file cannot be written.
+     */
+    public void write(File indexFile) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(indexFile))) {
+            for (Entry entry : entries.values()) {
+                writer.write(entry.getId() + "\t" + entry.getLength() + "\t" + entry.getOffset() + "\t"
+                        + entry.getLineBases() + "\t" + entry.getLineWidth() + "\t" + entry.getOrganism());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * A class of entries of a FASTA index, describing the position of a single record in a FASTA file.
+     */
+    public static class Entry {
+
+        /**
+         * Initialize this new entry with the given sequence identifier, organism, length, offset and line geometry.
+         *
+         * @param id        The sequence identifier of the record.
+         * @param organism  The organism of the record.
+         * @param length    The number of nucleotides of the record.
+         * @param offset    The offset in bytes of the first nucleotide of the record.
+         * @param lineBases The number of nucleotides on each full line of the record.
+         * @param lineWidth The number of bytes of each full line of the record, including its line terminator.
+         * @throws IllegalArgumentException ("Illegal line geometry")
+         *                                  The given length or offset is negative, or the line geometry is not
+         *                                  consistent with a record holding nucleotides.
+         */
+        public Entry(String id, String organism, int length, long offset, int lineBases, int lineWidth) throws IllegalArgumentException {
+            if (length < 0 || offset < 0 || (length > 0 && (lineBases <= 0 || lineWidth < lineBases)))
+                throw new IllegalArgumentException("Illegal line geometry");
+            this.id = id;
+            this.organism = organism;
+            this.length = length;
+            this.offset = offset;
+            this.lineBases = lineBases;
+            this.lineWidth = lineWidth;
+        }
+
+        /**
+         * Return the sequence identifier of the record of this entry.
+         */
+        @Basic
+        @Immutable
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Return the organism of the record of this entry.
+         */
+        @Basic
+        @Immutable
+        public String getOrganism() {
+            return organism;
+        }
+
+        /**
+         * Return the number of nucleotides of the record of this entry.
+         */
+        @Basic
+        @Immutable
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Return the offset in bytes of the first nucleotide of the record of this entry.
+         */
+        @Basic
+        @Immutable
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Return the number of nucleotides on each full line of the record of this entry.
+         */
+        @Basic
+        @Immutable
+        public int getLineBases() {
+            return lineBases;
+        }
+
+        /**
+         * Return the number of bytes of each full line of the record of this entry, including its line terminator.
+         */
+        @Basic
+        @Immutable
+        public int getLineWidth() {
+            return lineWidth;
+        }
+
+        /**
+         * Return the offset in bytes of the nucleotide at the given position of the record of this entry.
+         *
+         * @param position The position of the nucleotide in the record.
+         * @return The offset of the first nucleotide, plus the full lines before the given position,
+         * plus the position within its line.
+         * | result == getOffset() + (position / getLineBases()) * getLineWidth() + position % getLineBases()
+         */
+        public long getOffsetOf(int position) {
+            return offset + (long) (position / lineBases) * lineWidth + position % lineBases;
+        }
+
+        /**
+         * Variables registering the sequence identifier and the organism of the record of this entry.
+         */
+        private final String id, organism;
+
+        /**
+         * Variable registering the number of nucleotides of the record of this entry.
+         */
+        private final int length;
+
+        /**
+         * Variable registering the offset in bytes of the first nucleotide of the record of this entry.
+         */
+        private final long offset;
+
+        /**
+         * Variables registering the line geometry of the record of this entry.
+         */
+        private final int lineBases, lineWidth;
+    }
+
+    /**
+     * A class scanning a FASTA file in large blocks of bytes to collect the entries of its index.
+     */
+    private static class Indexer {
+
+        /**
+         * Return the entries of the records in the given input.
+         */
+        List<Entry> index(InputStream input) throws IOException, IllegalParseException {
+            byte[] buffer = new byte[FastaReader.BUFFER_SIZE];
+            long position = 0;
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                for (int index = 0; index < read; index++, position++) {
+                    accept(buffer[index], position);
+                }
+            }
+            if (inHeader) endHeader(position);
+            else if (lineWidth > 0) endLine();
+            endRecord();
+            return entries;
+        }
+
+        /**
+         * Process the given byte found at the given offset.
+         */
+        private void accept(byte symbol, long position) throws IllegalParseException {
+            if (inHeader) {
+                if (symbol == '\n') endHeader(position + 1);
+                else header.append((char) (symbol & 0xFF));
+                return;
+            }
+            if (lineWidth == 0 && symbol == '>') {
+                endRecord();
+                inHeader = true;
+                header = new StringBuilder();
+                return;
+            }
+            if (header == null && symbol != '\n' && symbol != '\r')
+                throw new IllegalParseException("The file does not start with a header");
+            lineWidth++;
+            if (symbol == '\n') endLine();
+            else if (symbol != '\r') lineBases++;
+        }
+
+        /**
+         * Register the end of the current header, the first nucleotide of its record being at the given offset.
+         */
+        private void endHeader(long offset) throws IllegalParseException {
+            inHeader = false;
+            String[] description = SequenceFileParser.parseHeader(header.toString().trim());
+            id = description[0];
+            organism = description[1];
+            recordOffset = offset;
+            length = 0;
+            firstLineBases = firstLineWidth = 0;
+            lastLineShort = false;
+        }
+
+        /**
+         * Register the end of the current line of nucleotides.
+         */
+        private void endLine() throws IllegalParseException {
+            if (id != null && lineBases > 0) {
+                if (firstLineBases == 0) {
+                    firstLineBases = lineBases;
+                    firstLineWidth = lineWidth;
+                } else if (lastLineShort || lineBases > firstLineBases) {
+                    throw new IllegalParseException("Different line length in " + id);
+                } else if (lineBases < firstLineBases || lineWidth != firstLineWidth) {
+                    lastLineShort = true;
+                }
+                length += lineBases;
+            } else if (id != null && length > 0) {
+                lastLineShort = true;
+            }
+            lineBases = lineWidth = 0;
+        }
+
+        /**
+         * Register the end of the current record, if any.
+         */
+        private void endRecord() {
+            if (id != null)
+                entries.add(new Entry(id, organism, length, recordOffset, firstLineBases, firstLineWidth));
+            id = null;
+        }
+
+        /**
+         * Variable referencing the entries collected so far.
+         */
+        private final List<Entry> entries = new ArrayList<>();
+
+        /**
+         * Variable referencing the header being read, or null if no header has been read yet.
+         */
+        private StringBuilder header;
+
+        /**
+         * Variable registering whether a header is being read.
+         */
+        private boolean inHeader;
+
+        /**
+         * Variables registering the sequence identifier and organism of the current record.
+         */
+        private String id, organism;
+
+        /**
+         * Variable registering the offset of the first nucleotide of the current record.
+         */
+        private long recordOffset;
+
+        /**
+         * Variables registering the number of nucleotides of the current record, the geometry of its first line,
+         * and the geometry of the current line.
+         */
+        private int length, firstLineBases, firstLineWidth, lineBases, lineWidth;
+
+        /**
+         * Variable registering whether a line shorter than the first line of the current record has been read.
+         */
+        private boolean lastLineShort;
+    }
+}
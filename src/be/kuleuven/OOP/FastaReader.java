@@ -0,0 +1,220 @@
+package be.kuleuven.OOP;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+import be.kuleuven.OOP.exceptions.*;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of readers streaming the records of a file in FASTA format one by one as biological sequences.
+ * The input is read in large blocks of bytes, and the nucleotides of each record are packed while they are read,
+ * so that only the record being read is kept in memory.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class FastaReader implements Closeable {
+
+    /**
+     * Constant registering the size of the blocks read from the input.
+     */
+    public static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Initialize this new FASTA reader on the given input, reading biological sequences of the given alphabet.
+     *
+     * @param input    The input to read the records from.
+     * @param alphabet The alphabet of the biological sequences in the given input.
+     * @post The new FASTA reader reads from the given input.
+     * @post The new FASTA reader reads biological sequences of the given alphabet.
+     * | new.getAlphabet() == alphabet
+     */
+    public FastaReader(InputStream input, Alphabet alphabet) {
+        this.input = input;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.alphabet = alphabet;
+    }
+
+    /**
+     * Initialize this new FASTA reader reading biological sequences of the given alphabet, for subclasses
+     * providing their own input by overriding read().
+     *
+     * @param alphabet The alphabet of the biological sequences read by this new FASTA reader.
+     * @post The new FASTA reader reads biological sequences of the given alphabet.
+     * | new.getAlphabet() == alphabet
+     */
+    protected FastaReader(Alphabet alphabet) {
+        this.input = null;
+        this.buffer = null;
+        this.alphabet = alphabet;
+    }
+
+    /**
+     * Variable referencing the input of this FASTA reader.
+     */
+    private final InputStream input;
+
+    /**
+     * Return the alphabet of the biological sequences read by this FASTA reader.
+     */
+    @Basic
+    @Immutable
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    /**
+     * Variable registering the alphabet of the biological sequences read by this FASTA reader.
+     */
+    private final Alphabet alphabet;
+
+    /**
+     * Check whether this FASTA reader has another record to read.
+     *
+     * @return True if and only if the input of this FASTA reader holds a header line that has not been read yet.
+     * @throws IllegalParseException The input holds nucleotides before its first header, or cannot be read.
+     */
+    public boolean hasNext() throws IllegalParseException {
+        if (nextHeader == null) {
+            int symbol;
+            do {
+                symbol = read();
+            } while (symbol == '\n' || symbol == '\r' || symbol == ' ' || symbol == '\t');
+            if (symbol == -1) return false;
+            if (symbol != '>')
+                throw new IllegalParseException("The file does not start with a header");
+            nextHeader = readHeader();
+        }
+        return nextHeader != null;
+    }
+
+    /**
+     * Return the biological sequence of the next record of this FASTA reader.
+     *
+     * @return A biological sequence with the sequence identifier and organism described in the header of the next record,
+     * and the nucleotides of that record.
+     * @throws IllegalParseException There is no next record, the next record has no nucleotides, or the input cannot be read.
+     * | ! hasNext()
+     * @throws IllegalAlphabetException The next record holds a symbol that is not a valid symbol for the alphabet of this reader.
+     * @throws IllegalIdException The header of the next record does not describe a valid sequence identifier.
+     */
+    public BiologicalSequence next() throws IllegalParseException, IllegalAlphabetException, IllegalIdException {
+        if (!hasNext())
+            throw new IllegalParseException("There is no record left");
+        String[] description = SequenceFileParser.parseHeader(nextHeader);
+        nextHeader = null;
+        PackedNucleotideSequence.Builder builder = new PackedNucleotideSequence.Builder(alphabet, 1024);
+        if (readNucleotides(builder, description[0]))
+            nextHeader = readHeader();
+        if (builder.length() == 0)
+            throw new IllegalParseException("There are no nucleotides for " + description[0]);
+        return new BiologicalSequence(description[0], description[1], builder.build(), alphabet);
+    }
+
+    /**
+     * Pack the nucleotides of the current record into the given builder, up to the '>' starting the next header or
+     * the end of the input, skipping line breaks and blanks.
+     *
+     * @param builder The builder to pack the nucleotides into.
+     * @param id      The sequence identifier of the current record.
+     * @return True if and only if the '>' starting the next header has been read.
+     * @throws IllegalAlphabetException The current record holds a symbol that is not a valid symbol for the alphabet of this reader.
+     * @throws IllegalParseException The input cannot be read.
+     */
+    boolean readNucleotides(PackedNucleotideSequence.Builder builder, String id) throws IllegalParseException, IllegalAlphabetException {
+        boolean atLineStart = true;
+        int symbol;
+        while ((symbol = read()) != -1) {
+            if (atLineStart && symbol == '>')
+                return true;
+            atLineStart = symbol == '\n';
+            if (symbol == '\n' || isBlank(symbol)) continue;
+            if (!builder.append((char) symbol))
+                throw illegalSymbol((char) symbol, builder.length(), id);
+        }
+        return false;
+    }
+
+    /**
+     * Check whether the given byte is a blank skipped within the nucleotides of a record.
+     *
+     * @param symbol The byte to check.
+     * @return | result == (symbol == '\r' || symbol == ' ' || symbol == '\t')
+     */
+    static boolean isBlank(int symbol) {
+        return symbol == '\r' || symbol == ' ' || symbol == '\t';
+    }
+
+    /**
+     * Return an exception reporting the given symbol at the given offset of the record with the given sequence identifier.
+     */
+    IllegalAlphabetException illegalSymbol(char symbol, int offset, String id) {
+        return new IllegalAlphabetException("Symbol " + symbol + " at offset " + offset + " of " + id
+                + " does not match the requirements of a " + alphabet.getAlphabetName() + " sequence.");
+    }
+
+    /**
+     * Read the remainder of the current line as a header, the leading '>' already being read.
+     */
+    private String readHeader() throws IllegalParseException {
+        StringBuilder header = new StringBuilder();
+        int symbol;
+        while ((symbol = read()) != -1 && symbol != '\n') {
+            header.append((char) symbol);
+        }
+        return header.toString().trim();
+    }
+
+    /**
+     * Variable registering the header of the next record, if it has already been read.
+     */
+    private String nextHeader;
+
+    /**
+     * Return the next byte of the input of this FASTA reader, or -1 if the end of the input is reached.
+     *
+     * @throws IllegalParseException The input cannot be read.
+     */
+    protected int read() throws IllegalParseException {
+        if (position == limit) {
+            if (endOfInput) return -1;
+            try {
+                limit = input.read(buffer, 0, buffer.length);
+            } catch (IOException exc) {
+                throw new IllegalParseException("The file could not be read: " + exc.getMessage());
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                endOfInput = true;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Variable referencing the block of bytes most recently read from the input.
+     */
+    private final byte[] buffer;
+
+    /**
+     * Variables registering the position of the next byte in the buffer, and the number of bytes in the buffer.
+     */
+    private int position, limit;
+
+    /**
+     * Variable registering whether the end of the input has been reached.
+     */
+    private boolean endOfInput = false;
+
+    /**
+     * Close the input of this FASTA reader.
+     */
+    @Override
+    public void close() throws IOException {
+        if (input != null) input.close();
+    }
+}
@@ -0,0 +1,322 @@
+package be.kuleuven.OOP;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import be.kuleuven.OOP.exceptions.*;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of readers streaming the records of a file in FASTQ format one by one as sequencing reads.
+ * The input is read in large blocks of bytes. Each record is first read as raw bytes into buffers that are reused
+ * from record to record; the quality trimming and filtering stages of the reader then run on these raw bytes, so
+ * that only the nucleotides of the reads that are kept are validated and packed.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class FastqReader implements Closeable {
+
+    /**
+     * Initialize this new FASTQ reader on the given input, reading sequencing reads of the given alphabet.
+     * The new FASTQ reader trims nothing, and only filters out reads without nucleotides.
+     *
+     * @param input    The input to read the records from.
+     * @param alphabet The alphabet of the sequencing reads in the given input.
+     * @post | new.getAlphabet() == alphabet
+     * @post | new.getTrimThreshold() == 0
+     * @post | new.getMinimumLength() == 1
+     * @post | new.getMinimumMeanQuality() == 0
+     */
+    public FastqReader(InputStream input, Alphabet alphabet) {
+        this.input = input;
+        this.buffer = new byte[FastaReader.BUFFER_SIZE];
+        this.alphabet = alphabet;
+    }
+
+    /**
+     * Variable referencing the input of this FASTQ reader.
+     */
+    private final InputStream input;
+
+    /**
+     * Return the alphabet of the sequencing reads read by this FASTQ reader.
+     */
+    @Basic
+    @Immutable
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    /**
+     * Variable registering the alphabet of the sequencing reads read by this FASTQ reader.
+     */
+    private final Alphabet alphabet;
+
+    /**
+     * Return the quality score below which this FASTQ reader trims the 3' end of the reads, 0 if it does not trim.
+     */
+    @Basic
+    public int getTrimThreshold() {
+        return trimThreshold;
+    }
+
+    /**
+     * Set the quality score below which this FASTQ reader trims the 3' end of the reads.
+     *
+     * @param trimThreshold The new trim threshold, 0 to disable trimming.
+     * @throws IllegalArgumentException ("Illegal trim threshold")
+     *                                  | trimThreshold < 0 || trimThreshold > SequencingRead.MAX_QUALITY
+     * @post | new.getTrimThreshold() == trimThreshold
+     * @see SequencingRead#trimQuality(int)
+     */
+    public void setTrimThreshold(int trimThreshold) throws IllegalArgumentException {
+        if (trimThreshold < 0 || trimThreshold > SequencingRead.MAX_QUALITY)
+            throw new IllegalArgumentException("Illegal trim threshold");
+        this.trimThreshold = trimThreshold;
+    }
+
+    /**
+     * Variable registering the quality score below which this FASTQ reader trims the 3' end of the reads.
+     */
+    private int trimThreshold = 0;
+
+    /**
+     * Return the minimal number of nucleotides of the reads returned by this FASTQ reader, after trimming.
+     */
+    @Basic
+    public int getMinimumLength() {
+        return minimumLength;
+    }
+
+    /**
+     * Set the minimal number of nucleotides of the reads returned by this FASTQ reader, after trimming.
+     *
+     * @param minimumLength The new minimal length.
+     * @throws IllegalArgumentException ("Illegal minimum length")
+     *                                  | minimumLength < 1
+     * @post | new.getMinimumLength() == minimumLength
+     */
+    public void setMinimumLength(int minimumLength) throws IllegalArgumentException {
+        if (minimumLength < 1)
+            throw new IllegalArgumentException("Illegal minimum length");
+        this.minimumLength = minimumLength;
+    }
+
+    /**
+     * Variable registering the minimal number of nucleotides of the reads returned by this FASTQ reader.
+     */
+    private int minimumLength = 1;
+
+    /**
+     * Return the minimal mean quality score of the reads returned by this FASTQ reader, after trimming.
+     */
+    @Basic
+    public double getMinimumMeanQuality() {
+        return minimumMeanQuality;
+    }
+
+    /**
+     * Set the minimal mean quality score of the reads returned by this FASTQ reader, after trimming.
+     *
+     * @param minimumMeanQuality The new minimal mean quality score.
+     * @throws IllegalArgumentException ("Illegal minimum mean quality")
+     *                                  | minimumMeanQuality < 0 || minimumMeanQuality > SequencingRead.MAX_QUALITY
+     * @post | new.getMinimumMeanQuality() == minimumMeanQuality
+     */
+    public void setMinimumMeanQuality(double minimumMeanQuality) throws IllegalArgumentException {
+        if (!(minimumMeanQuality >= 0 && minimumMeanQuality <= SequencingRead.MAX_QUALITY))
+            throw new IllegalArgumentException("Illegal minimum mean quality");
+        this.minimumMeanQuality = minimumMeanQuality;
+    }
+
+    /**
+     * Variable registering the minimal mean quality score of the reads returned by this FASTQ reader.
+     */
+    private double minimumMeanQuality = 0;
+
+    /**
+     * Return the number of records this FASTQ reader has read so far, including the filtered records.
+     */
+    @Basic
+    public long getNbRecords() {
+        return nbRecords;
+    }
+
+    /**
+     * Variable registering the number of records this FASTQ reader has read so far.
+     */
+    private long nbRecords;
+
+    /**
+     * Return the number of records this FASTQ reader has filtered out so far.
+     */
+    @Basic
+    public long getNbFiltered() {
+        return nbFiltered;
+    }
+
+    /**
+     * Variable registering the number of records this FASTQ reader has filtered out so far.
+     */
+    private long nbFiltered;
+
+    /**
+     * Check whether this FASTQ reader has another read to return, skipping the records that are filtered out.
+     *
+     * @return True if and only if the input of this FASTQ reader holds a record that has not been read yet, and that
+     * is at least getMinimumLength() long and of at least getMinimumMeanQuality() on average after trimming.
+     * @throws IllegalParseException The input holds a malformed record, or cannot be read.
+     */
+    public boolean hasNext() throws IllegalParseException {
+        while (!pending) {
+            if (!readRecord()) return false;
+            nbRecords++;
+            keptLength = trimThreshold > 0 ? SequencingRead.trimPosition(qualities, nbBases, trimThreshold) : nbBases;
+            if (keptLength >= minimumLength && SequencingRead.sumOf(qualities, keptLength) >= minimumMeanQuality * keptLength)
+                pending = true;
+            else
+                nbFiltered++;
+        }
+        return true;
+    }
+
+    /**
+     * Return the sequencing read of the next record of this FASTQ reader that is not filtered out, trimmed.
+     *
+     * @return A sequencing read with the first word of the header of the next record as its sequence identifier, and
+     * the nucleotides and quality scores of that record up to its trim position.
+     * @throws IllegalParseException There is no next read, or the input cannot be read.
+     * | ! hasNext()
+     * @throws IllegalAlphabetException The next read holds a symbol that is not a valid symbol for the alphabet of this reader.
+     * @throws IllegalIdException The header of the next record does not start with a valid sequence identifier.
+     */
+    public SequencingRead next() throws IllegalParseException, IllegalAlphabetException, IllegalIdException {
+        if (!hasNext())
+            throw new IllegalParseException("There is no record left");
+        pending = false;
+        int idLength = 0;
+        while (idLength < nbHeaderBytes && header[idLength] != ' ' && header[idLength] != '\t') idLength++;
+        char[] id = new char[idLength];
+        for (int index = 0; index < idLength; index++)
+            id[index] = (char) (header[index] & 0xFF);
+        PackedNucleotideSequence.Builder builder = new PackedNucleotideSequence.Builder(alphabet, keptLength);
+        for (int index = 0; index < keptLength; index++) {
+            if (!builder.append((char) (bases[index] & 0xFF)))
+                throw new IllegalAlphabetException("Symbol " + (char) (bases[index] & 0xFF) + " at offset " + index + " of " + new String(id)
+                        + " does not match the requirements of a " + alphabet.getAlphabetName() + " sequence.");
+        }
+        return new SequencingRead(new String(id), builder.build(), alphabet, Arrays.copyOf(qualities, keptLength));
+    }
+
+    /**
+     * Read the next record of the input as raw bytes into the buffers of this FASTQ reader.
+     *
+     * @return False if and only if the input holds no record anymore.
+     * @throws IllegalParseException The next record is malformed, or the input cannot be read.
+     */
+    private boolean readRecord() throws IllegalParseException {
+        int symbol;
+        do {
+            symbol = read();
+        } while (symbol == '\n' || symbol == '\r' || symbol == ' ' || symbol == '\t');
+        if (symbol == -1) return false;
+        if (symbol != '@')
+            throw new IllegalParseException("The record does not start with a header");
+        nbHeaderBytes = 0;
+        while ((symbol = read()) != -1 && symbol != '\n') {
+            if (symbol == '\r') continue;
+            if (nbHeaderBytes == header.length) header = Arrays.copyOf(header, 2 * header.length);
+            header[nbHeaderBytes++] = (byte) symbol;
+        }
+        nbBases = 0;
+        boolean atLineStart = true;
+        while ((symbol = read()) != '+' || !atLineStart) {
+            if (symbol == -1)
+                throw new IllegalParseException("The record has no separator line");
+            atLineStart = symbol == '\n';
+            if (symbol == '\n' || symbol == '\r' || symbol == ' ' || symbol == '\t') continue;
+            if (nbBases == bases.length) bases = Arrays.copyOf(bases, 2 * bases.length);
+            bases[nbBases++] = (byte) symbol;
+        }
+        do {
+            symbol = read();
+        } while (symbol != -1 && symbol != '\n');
+        if (qualities.length < nbBases) qualities = new byte[Math.max(nbBases, 2 * qualities.length)];
+        for (int nbQualities = 0; nbQualities < nbBases; ) {
+            symbol = read();
+            if (symbol == -1)
+                throw new IllegalParseException("The record has fewer qualities than nucleotides");
+            if (symbol == '\n' || symbol == '\r') continue;
+            int quality = symbol - SequencingRead.PHRED_OFFSET;
+            if (quality < 0 || quality > SequencingRead.MAX_QUALITY)
+                throw new IllegalParseException("Illegal quality " + (char) symbol + " at offset " + nbQualities);
+            qualities[nbQualities++] = (byte) quality;
+        }
+        return true;
+    }
+
+    /**
+     * Variables referencing the raw header, nucleotides and quality scores of the most recently read record.
+     */
+    private byte[] header = new byte[256], bases = new byte[1024], qualities = new byte[1024];
+
+    /**
+     * Variables registering the number of bytes of the header and the number of nucleotides of the most recently
+     * read record, and the number of its nucleotides kept after trimming.
+     */
+    private int nbHeaderBytes, nbBases, keptLength;
+
+    /**
+     * Variable registering whether the most recently read record passed the filters and has not been returned yet.
+     */
+    private boolean pending;
+
+    /**
+     * Return the next byte of the input of this FASTQ reader, or -1 if the end of the input is reached.
+     *
+     * @throws IllegalParseException The input cannot be read.
+     */
+    private int read() throws IllegalParseException {
+        if (position == limit) {
+            if (endOfInput) return -1;
+            try {
+                limit = input.read(buffer, 0, buffer.length);
+            } catch (IOException exc) {
+                throw new IllegalParseException("The file could not be read: " + exc.getMessage());
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                endOfInput = true;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Variable referencing the block of bytes most recently read from the input.
+     */
+    private final byte[] buffer;
+
+    /**
+     * Variables registering the position of the next byte in the buffer, and the number of bytes in the buffer.
+     */
+    private int position, limit;
+
+    /**
+     * Variable registering whether the end of the input has been reached.
+     */
+    private boolean endOfInput = false;
+
+    /**
+     * Close the input of this FASTQ reader.
+     */
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,362 @@
+package be.kuleuven.OOP;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of FM-indexes over the nucleotides of a collection of biological sequences of the same type of alphabet.
+ * The nucleotides are concatenated, each biological sequence followed by a separator and the whole text followed
+ * by a unique sentinel, and the Burrows-Wheeler transform of that text is stored together with occurrence counts sampled every 64 rows and the suffix array
+ * sampled every sampleRate text positions. The unknown nucleotide 'N' is indexed as a separator, so that no match
+ * spans it.
+ * Counting the occurrences of a pattern takes time proportional to the length of the pattern; locating each
+ * occurrence takes at most sampleRate additional steps.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class FmIndex {
+
+    /**
+     * Constant registering the default distance between sampled text positions.
+     */
+    public static final int DEFAULT_SAMPLE_RATE = 32;
+
+    /**
+     * Constant registering the number of symbols of the transformed text: the sentinel, the separator and four nucleotides.
+     */
+    private static final int SIGMA = 6;
+
+    /**
+     * Constants registering the symbols of the sentinel ending the text and of the separator between biological sequences.
+     */
+    private static final byte SENTINEL = 0, SEPARATOR = 1;
+
+    /**
+     * Constant registering the number of rows between occurrence count checkpoints.
+     */
+    private static final int CHECKPOINT_RATE = 64;
+
+    /**
+     * Initialize this new FM-index over the given biological sequences with the default sample rate.
+     *
+     * @param alphabet            The alphabet encoding the patterns looked up in this new FM-index.
+     * @param biologicalSequences The biological sequences to index.
+     * @effect | this(alphabet, biologicalSequences, DEFAULT_SAMPLE_RATE)
+     */
+    public FmIndex(Alphabet alphabet, Collection<BiologicalSequence> biologicalSequences) throws IllegalArgumentException {
+        this(alphabet, biologicalSequences, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * Initialize this new FM-index over the given biological sequences with the given sample rate.
+     *
+     * @param alphabet            The alphabet encoding the patterns looked up in this new FM-index.
+     * @param biologicalSequences The biological sequences to index.
+     * @param sampleRate          The distance between the text positions of which the suffix array is sampled.
+     * @throws IllegalArgumentException ("Illegal sample rate")
+     *                                  The given sample rate is not positive.
+     * @throws IllegalArgumentException ("Too many nucleotides to index")
+     *                                  The given biological sequences hold too many nucleotides to fit in a single index.
+     */
+    public FmIndex(Alphabet alphabet, Collection<BiologicalSequence> biologicalSequences, int sampleRate) throws IllegalArgumentException {
+        if (sampleRate <= 0)
+            throw new IllegalArgumentException("Illegal sample rate");
+        this.alphabet = alphabet;
+        this.sampleRate = sampleRate;
+
+        long total = 1;
+        for (BiologicalSequence biologicalSequence : biologicalSequences)
+            total += biologicalSequence.getNucleotideSequenceLength() + 1;
+        if (total >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many nucleotides to index");
+
+        byte[] text = new byte[(int) total];
+        ids = new String[biologicalSequences.size()];
+        starts = new int[biologicalSequences.size()];
+        int position = 0, sequence = 0;
+        for (BiologicalSequence biologicalSequence : biologicalSequences) {
+            PackedNucleotideSequence nucleotides = biologicalSequence.getPackedNucleotideSequence();
+            ids[sequence] = biologicalSequence.getId();
+            starts[sequence++] = position;
+            for (int index = 0; index < nucleotides.length(); index++)
+                text[position++] = (byte) (nucleotides.isUnknownAt(index) ? SEPARATOR : nucleotides.codeAt(index) + 2);
+            text[position++] = SEPARATOR;
+        }
+        text[position] = SENTINEL;
+
+        int[] suffixArray = buildSuffixArray(text);
+        int length = text.length;
+        bwt = new byte[length];
+        occurrences = new int[SIGMA][length / CHECKPOINT_RATE + 1];
+        sampledRows = new long[(length + 63) >>> 6];
+        int[] counts = new int[SIGMA];
+        List<Integer> sampleList = new ArrayList<>();
+        for (int row = 0; row < length; row++) {
+            if (row % CHECKPOINT_RATE == 0) {
+                for (int symbol = 0; symbol < SIGMA; symbol++)
+                    occurrences[symbol][row / CHECKPOINT_RATE] = counts[symbol];
+            }
+            int suffix = suffixArray[row];
+            bwt[row] = text[suffix == 0 ? length - 1 : suffix - 1];
+            counts[bwt[row]]++;
+            if (suffix % sampleRate == 0) {
+                sampledRows[row >>> 6] |= 1L << row;
+                sampleList.add(suffix);
+            }
+        }
+        if (length % CHECKPOINT_RATE == 0) {
+            for (int symbol = 0; symbol < SIGMA; symbol++)
+                occurrences[symbol][length / CHECKPOINT_RATE] = counts[symbol];
+        }
+        firstRows = new int[SIGMA + 1];
+        for (int symbol = 0; symbol < SIGMA; symbol++)
+            firstRows[symbol + 1] = firstRows[symbol] + counts[symbol];
+        samples = new int[sampleList.size()];
+        for (int index = 0; index < samples.length; index++)
+            samples[index] = sampleList.get(index);
+        sampledRanks = new int[sampledRows.length];
+        for (int word = 1; word < sampledRows.length; word++)
+            sampledRanks[word] = sampledRanks[word - 1] + Long.bitCount(sampledRows[word - 1]);
+    }
+
+    /**
+     * Return the suffix array of the given text, built by prefix doubling with radix sorting.
+     * Positions beyond the end of the text are considered smaller than any symbol.
+     *
+     * @param text The text to sort the suffixes of, holding symbols below SIGMA and ending with a unique smallest symbol.
+     */
+    static int[] buildSuffixArray(byte[] text) {
+        int length = text.length;
+        int[] suffixArray = new int[length], rank = new int[length], other = new int[length];
+        int[] counts = new int[Math.max(SIGMA, length) + 1];
+        for (byte symbol : text) counts[symbol + 1]++;
+        for (int symbol = 1; symbol <= SIGMA; symbol++) counts[symbol] += counts[symbol - 1];
+        for (int index = 0; index < length; index++) suffixArray[counts[text[index]]++] = index;
+        int classes = 0;
+        for (int row = 0; row < length; row++) {
+            if (row > 0 && text[suffixArray[row]] != text[suffixArray[row - 1]]) classes++;
+            rank[suffixArray[row]] = classes;
+        }
+        classes++;
+        for (int step = 1; step < length && classes < length; step <<= 1) {
+            int next = 0;
+            for (int index = length - step; index < length; index++) other[next++] = index;
+            for (int row = 0; row < length; row++)
+                if (suffixArray[row] >= step) other[next++] = suffixArray[row] - step;
+            Arrays.fill(counts, 0, classes + 1, 0);
+            for (int index = 0; index < length; index++) counts[rank[index] + 1]++;
+            for (int rankClass = 1; rankClass <= classes; rankClass++) counts[rankClass] += counts[rankClass - 1];
+            for (int index = 0; index < length; index++) suffixArray[counts[rank[other[index]]]++] = other[index];
+            other[suffixArray[0]] = 0;
+            classes = 1;
+            for (int row = 1; row < length; row++) {
+                int previous = suffixArray[row - 1], current = suffixArray[row];
+                int previousSecond = previous + step < length ? rank[previous + step] : -1;
+                int currentSecond = current + step < length ? rank[current + step] : -1;
+                if (rank[previous] != rank[current] || previousSecond != currentSecond) classes++;
+                other[current] = classes - 1;
+            }
+            int[] swap = rank;
+            rank = other;
+            other = swap;
+        }
+        return suffixArray;
+    }
+
+    /**
+     * Return the alphabet encoding the patterns looked up in this FM-index.
+     */
+    @Basic
+    @Immutable
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    /**
+     * Variable registering the alphabet encoding the patterns looked up in this FM-index.
+     */
+    private final Alphabet alphabet;
+
+    /**
+     * Return the distance between the text positions of which the suffix array is sampled.
+     */
+    @Basic
+    @Immutable
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Variable registering the distance between the text positions of which the suffix array is sampled.
+     */
+    private final int sampleRate;
+
+    /**
+     * Return the number of biological sequences indexed by this FM-index.
+     */
+    public int getNbBiologicalSequences() {
+        return ids.length;
+    }
+
+    /**
+     * Variables referencing the sequence identifiers of the indexed biological sequences and the text positions
+     * at which they start, in the order of the text.
+     */
+    private final String[] ids;
+    private final int[] starts;
+
+    /**
+     * Variable referencing the Burrows-Wheeler transform of the indexed text.
+     */
+    private final byte[] bwt;
+
+    /**
+     * Variable referencing, for each symbol, the number of its occurrences in the transform before each checkpoint.
+     */
+    private final int[][] occurrences;
+
+    /**
+     * Variable referencing, for each symbol, the first row of the suffixes starting with that symbol.
+     */
+    private final int[] firstRows;
+
+    /**
+     * Variable referencing a bit set of the rows of which the suffix array is sampled.
+     */
+    private final long[] sampledRows;
+
+    /**
+     * Variable referencing the number of sampled rows before each word of the bit set of sampled rows.
+     */
+    private final int[] sampledRanks;
+
+    /**
+     * Variable referencing the sampled text positions, in the order of their rows.
+     */
+    private final int[] samples;
+
+    /**
+     * Return the number of occurrences of the given symbol in the transform before the given row.
+     */
+    private int occurrences(int symbol, int row) {
+        int checkpoint = row / CHECKPOINT_RATE;
+        int count = occurrences[symbol][checkpoint];
+        for (int index = checkpoint * CHECKPOINT_RATE; index < row; index++)
+            if (bwt[index] == symbol) count++;
+        return count;
+    }
+
+    /**
+     * Return the range of rows of the suffixes starting with the given pattern, or null if the given pattern
+     * cannot be looked up in this FM-index.
+     *
+     * @return An array holding the first row (inclusive) and the last row (exclusive) of the range.
+     */
+    private int[] rangeOf(CharSequence pattern) {
+        int first = 0, last = bwt.length;
+        for (int index = pattern.length() - 1; index >= 0 && first < last; index--) {
+            byte code = alphabet.encode(pattern.charAt(index));
+            if (code == PackedNucleotideSequence.N_CODE) return null;
+            if (code == PackedNucleotideSequence.INVALID_CODE) return new int[]{0, 0};
+            int symbol = code + 2;
+            first = firstRows[symbol] + occurrences(symbol, first);
+            last = firstRows[symbol] + occurrences(symbol, last);
+        }
+        return new int[]{first, Math.max(first, last)};
+    }
+
+    /**
+     * Check whether the given pattern can be looked up in this FM-index.
+     *
+     * @param pattern The pattern to check.
+     * @return True if and only if the given pattern is not empty and does not hold the unknown nucleotide 'N'.
+     */
+    public boolean canLookUp(CharSequence pattern) {
+        return pattern.length() > 0 && rangeOf(pattern) != null;
+    }
+
+    /**
+     * Return the number of occurrences of the given pattern in the indexed biological sequences.
+     *
+     * @param pattern The pattern to count.
+     * @throws IllegalArgumentException ("The pattern cannot be looked up")
+     *                                  | ! canLookUp(pattern)
+     */
+    public int count(CharSequence pattern) throws IllegalArgumentException {
+        int[] range = lookUp(pattern);
+        return range[1] - range[0];
+    }
+
+    /**
+     * Return the matches of the given pattern in the indexed biological sequences.
+     *
+     * @param pattern The pattern to locate.
+     * @throws IllegalArgumentException ("The pattern cannot be looked up")
+     *                                  | ! canLookUp(pattern)
+     */
+    public List<SequenceMatch> locate(CharSequence pattern) throws IllegalArgumentException {
+        int[] range = lookUp(pattern);
+        List<SequenceMatch> matches = new ArrayList<>(range[1] - range[0]);
+        for (int row = range[0]; row < range[1]; row++) {
+            int position = textPositionOf(row);
+            int sequence = sequenceAt(position);
+            matches.add(new SequenceMatch(ids[sequence], position - starts[sequence]));
+        }
+        return matches;
+    }
+
+    /**
+     * Return the sequence identifiers of the indexed biological sequences holding the given pattern.
+     *
+     * @param pattern The pattern to look for.
+     * @throws IllegalArgumentException ("The pattern cannot be looked up")
+     *                                  | ! canLookUp(pattern)
+     */
+    public Set<String> getIdsContaining(CharSequence pattern) throws IllegalArgumentException {
+        int[] range = lookUp(pattern);
+        Set<String> result = new HashSet<>();
+        for (int row = range[0]; row < range[1]; row++)
+            result.add(ids[sequenceAt(textPositionOf(row))]);
+        return result;
+    }
+
+    /**
+     * Return the range of rows of the suffixes starting with the given pattern.
+     */
+    private int[] lookUp(CharSequence pattern) throws IllegalArgumentException {
+        int[] range = pattern.length() == 0 ? null : rangeOf(pattern);
+        if (range == null)
+            throw new IllegalArgumentException("The pattern cannot be looked up");
+        return range;
+    }
+
+    /**
+     * Return the text position of the suffix in the given row, walking backwards through the text until
+     * a sampled row is reached.
+     */
+    private int textPositionOf(int row) {
+        int steps = 0;
+        while ((sampledRows[row >>> 6] & (1L << row)) == 0) {
+            int symbol = bwt[row];
+            row = firstRows[symbol] + occurrences(symbol, row);
+            steps++;
+        }
+        int rank = sampledRanks[row >>> 6] + Long.bitCount(sampledRows[row >>> 6] & ((1L << row) - 1));
+        return samples[rank] + steps;
+    }
+
+    /**
+     * Return the index of the indexed biological sequence holding the given text position.
+     */
+    private int sequenceAt(int position) {
+        int index = Arrays.binarySearch(starts, position);
+        return index >= 0 ? index : -index - 2;
+    }
+}
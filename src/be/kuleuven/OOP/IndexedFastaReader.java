@@ -0,0 +1,211 @@
+package be.kuleuven.OOP;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import be.kuleuven.OOP.exceptions.*;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of readers retrieving single records, or regions of records, from a FASTA file through its index.
+ * Each retrieval reads exactly the bytes of the requested nucleotides with a single positioned read.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class IndexedFastaReader implements Closeable {
+
+    /**
+     * Initialize this new indexed FASTA reader on the given FASTA file with the given index, reading biological
+     * sequences of the given alphabet.
+     *
+     * @param fasta    The FASTA file to read from.
+     * @param index    The index of the given FASTA file.
+     * @param alphabet The alphabet of the biological sequences in the given FASTA file.
+     * @throws IllegalParseException ("File was not found")
+     *                               The given FASTA file does not exist or cannot be opened.
+     */
+    public IndexedFastaReader(File fasta, FastaIndex index, Alphabet alphabet) throws IllegalParseException {
+        try {
+            this.channel = FileChannel.open(fasta.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new IllegalParseException("File was not found");
+        }
+        this.index = index;
+        this.alphabet = alphabet;
+    }
+
+    /**
+     * Initialize this new indexed FASTA reader on the given FASTA file, reading biological sequences of the given
+     * alphabet. The index is read from the file with the name of the given FASTA file followed by ".fai", and built
+     * and written to that file if it does not exist yet or is stale.
+     *
+     * @param fasta    The FASTA file to read from.
+     * @param alphabet The alphabet of the biological sequences in the given FASTA file.
+     * @throws IllegalParseException The given FASTA file or its index cannot be read.
+     */
+    public IndexedFastaReader(File fasta, Alphabet alphabet) throws IllegalParseException {
+        this(fasta, indexOf(fasta), alphabet);
+    }
+
+    /**
+     * Return the index of the given FASTA file, read from its ".fai" file or built and written to that file.
+     */
+    private static FastaIndex indexOf(File fasta) throws IllegalParseException {
+        File indexFile = new File(fasta.getPath() + ".fai");
+        if (indexFile.exists() && indexFile.lastModified() >= fasta.lastModified()) {
+            FastaIndex index = FastaIndex.read(indexFile);
+            if (!isStale(index, fasta.length()))
+                return index;
+        }
+        FastaIndex index = FastaIndex.build(fasta);
+        try {
+            index.write(indexFile);
+        } catch (IOException exc) {
+            throw new IllegalParseException("Index file could not be written: " + exc.getMessage());
+        }
+        return index;
+    }
+
+    /**
+     * Check whether the given index is stale for a FASTA file of the given number of bytes.
+     *
+     * @return True if and only if the nucleotides of the last entry of the given index do not end where the FASTA
+     * file ends, up to a single line terminator.
+     */
+    private static boolean isStale(FastaIndex index, long fastaLength) {
+        List<FastaIndex.Entry> entries = index.getEntries();
+        if (entries.isEmpty())
+            return fastaLength > 0;
+        FastaIndex.Entry last = entries.get(entries.size() - 1);
+        long end = last.getLength() == 0 ? last.getOffset() : last.getOffsetOf(last.getLength() - 1) + 1;
+        return fastaLength < end || fastaLength - end > last.getLineWidth() - last.getLineBases();
+    }
+
+    /**
+     * Variable referencing the file channel of the FASTA file of this indexed FASTA reader.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Return the index of this indexed FASTA reader.
+     */
+    @Basic
+    @Immutable
+    public FastaIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Variable referencing the index of this indexed FASTA reader.
+     */
+    private final FastaIndex index;
+
+    /**
+     * Return the alphabet of the biological sequences read by this indexed FASTA reader.
+     */
+    @Basic
+    @Immutable
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    /**
+     * Variable registering the alphabet of the biological sequences read by this indexed FASTA reader.
+     */
+    private final Alphabet alphabet;
+
+    /**
+     * Return the biological sequence of the record with the given sequence identifier.
+     *
+     * @param id The sequence identifier of the record.
+     * @return A biological sequence with the given sequence identifier, the organism of the record and
+     * all nucleotides of the record.
+     * @throws IllegalIdException    ("The id is not indexed")
+     *                               The index of this reader has no entry for the given sequence identifier.
+     * @throws IllegalParseException The record cannot be read or has no nucleotides.
+     * @throws IllegalAlphabetException The record holds a symbol that is not a valid symbol for the alphabet of this reader.
+     */
+    public BiologicalSequence getBiologicalSequence(String id) throws IllegalIdException, IllegalParseException, IllegalAlphabetException {
+        FastaIndex.Entry entry = entryOf(id);
+        return new BiologicalSequence(id, entry.getOrganism(), readNucleotides(entry, 0, entry.getLength()), alphabet);
+    }
+
+    /**
+     * Return the biological sequence of the region between the given positions of the record with the given
+     * sequence identifier.
+     *
+     * @param id    The sequence identifier of the record.
+     * @param start The position of the first nucleotide of the region (inclusive, starting from 0).
+     * @param end   The position following the last nucleotide of the region (exclusive).
+     * @return A biological sequence with the sequence identifier "id:start-end", the organism of the record and
+     * the nucleotides of the region.
+     * @throws IllegalArgumentException ("Illegal region")
+     *                                  The given positions do not describe a non-empty region of the record.
+     *                                  | start < 0 || end <= start || end > getIndex().getEntry(id).getLength()
+     * @throws IllegalIdException    ("The id is not indexed")
+     *                               The index of this reader has no entry for the given sequence identifier.
+     */
+    public BiologicalSequence getRegion(String id, int start, int end)
+            throws IllegalArgumentException, IllegalIdException, IllegalParseException, IllegalAlphabetException {
+        FastaIndex.Entry entry = entryOf(id);
+        if (start < 0 || end <= start || end > entry.getLength())
+            throw new IllegalArgumentException("Illegal region");
+        return new BiologicalSequence(id + ":" + start + "-" + end, entry.getOrganism(), readNucleotides(entry, start, end), alphabet);
+    }
+
+    /**
+     * Return the entry of the index of this reader for the given sequence identifier.
+     */
+    private FastaIndex.Entry entryOf(String id) throws IllegalIdException {
+        if (id == null) throw new IllegalIdException("The id cannot be null");
+        FastaIndex.Entry entry = index.getEntry(id);
+        if (entry == null) throw new IllegalIdException("The id is not indexed");
+        return entry;
+    }
+
+    /**
+     * Read and pack the nucleotides between the given positions of the record of the given entry.
+     */
+    private PackedNucleotideSequence readNucleotides(FastaIndex.Entry entry, int start, int end)
+            throws IllegalParseException, IllegalAlphabetException {
+        if (start >= end)
+            throw new IllegalParseException("There are no nucleotides for " + entry.getId());
+        long from = entry.getOffsetOf(start);
+        long to = entry.getOffsetOf(end - 1) + 1;
+        ByteBuffer bytes = ByteBuffer.allocate((int) (to - from));
+        try {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, from + bytes.position()) < 0)
+                    throw new IllegalParseException("Unexpected end of file in " + entry.getId());
+            }
+        } catch (IOException exc) {
+            throw new IllegalParseException("The file could not be read: " + exc.getMessage());
+        }
+        PackedNucleotideSequence.Builder builder = new PackedNucleotideSequence.Builder(alphabet, end - start);
+        byte[] array = bytes.array();
+        for (int index = 0; index < array.length; index++) {
+            char symbol = (char) (array[index] & 0xFF);
+            if (symbol == '\n' || symbol == '\r') continue;
+            if (!builder.append(symbol))
+                throw new IllegalAlphabetException("Symbol " + symbol + " at offset " + (start + builder.length()) + " of " + entry.getId()
+                        + " does not match the requirements of a " + alphabet.getAlphabetName() + " sequence.");
+        }
+        if (builder.length() != end - start)
+            throw new IllegalParseException("The index does not match the file for " + entry.getId());
+        return builder.build();
+    }
+
+    /**
+     * Close the FASTA file of this indexed FASTA reader.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
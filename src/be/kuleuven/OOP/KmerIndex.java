@@ -0,0 +1,223 @@
+package be.kuleuven.OOP;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of inverted indexes mapping each k-mer (each subsequence of k nucleotides) to the sequence identifiers
+ * of the biological sequences in which it occurs. The k-mers are stored as their packed 2-bit codes, separately
+ * for each type of alphabet, and k-mers holding the unknown nucleotide 'N' are not indexed.
+ * The posting lists are concurrent collections, so that candidates can be looked up without locking while
+ * biological sequences are added and removed.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ * @invar The k-mer length of each k-mer index is a valid k-mer length.
+ * | isValidK(getK())
+ */
+public class KmerIndex {
+
+    /**
+     * Constant registering the largest supported k-mer length.
+     */
+    public static final int MAX_K = 31;
+
+    /**
+     * Initialize this new k-mer index with the given k-mer length and no biological sequences.
+     *
+     * @param k The k-mer length of this new k-mer index.
+     * @throws IllegalArgumentException ("Illegal k-mer length")
+     *                                  The given k-mer length is not a valid k-mer length.
+     *                                  | ! isValidK(k)
+     * @post The k-mer length of this new k-mer index is equal to the given k-mer length.
+     * | new.getK() == k
+     */
+    public KmerIndex(int k) throws IllegalArgumentException {
+        if (!isValidK(k))
+            throw new IllegalArgumentException("Illegal k-mer length");
+        this.k = k;
+    }
+
+    /**
+     * Initialize this new k-mer index with the given k-mer length and no biological sequences, which is complete
+     * only if so specified.
+     *
+     * @param k        The k-mer length of this new k-mer index.
+     * @param complete Whether this new k-mer index already holds all biological sequences of its repository.
+     * @effect | this(k)
+     * @post | new.isComplete() == complete
+     */
+    KmerIndex(int k, boolean complete) throws IllegalArgumentException {
+        this(k);
+        this.complete = complete;
+    }
+
+    /**
+     * Check whether this k-mer index holds all biological sequences of its repository, so that its candidates
+     * can be trusted.
+     */
+    @Basic
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Register that this k-mer index holds all biological sequences of its repository.
+     *
+     * @post | new.isComplete()
+     */
+    void markComplete() {
+        this.complete = true;
+    }
+
+    /**
+     * Variable registering whether this k-mer index holds all biological sequences of its repository.
+     */
+    private volatile boolean complete = true;
+
+    /**
+     * Check whether the given k-mer length is a valid k-mer length for any k-mer index.
+     *
+     * @param k The k-mer length to check.
+     * @return True if and only if the given k-mer length lies between 1 and MAX_K.
+     * | result == (k >= 1 && k <= MAX_K)
+     */
+    public static boolean isValidK(int k) {
+        return k >= 1 && k <= MAX_K;
+    }
+
+    /**
+     * Return the k-mer length of this k-mer index.
+     */
+    @Basic
+    @Immutable
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Variable registering the k-mer length of this k-mer index.
+     */
+    private final int k;
+
+    /**
+     * Add the k-mers of the given biological sequence to this k-mer index.
+     *
+     * @param biologicalSequence The biological sequence to index.
+     */
+    public void add(BiologicalSequence biologicalSequence) {
+        Class<? extends Alphabet> type = biologicalSequence.getAlphabet().getClass();
+        final String id = biologicalSequence.getId();
+        alphabetsByType.putIfAbsent(type, biologicalSequence.getAlphabet());
+        Map<Long, Set<String>> postings = postingsByType.computeIfAbsent(type, key -> new ConcurrentHashMap<Long, Set<String>>());
+        for (Long kmer : kmersOf(biologicalSequence.getPackedNucleotideSequence())) {
+            postings.compute(kmer, (key, ids) -> {
+                if (ids == null) ids = ConcurrentHashMap.newKeySet();
+                ids.add(id);
+                return ids;
+            });
+        }
+    }
+
+    /**
+     * Remove the k-mers of the given biological sequence from this k-mer index.
+     *
+     * @param biologicalSequence The biological sequence to remove.
+     */
+    public void remove(BiologicalSequence biologicalSequence) {
+        Map<Long, Set<String>> postings = postingsByType.get(biologicalSequence.getAlphabet().getClass());
+        if (postings == null) return;
+        final String id = biologicalSequence.getId();
+        for (Long kmer : kmersOf(biologicalSequence.getPackedNucleotideSequence())) {
+            postings.computeIfPresent(kmer, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Remove all biological sequences from this k-mer index.
+     */
+    public void clear() {
+        postingsByType.clear();
+        alphabetsByType.clear();
+    }
+
+    /**
+     * Return the sequence identifiers of the biological sequences of the given type of alphabet that hold all k-mers
+     * of the given subsequence, or null if this k-mer index cannot narrow down the candidates for that subsequence.
+     * The candidates still need to be verified, since holding all k-mers does not imply holding the subsequence.
+     *
+     * @param subsequence    The subsequence to look for.
+     * @param typeOfAlphabet The type of alphabet of the biological sequences to look in.
+     * @return Null if the given subsequence is shorter than the k-mer length of this index, or if each of its
+     * k-mers holds the unknown nucleotide 'N'.
+     */
+    public Set<String> getCandidates(String subsequence, Class<? extends Alphabet> typeOfAlphabet) {
+        if (subsequence.length() < k) return null;
+        Set<String> candidates = new HashSet<>();
+        for (Map.Entry<Class<? extends Alphabet>, Map<Long, Set<String>>> entry : postingsByType.entrySet()) {
+            if (!typeOfAlphabet.isAssignableFrom(entry.getKey())) continue;
+            Alphabet alphabet = alphabetsByType.get(entry.getKey());
+            if (alphabet.indexOfInvalidSymbol(subsequence) != -1) continue;
+            Set<Long> kmers = kmersOf(new PackedNucleotideSequence(subsequence, alphabet));
+            if (kmers.isEmpty()) return null;
+            candidates.addAll(intersect(entry.getValue(), kmers));
+        }
+        return candidates;
+    }
+
+    /**
+     * Return the intersection of the posting lists of the given k-mers, starting from the shortest list.
+     * The shortest list is picked in one pass, since the sizes of the lists may change while they are compared.
+     */
+    private static Set<String> intersect(final Map<Long, Set<String>> postings, Set<Long> kmers) {
+        List<Set<String>> lists = new ArrayList<>();
+        Set<String> shortest = null;
+        for (Long kmer : kmers) {
+            Set<String> ids = postings.get(kmer);
+            if (ids == null) return new HashSet<>();
+            lists.add(ids);
+            if (shortest == null || ids.size() < shortest.size()) shortest = ids;
+        }
+        Set<String> result = new HashSet<>(shortest);
+        for (int index = 0; index < lists.size() && !result.isEmpty(); index++) {
+            if (lists.get(index) != shortest) result.retainAll(lists.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * Return the distinct packed k-mers of the given packed nucleotide sequence that do not hold the unknown nucleotide 'N'.
+     */
+    private Set<Long> kmersOf(PackedNucleotideSequence nucleotides) {
+        Set<Long> kmers = new HashSet<>();
+        long mask = (1L << (k << 1)) - 1;
+        long kmer = 0;
+        int validFrom = 0;
+        for (int index = 0; index < nucleotides.length(); index++) {
+            if (nucleotides.isUnknownAt(index)) validFrom = index + 1;
+            kmer = ((kmer << 2) | nucleotides.codeAt(index)) & mask;
+            if (index + 1 - validFrom >= k) kmers.add(kmer);
+        }
+        return kmers;
+    }
+
+    /**
+     * Variable referencing a map collecting, for each type of alphabet, the posting list of each k-mer.
+     */
+    private final Map<Class<? extends Alphabet>, Map<Long, Set<String>>> postingsByType = new ConcurrentHashMap<>();
+
+    /**
+     * Variable referencing a map collecting, for each type of alphabet, an alphabet of that type used to
+     * encode subsequences.
+     */
+    private final Map<Class<? extends Alphabet>, Alphabet> alphabetsByType = new ConcurrentHashMap<>();
+}
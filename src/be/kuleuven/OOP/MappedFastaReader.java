@@ -0,0 +1,165 @@
+package be.kuleuven.OOP;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import be.kuleuven.OOP.exceptions.*;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of FASTA readers reading a file through memory mappings instead of copying it into a buffer.
+ * The file is mapped in consecutive windows, so that files larger than 2 GB can be read as well.
+ * The nucleotides are packed straight from the mapped bytes, a line at a time, without building an intermediate string.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class MappedFastaReader extends FastaReader {
+
+    /**
+     * Constant registering the default number of bytes mapped at once.
+     */
+    public static final long MAPPING_SIZE = 1L << 30;
+
+    /**
+     * Initialize this new mapped FASTA reader on the given file channel, reading biological sequences of the
+     * given alphabet with mappings of the default size.
+     *
+     * @param channel  The file channel to read the records from.
+     * @param alphabet The alphabet of the biological sequences in the given file channel.
+     * @effect This new mapped FASTA reader is initialized with the given file channel and alphabet, and
+     * the default mapping size.
+     * | this(channel, alphabet, MAPPING_SIZE)
+     */
+    public MappedFastaReader(FileChannel channel, Alphabet alphabet) throws IllegalParseException {
+        this(channel, alphabet, MAPPING_SIZE);
+    }
+
+    /**
+     * Initialize this new mapped FASTA reader on the given file channel, reading biological sequences of the
+     * given alphabet with mappings of the given size.
+     *
+     * @param channel     The file channel to read the records from.
+     * @param alphabet    The alphabet of the biological sequences in the given file channel.
+     * @param mappingSize The number of bytes mapped at once.
+     * @throws IllegalParseException ("The file could not be read")
+     *                               The size of the given file channel cannot be retrieved.
+     * @throws IllegalArgumentException ("Illegal mapping size")
+     *                                  The given mapping size is not positive or exceeds Integer.MAX_VALUE.
+     */
+    MappedFastaReader(FileChannel channel, Alphabet alphabet, long mappingSize) throws IllegalParseException, IllegalArgumentException {
+        super(alphabet);
+        if (mappingSize <= 0 || mappingSize > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Illegal mapping size");
+        this.channel = channel;
+        this.mappingSize = mappingSize;
+        try {
+            this.size = channel.size();
+        } catch (IOException exc) {
+            throw new IllegalParseException("The file could not be read: " + exc.getMessage());
+        }
+    }
+
+    /**
+     * Variable referencing the file channel of this mapped FASTA reader.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Variable registering the number of bytes of the file channel of this mapped FASTA reader.
+     */
+    private final long size;
+
+    /**
+     * Return the number of bytes mapped at once by this mapped FASTA reader.
+     */
+    @Basic
+    @Immutable
+    public long getMappingSize() {
+        return mappingSize;
+    }
+
+    /**
+     * Variable registering the number of bytes mapped at once by this mapped FASTA reader.
+     */
+    private final long mappingSize;
+
+    /**
+     * Return the next byte of the current mapping, mapping the next window of the file when the current
+     * mapping is exhausted, or -1 if the end of the file is reached.
+     */
+    @Override
+    protected int read() throws IllegalParseException {
+        if (!map()) return -1;
+        return mapping.get() & 0xFF;
+    }
+
+    /**
+     * Pack the nucleotides of the current record into the given builder straight from the current mapping, line by
+     * line: each line is located by scanning the mapped bytes for its line break, and packed in bulk.
+     *
+     * @see FastaReader#readNucleotides(PackedNucleotideSequence.Builder, String)
+     */
+    @Override
+    boolean readNucleotides(PackedNucleotideSequence.Builder builder, String id) throws IllegalParseException, IllegalAlphabetException {
+        boolean atLineStart = true;
+        while (map()) {
+            int position = mapping.position(), limit = mapping.limit();
+            if (atLineStart && mapping.get(position) == '>') {
+                mapping.position(position + 1);
+                return true;
+            }
+            int end = position;
+            while (end < limit && mapping.get(end) != '\n')
+                end++;
+            for (int packed = builder.appendBytes(mapping, position, end); packed < end; packed = builder.appendBytes(mapping, packed + 1, end)) {
+                int symbol = mapping.get(packed) & 0xFF;
+                if (!isBlank(symbol))
+                    throw illegalSymbol((char) symbol, builder.length(), id);
+            }
+            atLineStart = end < limit;
+            mapping.position(atLineStart ? end + 1 : end);
+        }
+        return false;
+    }
+
+    /**
+     * Make sure the current mapping has bytes left, mapping the next window of the file if it is exhausted.
+     *
+     * @return True if and only if the current mapping has bytes left, that is, if the end of the file is not reached.
+     * @throws IllegalParseException ("The file could not be mapped")
+     *                               The next window of the file cannot be mapped.
+     */
+    private boolean map() throws IllegalParseException {
+        if (mapping != null && mapping.hasRemaining()) return true;
+        if (mappedUpTo >= size) return false;
+        long length = Math.min(mappingSize, size - mappedUpTo);
+        try {
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, mappedUpTo, length);
+        } catch (IOException exc) {
+            throw new IllegalParseException("The file could not be mapped: " + exc.getMessage());
+        }
+        mappedUpTo += length;
+        return true;
+    }
+
+    /**
+     * Variable referencing the window of the file that is currently mapped.
+     */
+    private MappedByteBuffer mapping;
+
+    /**
+     * Variable registering the position in the file up to which it has been mapped.
+     */
+    private long mappedUpTo = 0;
+
+    /**
+     * Close the file channel of this mapped FASTA reader.
+     */
+    @Override
+    public void close() throws IOException {
+        mapping = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,317 @@
+package be.kuleuven.OOP;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import be.kuleuven.OOP.exceptions.*;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of mutable nucleotide sequences, represented as a rope of pieces of immutable packed nucleotide sequences.
+ * The pieces are kept in a persistent balanced tree (an implicit treap ordered by position), so that replacing,
+ * inserting and deleting nucleotides takes logarithmic time in the number of pieces and never copies nucleotides
+ * that are not edited. Since the tree is never modified in place, taking a snapshot takes constant time.
+ * Flattening the pieces into a single packed nucleotide sequence, or a biological sequence, is explicit.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class MutableNucleotideSequence implements CharSequence {
+
+    /**
+     * Initialize this new mutable nucleotide sequence with the nucleotides of the given packed nucleotide sequence.
+     *
+     * @param nucleotides The initial nucleotides of this new mutable nucleotide sequence.
+     * @post | new.toString().equals(nucleotides.toString())
+     */
+    public MutableNucleotideSequence(PackedNucleotideSequence nucleotides) {
+        this(nucleotides.getAlphabet(), nucleotides.length() == 0 ? null : new Node(nucleotides, 0, nucleotides.length(), null, null, RANDOM.nextInt()));
+    }
+
+    /**
+     * Initialize this new mutable nucleotide sequence of the given alphabet with the given tree of pieces.
+     */
+    private MutableNucleotideSequence(Alphabet alphabet, Node root) {
+        this.alphabet = alphabet;
+        this.root = root;
+    }
+
+    /**
+     * Constant referencing the generator of the priorities of the nodes.
+     */
+    private static final Random RANDOM = new Random();
+
+    /**
+     * Return the alphabet of the nucleotides of this mutable nucleotide sequence.
+     */
+    @Basic
+    @Immutable
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    /**
+     * Variable registering the alphabet of the nucleotides of this mutable nucleotide sequence.
+     */
+    private final Alphabet alphabet;
+
+    /**
+     * Variable referencing the root of the tree of pieces of this mutable nucleotide sequence, or null if it is empty.
+     */
+    private Node root;
+
+    /**
+     * Return the number of nucleotides of this mutable nucleotide sequence.
+     */
+    @Override
+    public int length() {
+        return sizeOf(root);
+    }
+
+    /**
+     * Return the number of pieces of this mutable nucleotide sequence.
+     */
+    public int getNbPieces() {
+        return countOf(root);
+    }
+
+    /**
+     * Return the symbol at the given position of this mutable nucleotide sequence.
+     *
+     * @param index The position of the nucleotide.
+     * @throws IndexOutOfBoundsException The given index is not a position of this mutable nucleotide sequence.
+     * | index < 0 || index >= length()
+     */
+    @Override
+    public char charAt(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= length())
+            throw new IndexOutOfBoundsException("Illegal index " + index);
+        Node node = root;
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index < leftSize + node.length) {
+                return node.source.charAt(node.offset + index - leftSize);
+            } else {
+                index -= leftSize + node.length;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Return a snapshot of the nucleotides between the given positions of this mutable nucleotide sequence.
+     *
+     * @param from The start position (inclusive).
+     * @param to   The end position (exclusive).
+     * @throws IndexOutOfBoundsException The given positions do not describe a region of this mutable nucleotide sequence.
+     * | from < 0 || to > length() || from > to
+     */
+    @Override
+    public MutableNucleotideSequence subSequence(int from, int to) throws IndexOutOfBoundsException {
+        if (from < 0 || to > length() || from > to)
+            throw new IndexOutOfBoundsException("Illegal region " + from + "-" + to);
+        return new MutableNucleotideSequence(alphabet, split(split(root, to)[0], from)[1]);
+    }
+
+    /**
+     * Replace the given number of nucleotides from the given position on by the given nucleotides.
+     *
+     * @param start       The position of the first nucleotide to replace.
+     * @param length      The number of nucleotides to replace.
+     * @param nucleotides The nucleotides to put in their place.
+     * @throws IllegalArgumentException ("Illegal region")
+     *                                  The given position and length do not describe a region of this mutable nucleotide sequence.
+     *                                  | start < 0 || length < 0 || start + length > length()
+     * @throws IllegalNucleotideSequenceException
+     *                                  The given nucleotides hold a symbol that is not a valid symbol of the alphabet.
+     *                                  | getAlphabet().indexOfInvalidSymbol(nucleotides) != -1
+     */
+    public void replace(int start, int length, CharSequence nucleotides) throws IllegalArgumentException, IllegalNucleotideSequenceException {
+        if (start < 0 || length < 0 || start > length() - length)
+            throw new IllegalArgumentException("Illegal region");
+        Node inserted = pieceOf(nucleotides);
+        Node[] before = split(root, start);
+        Node[] after = split(before[1], length);
+        root = merge(merge(before[0], inserted), after[1]);
+    }
+
+    /**
+     * Insert the given nucleotides at the given position.
+     *
+     * @param position    The position at which the given nucleotides are inserted.
+     * @param nucleotides The nucleotides to insert.
+     * @effect | replace(position, 0, nucleotides)
+     */
+    public void insert(int position, CharSequence nucleotides) throws IllegalArgumentException, IllegalNucleotideSequenceException {
+        replace(position, 0, nucleotides);
+    }
+
+    /**
+     * Delete the given number of nucleotides from the given position on.
+     *
+     * @param start  The position of the first nucleotide to delete.
+     * @param length The number of nucleotides to delete.
+     * @throws IllegalArgumentException ("Illegal region")
+     *                                  | start < 0 || length < 0 || start + length > length()
+     */
+    public void delete(int start, int length) throws IllegalArgumentException {
+        if (start < 0 || length < 0 || start > length() - length)
+            throw new IllegalArgumentException("Illegal region");
+        Node[] before = split(root, start);
+        root = merge(before[0], split(before[1], length)[1]);
+    }
+
+    /**
+     * Return a snapshot of this mutable nucleotide sequence, which is not affected by later edits of this
+     * mutable nucleotide sequence, nor affects it when it is edited itself.
+     *
+     * @return | result.toString().equals(toString())
+     */
+    public MutableNucleotideSequence snapshot() {
+        return new MutableNucleotideSequence(alphabet, root);
+    }
+
+    /**
+     * Return a single packed nucleotide sequence holding the nucleotides of this mutable nucleotide sequence.
+     */
+    public PackedNucleotideSequence flatten() {
+        PackedNucleotideSequence.Builder builder = new PackedNucleotideSequence.Builder(alphabet, length());
+        Deque<Node> path = new ArrayDeque<>();
+        for (Node node = root; node != null || !path.isEmpty(); node = node.right) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            builder.appendRange(node.source, node.offset, node.offset + node.length);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Return a new biological sequence with the given sequence identifier and organism, holding the nucleotides of
+     * this mutable nucleotide sequence.
+     *
+     * @param id       The sequence identifier of the new biological sequence.
+     * @param organism The organism of the new biological sequence.
+     * @throws IllegalIdException The given sequence identifier is not a valid identifier.
+     */
+    public BiologicalSequence toBiologicalSequence(String id, String organism) throws IllegalIdException {
+        return new BiologicalSequence(id, organism, flatten(), alphabet);
+    }
+
+    /**
+     * Return the nucleotides of this mutable nucleotide sequence as a string.
+     */
+    @Override
+    public String toString() {
+        return flatten().toString();
+    }
+
+    /**
+     * Return a single node holding the given nucleotides packed, or null if there are none.
+     */
+    private Node pieceOf(CharSequence nucleotides) throws IllegalNucleotideSequenceException {
+        int invalid = alphabet.indexOfInvalidSymbol(nucleotides);
+        if (invalid != -1)
+            throw new IllegalNucleotideSequenceException("Symbol " + nucleotides.charAt(invalid) + " at offset " + invalid
+                    + " does not match the requirements of a " + alphabet.getAlphabetName() + " sequence.");
+        if (nucleotides.length() == 0) return null;
+        PackedNucleotideSequence packed = nucleotides instanceof MutableNucleotideSequence
+                ? ((MutableNucleotideSequence) nucleotides).flatten() : new PackedNucleotideSequence(nucleotides, alphabet);
+        return new Node(packed, 0, packed.length(), null, null, RANDOM.nextInt());
+    }
+
+    /**
+     * Return the number of nucleotides in the tree with the given root.
+     */
+    private static int sizeOf(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Return the number of pieces in the tree with the given root.
+     */
+    private static int countOf(Node node) {
+        return node == null ? 0 : node.count;
+    }
+
+    /**
+     * Return the trees holding the first given number of nucleotides and the remaining nucleotides of the tree with the
+     * given root, without modifying that tree. A piece straddling the split position is cut in two pieces sharing
+     * the same packed nucleotides.
+     */
+    private static Node[] split(Node node, int position) {
+        if (node == null) return new Node[]{null, null};
+        int leftSize = sizeOf(node.left);
+        if (position <= leftSize) {
+            Node[] parts = split(node.left, position);
+            return new Node[]{parts[0], node.with(parts[1], node.right)};
+        }
+        if (position >= leftSize + node.length) {
+            Node[] parts = split(node.right, position - leftSize - node.length);
+            return new Node[]{node.with(node.left, parts[0]), parts[1]};
+        }
+        int cut = position - leftSize;
+        Node head = new Node(node.source, node.offset, cut, node.left, null, node.priority);
+        Node tail = new Node(node.source, node.offset + cut, node.length - cut, null, node.right, node.priority);
+        return new Node[]{head, tail};
+    }
+
+    /**
+     * Return a tree holding the nucleotides of the tree with the first given root followed by those of the tree with
+     * the second given root, without modifying either tree.
+     */
+    private static Node merge(Node first, Node second) {
+        if (first == null) return second;
+        if (second == null) return first;
+        if (first.priority > second.priority)
+            return first.with(first.left, merge(first.right, second));
+        return second.with(merge(first, second.left), second.right);
+    }
+
+    /**
+     * A class of immutable nodes of the tree of pieces, each holding a piece of a packed nucleotide sequence.
+     */
+    private static final class Node {
+
+        Node(PackedNucleotideSequence source, int offset, int length, Node left, Node right, int priority) {
+            this.source = source;
+            this.offset = offset;
+            this.length = length;
+            this.left = left;
+            this.right = right;
+            this.priority = priority;
+            this.size = sizeOf(left) + length + sizeOf(right);
+            this.count = countOf(left) + 1 + countOf(right);
+        }
+
+        /**
+         * Return a node holding the piece of this node with the given children.
+         */
+        Node with(Node left, Node right) {
+            if (left == this.left && right == this.right) return this;
+            return new Node(source, offset, length, left, right, priority);
+        }
+
+        /**
+         * Variables referencing the packed nucleotide sequence of the piece of this node, and registering the position
+         * and number of its nucleotides in that packed nucleotide sequence.
+         */
+        final PackedNucleotideSequence source;
+        final int offset, length;
+
+        /**
+         * Variables referencing the children of this node.
+         */
+        final Node left, right;
+
+        /**
+         * Variables registering the heap priority of this node, and the number of nucleotides and pieces of its tree.
+         */
+        final int priority, size, count;
+    }
+}
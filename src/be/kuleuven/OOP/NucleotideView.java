@@ -0,0 +1,216 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of views of a region of a packed nucleotide sequence, given by an offset and a length.
+ * The views do not copy any nucleotides: counting, searching and complementing work directly on the packed words
+ * of the viewed region.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ * @invar The region of each nucleotide view lies within its packed nucleotide sequence.
+ * | getOffset() >= 0 && getOffset() + length() <= nucleotides.length()
+ */
+public final class NucleotideView implements CharSequence {
+
+    /**
+     * Initialize this new nucleotide view of the given region of the given packed nucleotide sequence.
+     *
+     * @param nucleotides The packed nucleotide sequence to view.
+     * @param offset      The first position of the region in the packed nucleotide sequence.
+     * @param length      The number of nucleotides of the region.
+     * @throws IllegalArgumentException ("Illegal region")
+     *                                  | offset < 0 || length < 0 || offset + length > nucleotides.length()
+     */
+    NucleotideView(PackedNucleotideSequence nucleotides, int offset, int length) throws IllegalArgumentException {
+        if (offset < 0 || length < 0 || offset > nucleotides.length() - length)
+            throw new IllegalArgumentException("Illegal region");
+        this.nucleotides = nucleotides;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Variable referencing the viewed packed nucleotide sequence.
+     */
+    private final PackedNucleotideSequence nucleotides;
+
+    /**
+     * Return the alphabet of the nucleotides of this view.
+     */
+    public Alphabet getAlphabet() {
+        return nucleotides.getAlphabet();
+    }
+
+    /**
+     * Return the first position of the viewed region in the viewed nucleotide sequence.
+     */
+    @Basic
+    @Immutable
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Variable registering the first position of the viewed region in the viewed nucleotide sequence.
+     */
+    private final int offset;
+
+    /**
+     * Return the number of nucleotides in this view.
+     */
+    @Basic
+    @Immutable
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Variable registering the number of nucleotides in this view.
+     */
+    private final int length;
+
+    /**
+     * Return the nucleotide at the given position of this view.
+     *
+     * @param index The position in this view.
+     * @throws IndexOutOfBoundsException The given index is not a position of this view.
+     * | index < 0 || index >= length()
+     */
+    @Override
+    public char charAt(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Illegal index " + index);
+        return nucleotides.charAt(offset + index);
+    }
+
+    /**
+     * Return a view of the nucleotides between the given positions of this view, without copying them.
+     *
+     * @param from The start position (inclusive).
+     * @param to   The end position (exclusive).
+     * @throws IndexOutOfBoundsException The given positions do not describe a region of this view.
+     * | from < 0 || to > length() || from > to
+     */
+    @Override
+    public NucleotideView subSequence(int from, int to) throws IndexOutOfBoundsException {
+        if (from < 0 || to > length || from > to)
+            throw new IndexOutOfBoundsException("Illegal region " + from + "-" + to);
+        return new NucleotideView(nucleotides, offset + from, to - from);
+    }
+
+    /**
+     * Store the number of times each code occurs in this view in the given array.
+     *
+     * @param counts The array to store the counts in, indexed by code, with the count of unknown nucleotides
+     *               'N' at PackedNucleotideSequence.N_CODE.
+     * @throws IllegalArgumentException ("Illegal counts array")
+     *                                  The given array cannot hold a count for each code.
+     */
+    public void countCodes(int[] counts) throws IllegalArgumentException {
+        nucleotides.countCodes(offset, offset + length, counts);
+    }
+
+    /**
+     * Store the composition of the nucleotides of this view in the given array, using the given scratch array
+     * for the code counts, so that windowed analyses can reuse both arrays for every window.
+     *
+     * @param composition The array to store the composition in, indexed by the position of each symbol in the
+     *                    valid symbols of the alphabet.
+     * @param counts      The scratch array to count the codes in.
+     * @return The given composition array.
+     * @throws IllegalArgumentException ("Illegal composition array")
+     *                                  The given composition array cannot hold a count for each valid symbol.
+     * @throws IllegalArgumentException ("Illegal counts array")
+     *                                  The given scratch array cannot hold a count for each code.
+     */
+    public int[] getComposition(int[] composition, int[] counts) throws IllegalArgumentException {
+        Alphabet alphabet = getAlphabet();
+        if (composition == null || composition.length < alphabet.getValidSymbols().length())
+            throw new IllegalArgumentException("Illegal composition array");
+        countCodes(counts);
+        for (int index = 0; index < alphabet.getValidSymbols().length(); index++)
+            composition[index] = 0;
+        for (int code = 0; code <= PackedNucleotideSequence.N_CODE; code++)
+            composition[alphabet.indexOfCode(code)] += counts[code];
+        return composition;
+    }
+
+    /**
+     * Return the composition of the nucleotides of this view.
+     *
+     * @return An array holding, for each valid symbol of the alphabet, the number of times it occurs in this view,
+     * indexed by the position of that symbol in the valid symbols.
+     */
+    public int[] getComposition() {
+        return getComposition(new int[getAlphabet().getValidSymbols().length()], new int[PackedNucleotideSequence.N_CODE + 1]);
+    }
+
+    /**
+     * Return the number of times the given symbol occurs in this view.
+     *
+     * @param symbol The symbol to count.
+     * @return Zero if the given symbol is not one of the symbols of the alphabet of this view.
+     */
+    public int count(char symbol) {
+        byte code = getAlphabet().encode(symbol);
+        if (code == PackedNucleotideSequence.INVALID_CODE) return 0;
+        int unknown = nucleotides.getNumberOfUnknown(offset, offset + length);
+        if (code == PackedNucleotideSequence.N_CODE) return unknown;
+        int count = nucleotides.countCode(code, offset, offset + length);
+        return code == 0 ? count - unknown : count;
+    }
+
+    /**
+     * Return the first position in this view at or after the given position where the given subsequence occurs,
+     * or -1 if there is none.
+     *
+     * @param subsequence The subsequence to look for.
+     * @param from        The position in this view to start searching from.
+     */
+    public int indexOf(CharSequence subsequence, int from) {
+        int position = nucleotides.indexOf(subsequence, offset + Math.max(0, from), offset + length);
+        return position < 0 ? -1 : position - offset;
+    }
+
+    /**
+     * Check whether the given subsequence occurs in this view.
+     *
+     * @param subsequence The subsequence to look for.
+     * @return | result == (indexOf(subsequence, 0) >= 0)
+     */
+    public boolean contains(CharSequence subsequence) {
+        return indexOf(subsequence, 0) >= 0;
+    }
+
+    /**
+     * Return a view of the complement of the nucleotides of this view.
+     *
+     * @return | result.length() == length()
+     */
+    public CharSequence complementView() {
+        return new ComplementView(nucleotides, false, offset, length);
+    }
+
+    /**
+     * Return a view of the reverse complement of the nucleotides of this view.
+     *
+     * @return | result.length() == length()
+     */
+    public CharSequence reverseComplementView() {
+        return new ComplementView(nucleotides, true, offset, length);
+    }
+
+    /**
+     * Return the nucleotides of this view as a string.
+     */
+    @Override
+    public String toString() {
+        char[] symbols = new char[length];
+        for (int index = 0; index < length; index++)
+            symbols[index] = nucleotides.charAt(offset + index);
+        return new String(symbols);
+    }
+}
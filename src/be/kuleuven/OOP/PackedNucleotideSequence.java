@@ -0,0 +1,747 @@
+package be.kuleuven.OOP;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of packed nucleotide sequences storing each nucleotide in 2 bits of a long array.
+ * The four nucleotides of an alphabet are encoded by that alphabet as the codes 0 to 3, in such a way that
+ * complementary nucleotides have complementary codes (A=0, C=1, G=2, T/U=3). Positions holding the unknown nucleotide 'N'
+ * are stored as code 0 and are registered in a sparse list of N runs.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ * @invar The number of nucleotides of each packed nucleotide sequence is not negative.
+ * | length() >= 0
+ * @invar Each position registered in an N run holds code 0 in the packed words.
+ */
+public final class PackedNucleotideSequence {
+
+    /**
+     * Constant registering the number of nucleotides stored in a single word.
+     */
+    public static final int NUCLEOTIDES_PER_WORD = 32;
+
+    /**
+     * Constant registering the code returned for the unknown nucleotide 'N'.
+     */
+    public static final byte N_CODE = 4;
+
+    /**
+     * Constant registering the code returned for characters that cannot be encoded.
+     */
+    public static final byte INVALID_CODE = -1;
+
+    /**
+     * Initialize this new packed nucleotide sequence with the given nucleotides, encoded with the given alphabet.
+     *
+     * @param nucleotideSequence The nucleotides to pack.
+     * @param alphabet           The alphabet encoding and decoding the nucleotides.
+     * @throws IllegalArgumentException ("Illegal nucleotide ...")
+     *                                  The given nucleotide sequence contains a character that cannot be encoded.
+     *                                  | for some index in 0..nucleotideSequence.length()-1:
+     *                                  |   alphabet.encode(nucleotideSequence.charAt(index)) == INVALID_CODE
+     * @post The new packed nucleotide sequence decodes to the given nucleotide sequence in upper case.
+     * | new.toString().equals(nucleotideSequence.toString().toUpperCase())
+     */
+    public PackedNucleotideSequence(CharSequence nucleotideSequence, Alphabet alphabet) throws IllegalArgumentException {
+        this(new Builder(alphabet, nucleotideSequence.length()).appendAll(nucleotideSequence));
+    }
+
+    /**
+     * Initialize this new packed nucleotide sequence with the nucleotides appended to the given builder.
+     *
+     * @param builder The builder holding the packed nucleotides.
+     */
+    private PackedNucleotideSequence(Builder builder) {
+        this(Arrays.copyOf(builder.words, wordsFor(builder.length)), builder.length,
+                Arrays.copyOf(builder.nRunStarts, builder.nbRuns), Arrays.copyOf(builder.nRunEnds, builder.nbRuns),
+                builder.alphabet);
+    }
+
+    /**
+     * Initialize this new packed nucleotide sequence with the given packed words, N runs and alphabet.
+     *
+     * @param words      The packed words of this new packed nucleotide sequence.
+     * @param length     The number of nucleotides of this new packed nucleotide sequence.
+     * @param nRunStarts The (inclusive) start positions of the N runs of this new packed nucleotide sequence.
+     * @param nRunEnds   The (exclusive) end positions of the N runs of this new packed nucleotide sequence.
+     * @param alphabet   The alphabet encoding and decoding the nucleotides.
+     */
+    @Raw
+    PackedNucleotideSequence(long[] words, int length, int[] nRunStarts, int[] nRunEnds, Alphabet alphabet) {
+        this.words = words;
+        this.length = length;
+        this.nRunStarts = nRunStarts;
+        this.nRunEnds = nRunEnds;
+        this.alphabet = alphabet;
+    }
+
+    /**
+     * Return the number of words needed to store the given number of nucleotides.
+     *
+     * @param length The number of nucleotides.
+     */
+    static int wordsFor(int length) {
+        return (length + NUCLEOTIDES_PER_WORD - 1) >>> 5;
+    }
+
+    /**
+     * Return the number of nucleotides of this packed nucleotide sequence.
+     */
+    @Basic
+    @Immutable
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Variable registering the number of nucleotides of this packed nucleotide sequence.
+     */
+    private final int length;
+
+    /**
+     * Variable referencing the packed words of this packed nucleotide sequence, holding 32 nucleotides each.
+     * The nucleotide at position i is stored in bits 2*(i%32) and 2*(i%32)+1 of word i/32.
+     * Unused bits of the last word are zero.
+     */
+    private final long[] words;
+
+    /**
+     * Variables registering the start (inclusive) and end (exclusive) positions of the N runs of this packed
+     * nucleotide sequence, sorted in ascending order and never adjacent to each other.
+     */
+    private final int[] nRunStarts, nRunEnds;
+
+    /**
+     * Return the alphabet encoding and decoding the nucleotides of this packed nucleotide sequence.
+     */
+    @Basic
+    @Immutable
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    /**
+     * Variable registering the alphabet encoding and decoding the nucleotides of this packed nucleotide sequence.
+     */
+    private final Alphabet alphabet;
+
+    /**
+     * Return the 2-bit code stored at the given position, without taking N runs into account.
+     *
+     * @param index The position of the nucleotide.
+     */
+    int codeAt(int index) {
+        return (int) (words[index >>> 5] >>> ((index & 31) << 1)) & 3;
+    }
+
+    /**
+     * Check whether the nucleotide at the given position is the unknown nucleotide 'N'.
+     *
+     * @param index The position of the nucleotide.
+     */
+    public boolean isUnknownAt(int index) {
+        int run = runBefore(index);
+        return run >= 0 && index < nRunEnds[run];
+    }
+
+    /**
+     * Return the symbol at the given position of this packed nucleotide sequence.
+     *
+     * @param index The position of the nucleotide.
+     * @throws IndexOutOfBoundsException The given index is not a position of this packed nucleotide sequence.
+     * | index < 0 || index >= length()
+     */
+    public char charAt(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Illegal index " + index);
+        return alphabet.decode(isUnknownAt(index) ? N_CODE : codeAt(index));
+    }
+
+    /**
+     * Return the index of the last N run starting at or before the given position, or -1 if there is none.
+     */
+    private int runBefore(int index) {
+        int low = 0, high = nRunStarts.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (nRunStarts[middle] <= index) low = middle + 1;
+            else high = middle - 1;
+        }
+        return high;
+    }
+
+    /**
+     * Check whether an unknown nucleotide 'N' occurs between the given positions.
+     *
+     * @param from The start position (inclusive).
+     * @param to   The end position (exclusive).
+     */
+    boolean hasUnknownBetween(int from, int to) {
+        if (from >= to) return false;
+        int run = runBefore(to - 1);
+        return run >= 0 && nRunEnds[run] > from;
+    }
+
+    /**
+     * Return the number of unknown nucleotides 'N' in this packed nucleotide sequence.
+     */
+    public int getNumberOfUnknown() {
+        int count = 0;
+        for (int run = 0; run < nRunStarts.length; run++)
+            count += nRunEnds[run] - nRunStarts[run];
+        return count;
+    }
+
+    /**
+     * Return the number of unknown nucleotides 'N' between the given positions.
+     *
+     * @param from The start position (inclusive).
+     * @param to   The end position (exclusive).
+     */
+    int getNumberOfUnknown(int from, int to) {
+        int run = runBefore(from);
+        if (run < 0) run = 0;
+        int count = 0;
+        for (; run < nRunStarts.length && nRunStarts[run] < to; run++)
+            count += Math.max(0, Math.min(to, nRunEnds[run]) - Math.max(from, nRunStarts[run]));
+        return count;
+    }
+
+    /**
+     * Return the number of times the given code is stored in the packed words between the given positions,
+     * without taking N runs into account.
+     *
+     * @param code The code to count.
+     * @param from The start position (inclusive).
+     * @param to   The end position (exclusive).
+     */
+    int countCode(int code, int from, int to) {
+        if (from >= to) return 0;
+        long pattern = 0x5555555555555555L * code;
+        int firstWord = from >>> 5, lastWord = (to - 1) >>> 5;
+        int count = 0;
+        for (int word = firstWord; word <= lastWord; word++) {
+            long difference = words[word] ^ pattern;
+            long matches = ~(difference | (difference >>> 1)) & 0x5555555555555555L;
+            if (word == firstWord)
+                matches &= -1L << ((from & 31) << 1);
+            if (word == lastWord && (to & 31) != 0)
+                matches &= (1L << ((to & 31) << 1)) - 1;
+            count += Long.bitCount(matches);
+        }
+        return count;
+    }
+
+    /**
+     * Return the number of times each code occurs in this packed nucleotide sequence.
+     *
+     * @return An array of five counts, indexed by code, with the count of unknown nucleotides 'N' at N_CODE.
+     */
+    public int[] getCodeCounts() {
+        int[] counts = new int[N_CODE + 1];
+        countCodes(counts);
+        return counts;
+    }
+
+    /**
+     * Store the number of times each code occurs in this packed nucleotide sequence in the given array,
+     * in a single pass over the packed words.
+     * For each word, the high and low bits of the 2-bit codes are split into two masks, and the codes 1, 2
+     * and 3 are counted with one bit count each; the code 0 takes the remaining nucleotides. Since the bits
+     * beyond the length are clear, the last word needs no special treatment.
+     *
+     * @param counts The array to store the counts in, indexed by code, with the count of unknown nucleotides
+     *               'N' at N_CODE.
+     * @throws IllegalArgumentException ("Illegal counts array")
+     *                                  The given array cannot hold a count for each code.
+     */
+    public void countCodes(int[] counts) throws IllegalArgumentException {
+        countCodes(0, length, counts);
+    }
+
+    /**
+     * Store the number of times each code occurs between the given positions in the given array, in a single pass
+     * over the packed words covering them. The codes before the start position in the first word and after the end
+     * position in the last word are masked out.
+     *
+     * @param from   The start position (inclusive).
+     * @param to     The end position (exclusive).
+     * @param counts The array to store the counts in, indexed by code, with the count of unknown nucleotides
+     *               'N' at N_CODE.
+     * @throws IllegalArgumentException ("Illegal counts array")
+     *                                  The given array cannot hold a count for each code.
+     */
+    void countCodes(int from, int to, int[] counts) throws IllegalArgumentException {
+        if (counts == null || counts.length <= N_CODE)
+            throw new IllegalArgumentException("Illegal counts array");
+        final long lowBits = 0x5555555555555555L;
+        int ones = 0, twos = 0, threes = 0;
+        int firstWord = from >>> 5, lastWord = (to - 1) >>> 5;
+        for (int index = firstWord; from < to && index <= lastWord; index++) {
+            long word = words[index];
+            if (index == firstWord)
+                word &= -1L << ((from & 31) << 1);
+            if (index == lastWord && (to & 31) != 0)
+                word &= (1L << ((to & 31) << 1)) - 1;
+            long low = word & lowBits;
+            long high = (word >>> 1) & lowBits;
+            ones += Long.bitCount(low & ~high);
+            twos += Long.bitCount(high & ~low);
+            threes += Long.bitCount(high & low);
+        }
+        int unknown = from == 0 && to == length ? getNumberOfUnknown() : getNumberOfUnknown(from, to);
+        counts[0] = to - from - ones - twos - threes - unknown;
+        counts[1] = ones;
+        counts[2] = twos;
+        counts[3] = threes;
+        counts[N_CODE] = unknown;
+    }
+
+    /**
+     * Return the number of times the given symbol occurs in this packed nucleotide sequence.
+     *
+     * @param symbol The symbol to count.
+     * @return Zero if the given symbol is not one of the symbols of the alphabet of this packed nucleotide sequence.
+     */
+    public int count(char symbol) {
+        byte code = alphabet.encode(symbol);
+        if (code == INVALID_CODE) return 0;
+        if (code == N_CODE) return getNumberOfUnknown();
+        int count = countCode(code, 0, length);
+        return code == 0 ? count - getNumberOfUnknown() : count;
+    }
+
+    /**
+     * Check whether the given subsequence occurs in this packed nucleotide sequence.
+     *
+     * @param subsequence The subsequence to look for.
+     * @return True if and only if the given subsequence, in upper case, occurs in the decoded nucleotides.
+     * | result == toString().contains(subsequence.toUpperCase())
+     */
+    public boolean contains(CharSequence subsequence) {
+        return indexOf(subsequence, 0) >= 0;
+    }
+
+    /**
+     * Return the first position at or after the given position where the given subsequence occurs in
+     * this packed nucleotide sequence, or -1 if there is none.
+     * A rolling window over the 2-bit codes of at most 32 nucleotides filters the candidate positions,
+     * which are verified against the remaining nucleotides and the N runs.
+     *
+     * @param subsequence The subsequence to look for.
+     * @param from        The position to start searching from.
+     */
+    public int indexOf(CharSequence subsequence, int from) {
+        return indexOf(subsequence, from, length);
+    }
+
+    /**
+     * Return the first position at or after the given start position where the given subsequence occurs entirely
+     * before the given end position, or -1 if there is none.
+     *
+     * @param subsequence The subsequence to look for.
+     * @param from        The position to start searching from.
+     * @param to          The position before which the occurrence must end.
+     */
+    int indexOf(CharSequence subsequence, int from, int to) {
+        int patternLength = subsequence.length();
+        if (from < 0) from = 0;
+        if (to > length) to = length;
+        if (patternLength == 0) return from <= to ? from : -1;
+        if (patternLength > to - from) return -1;
+        byte[] codes = new byte[patternLength];
+        for (int index = 0; index < patternLength; index++) {
+            codes[index] = alphabet.encode(subsequence.charAt(index));
+            if (codes[index] == INVALID_CODE) return -1;
+        }
+        int window = Math.min(patternLength, NUCLEOTIDES_PER_WORD);
+        long mask = window == NUCLEOTIDES_PER_WORD ? -1L : (1L << (window << 1)) - 1;
+        long pattern = 0;
+        for (int index = window - 1; index >= 0; index--)
+            pattern = (pattern << 2) | (codes[index] == N_CODE ? 0 : codes[index]);
+        long current = 0;
+        for (int index = from; index < to; index++) {
+            current = (current >>> 2) | ((long) codeAt(index) << ((window - 1) << 1));
+            int start = index - window + 1;
+            if (start < from || (current & mask) != pattern) continue;
+            if (start + patternLength > to) return -1;
+            if (matchesAt(codes, start)) return start;
+        }
+        return -1;
+    }
+
+    /**
+     * Store the codes of the nucleotides between the given positions in the given array, N_CODE for the unknown
+     * nucleotides 'N'.
+     *
+     * @param from  The start position (inclusive).
+     * @param to    The end position (exclusive).
+     * @param codes The array receiving the code of the nucleotide at position from + i at index i.
+     */
+    void codesOf(int from, int to, byte[] codes) {
+        for (int index = from; index < to; index++)
+            codes[index - from] = (byte) codeAt(index);
+        int run = runBefore(from);
+        if (run < 0) run = 0;
+        for (; run < nRunStarts.length && nRunStarts[run] < to; run++) {
+            for (int index = Math.max(from, nRunStarts[run]); index < Math.min(to, nRunEnds[run]); index++)
+                codes[index - from] = N_CODE;
+        }
+    }
+
+    /**
+     * Check whether the given codes match the nucleotides starting at the given position.
+     */
+    private boolean matchesAt(byte[] codes, int start) {
+        boolean checkUnknown = hasUnknownBetween(start, start + codes.length);
+        for (int offset = 0; offset < codes.length; offset++) {
+            boolean unknown = checkUnknown && isUnknownAt(start + offset);
+            if (codes[offset] == N_CODE) {
+                if (!unknown) return false;
+            } else if (unknown || codeAt(start + offset) != codes[offset]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the complement of this packed nucleotide sequence.
+     * If the alphabet complements its codes by inverting their bits, the packed words are complemented as a whole;
+     * otherwise each code is looked up in the complement table of the alphabet. Unknown nucleotides 'N' remain unknown.
+     *
+     * @return A packed nucleotide sequence of the same length in which each nucleotide is replaced by its complement.
+     */
+    public PackedNucleotideSequence complement() {
+        long[] complemented = complementedWords();
+        clearTail(complemented, length);
+        for (int run = 0; run < nRunStarts.length; run++)
+            clear(complemented, nRunStarts[run], nRunEnds[run]);
+        return new PackedNucleotideSequence(complemented, length, nRunStarts, nRunEnds, alphabet);
+    }
+
+    /**
+     * Return the reverse complement of this packed nucleotide sequence.
+     * The complemented words are reversed in order and in the order of their 2-bit codes, and shifted over the
+     * unused positions of the last word; the N runs are mirrored.
+     *
+     * @return A packed nucleotide sequence of the same length holding at each position i the complement of the
+     * nucleotide at position length() - 1 - i of this packed nucleotide sequence.
+     */
+    public PackedNucleotideSequence reverseComplement() {
+        long[] complemented = complementedWords();
+        long[] reversed = new long[words.length];
+        for (int word = 0; word < words.length; word++)
+            reversed[words.length - 1 - word] = reverseCodes(complemented[word]);
+        int shift = (words.length * NUCLEOTIDES_PER_WORD - length) << 1;
+        if (shift != 0) {
+            for (int word = 0; word < reversed.length; word++) {
+                long next = word + 1 < reversed.length ? reversed[word + 1] : 0;
+                reversed[word] = (reversed[word] >>> shift) | (next << (64 - shift));
+            }
+        }
+        clearTail(reversed, length);
+        int nbRuns = nRunStarts.length;
+        int[] starts = new int[nbRuns], ends = new int[nbRuns];
+        for (int run = 0; run < nbRuns; run++) {
+            starts[run] = length - nRunEnds[nbRuns - 1 - run];
+            ends[run] = length - nRunStarts[nbRuns - 1 - run];
+            clear(reversed, starts[run], ends[run]);
+        }
+        return new PackedNucleotideSequence(reversed, length, starts, ends, alphabet);
+    }
+
+    /**
+     * Return a copy of the packed words of this packed nucleotide sequence in which each code is replaced by the
+     * code of its complement. The unused bits of the last word and the positions of N runs are left undefined.
+     */
+    private long[] complementedWords() {
+        long[] complemented = new long[words.length];
+        if (alphabet.hasInvertibleComplements()) {
+            for (int word = 0; word < words.length; word++)
+                complemented[word] = ~words[word];
+        } else {
+            for (int index = 0; index < length; index++)
+                complemented[index >>> 5] |= ((long) alphabet.complementCode(codeAt(index))) << ((index & 31) << 1);
+        }
+        return complemented;
+    }
+
+    /**
+     * Return the given word with the order of its 32 2-bit codes reversed.
+     */
+    static long reverseCodes(long word) {
+        word = ((word >>> 2) & 0x3333333333333333L) | ((word & 0x3333333333333333L) << 2);
+        word = ((word >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((word & 0x0F0F0F0F0F0F0F0FL) << 4);
+        return Long.reverseBytes(word);
+    }
+
+    /**
+     * Return the symbol of the complement of the nucleotide at the given position.
+     *
+     * @param index The position of the nucleotide.
+     */
+    char complementAt(int index) {
+        return alphabet.decode(isUnknownAt(index) ? N_CODE : alphabet.complementCode(codeAt(index)));
+    }
+
+    /**
+     * Return a view of the complement of this packed nucleotide sequence, complementing each nucleotide when it is read.
+     *
+     * @return | result.toString().equals(complement().toString())
+     */
+    public CharSequence complementView() {
+        return new ComplementView(this, false);
+    }
+
+    /**
+     * Return a view of the reverse complement of this packed nucleotide sequence, complementing each nucleotide
+     * when it is read.
+     *
+     * @return | result.toString().equals(reverseComplement().toString())
+     */
+    public CharSequence reverseComplementView() {
+        return new ComplementView(this, true);
+    }
+
+    /**
+     * Clear the unused bits of the last word of the given packed words holding the given number of nucleotides.
+     */
+    static void clearTail(long[] words, int length) {
+        if ((length & 31) != 0)
+            words[words.length - 1] &= (1L << ((length & 31) << 1)) - 1;
+    }
+
+    /**
+     * Set the codes between the given positions in the given packed words to zero.
+     */
+    static void clear(long[] words, int from, int to) {
+        for (int index = from; index < to; index++)
+            words[index >>> 5] &= ~(3L << ((index & 31) << 1));
+    }
+
+    /**
+     * Return the nucleotides of this packed nucleotide sequence decoded as a string.
+     */
+    @Override
+    public String toString() {
+        char[] symbols = alphabet.getPackedSymbols();
+        char[] decoded = new char[length];
+        for (int index = 0; index < length; index++)
+            decoded[index] = symbols[codeAt(index)];
+        for (int run = 0; run < nRunStarts.length; run++)
+            Arrays.fill(decoded, nRunStarts[run], nRunEnds[run], 'N');
+        return new String(decoded);
+    }
+
+    /**
+     * Return the number of bytes taken by the binary form of this packed nucleotide sequence.
+     *
+     * @return | result == 8 + 8 * number of N runs + 8 * wordsFor(length())
+     */
+    int getSerializedSize() {
+        return 8 + 8 * nRunStarts.length + 8 * wordsFor(length);
+    }
+
+    /**
+     * Write the binary form of this packed nucleotide sequence to the given buffer: its length, its number of
+     * N runs, the start and end of each N run and its packed words.
+     *
+     * @param buffer The buffer to write to, with at least getSerializedSize() bytes remaining.
+     */
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(length);
+        buffer.putInt(nRunStarts.length);
+        for (int run = 0; run < nRunStarts.length; run++)
+            buffer.putInt(nRunStarts[run]).putInt(nRunEnds[run]);
+        int nbWords = wordsFor(length);
+        buffer.asLongBuffer().put(words, 0, nbWords);
+        buffer.position(buffer.position() + 8 * nbWords);
+    }
+
+    /**
+     * Return the packed nucleotide sequence of the given alphabet whose binary form starts at the position of the
+     * given buffer, and move that position past it.
+     *
+     * @param buffer   The buffer to read from.
+     * @param alphabet The alphabet encoding and decoding the nucleotides.
+     * @throws IllegalArgumentException ("Corrupt packed nucleotides")
+     *                                  The buffer does not hold the binary form of a packed nucleotide sequence.
+     */
+    static PackedNucleotideSequence readFrom(ByteBuffer buffer, Alphabet alphabet) throws IllegalArgumentException {
+        if (buffer.remaining() < 8)
+            throw new IllegalArgumentException("Corrupt packed nucleotides");
+        int length = buffer.getInt(), nbRuns = buffer.getInt();
+        if (length < 0 || nbRuns < 0 || nbRuns > length || buffer.remaining() < 8L * nbRuns + 8L * wordsFor(length))
+            throw new IllegalArgumentException("Corrupt packed nucleotides");
+        int[] nRunStarts = new int[nbRuns], nRunEnds = new int[nbRuns];
+        for (int run = 0, previousEnd = -1; run < nbRuns; previousEnd = nRunEnds[run++]) {
+            nRunStarts[run] = buffer.getInt();
+            nRunEnds[run] = buffer.getInt();
+            if (nRunStarts[run] <= previousEnd || nRunEnds[run] <= nRunStarts[run] || nRunEnds[run] > length)
+                throw new IllegalArgumentException("Corrupt packed nucleotides");
+        }
+        long[] words = new long[wordsFor(length)];
+        buffer.asLongBuffer().get(words);
+        buffer.position(buffer.position() + 8 * words.length);
+        return new PackedNucleotideSequence(words, length, nRunStarts, nRunEnds, alphabet);
+    }
+
+    /**
+     * A class of builders packing nucleotides one by one, without building an intermediate string.
+     */
+    static final class Builder {
+
+        /**
+         * Initialize this new builder for nucleotides of the given alphabet, with room for the given number of nucleotides.
+         *
+         * @param alphabet The alphabet encoding the nucleotides.
+         * @param capacity The expected number of nucleotides.
+         */
+        Builder(Alphabet alphabet, int capacity) {
+            this.alphabet = alphabet;
+            this.words = new long[Math.max(1, wordsFor(capacity))];
+        }
+
+        /**
+         * Append the given symbol to the nucleotides of this builder.
+         *
+         * @param symbol The symbol to append.
+         * @return True if and only if the given symbol could be encoded with the alphabet of this builder.
+         */
+        boolean append(char symbol) {
+            byte code = alphabet.encode(symbol);
+            if (code == INVALID_CODE) return false;
+            appendCode(code);
+            return true;
+        }
+
+        /**
+         * Append the given nucleotides to the nucleotides of this builder.
+         *
+         * @param nucleotideSequence The nucleotides to append.
+         * @return This builder.
+         * @throws IllegalArgumentException ("Illegal nucleotide ...")
+         *                                  The given nucleotides contain a character that cannot be encoded.
+         */
+        Builder appendAll(CharSequence nucleotideSequence) throws IllegalArgumentException {
+            for (int index = 0, size = nucleotideSequence.length(); index < size; index++) {
+                if (!append(nucleotideSequence.charAt(index)))
+                    throw new IllegalArgumentException("Illegal nucleotide " + nucleotideSequence.charAt(index) + " at offset " + index);
+            }
+            return this;
+        }
+
+        /**
+         * Append the nucleotides encoded by the bytes between the given positions of the given buffer to the
+         * nucleotides of this builder, up to the first byte that cannot be encoded.
+         * The position of the given buffer is not changed.
+         *
+         * @param bytes The buffer holding the symbols to append, one byte each.
+         * @param from  The start position (inclusive).
+         * @param to    The end position (exclusive).
+         * @return The position of the first byte that cannot be encoded with the alphabet of this builder,
+         * or the given end position if all bytes have been appended.
+         */
+        int appendBytes(ByteBuffer bytes, int from, int to) {
+            int needed = wordsFor(length + to - from);
+            if (needed > words.length)
+                words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+            for (int index = from; index < to; index++) {
+                byte code = alphabet.encode((char) (bytes.get(index) & 0xFF));
+                if (code == INVALID_CODE) return index;
+                appendCode(code);
+            }
+            return to;
+        }
+
+        /**
+         * Append the nucleotide with the given code to the nucleotides of this builder.
+         *
+         * @param code The code 0 to 3, or N_CODE, of the nucleotide to append.
+         */
+        void appendCode(byte code) {
+            if ((length >>> 5) == words.length)
+                words = Arrays.copyOf(words, words.length * 2);
+            if (code == N_CODE) {
+                if (nbRuns > 0 && nRunEnds[nbRuns - 1] == length) {
+                    nRunEnds[nbRuns - 1]++;
+                } else {
+                    if (nbRuns == nRunStarts.length) {
+                        nRunStarts = Arrays.copyOf(nRunStarts, nbRuns * 2);
+                        nRunEnds = Arrays.copyOf(nRunEnds, nbRuns * 2);
+                    }
+                    nRunStarts[nbRuns] = length;
+                    nRunEnds[nbRuns++] = length + 1;
+                }
+            } else {
+                words[length >>> 5] |= ((long) code) << ((length & 31) << 1);
+            }
+            length++;
+        }
+
+        /**
+         * Append the nucleotides between the given positions of the given packed nucleotide sequence, which has the
+         * same alphabet as this builder.
+         *
+         * @param nucleotides The packed nucleotide sequence to copy from.
+         * @param from        The start position (inclusive).
+         * @param to          The end position (exclusive).
+         */
+        void appendRange(PackedNucleotideSequence nucleotides, int from, int to) {
+            int run = nucleotides.runBefore(from);
+            if (run < 0 || nucleotides.nRunEnds[run] <= from) run++;
+            for (int index = from; index < to; run++) {
+                int unknownFrom = run < nucleotides.nRunStarts.length ? Math.max(index, Math.min(to, nucleotides.nRunStarts[run])) : to;
+                for (; index < unknownFrom; index++)
+                    appendCode((byte) nucleotides.codeAt(index));
+                int unknownTo = run < nucleotides.nRunStarts.length ? Math.min(to, nucleotides.nRunEnds[run]) : to;
+                for (; index < unknownTo; index++)
+                    appendCode(N_CODE);
+            }
+        }
+
+        /**
+         * Return the number of nucleotides appended to this builder.
+         */
+        int length() {
+            return length;
+        }
+
+        /**
+         * Return a packed nucleotide sequence holding the nucleotides appended to this builder.
+         */
+        PackedNucleotideSequence build() {
+            return new PackedNucleotideSequence(this);
+        }
+
+        /**
+         * Variable registering the alphabet encoding the nucleotides of this builder.
+         */
+        private final Alphabet alphabet;
+
+        /**
+         * Variable referencing the packed words of this builder.
+         */
+        private long[] words;
+
+        /**
+         * Variable registering the number of nucleotides appended to this builder.
+         */
+        private int length;
+
+        /**
+         * Variables registering the N runs appended to this builder.
+         */
+        private int[] nRunStarts = new int[4], nRunEnds = new int[4];
+
+        /**
+         * Variable registering the number of N runs appended to this builder.
+         */
+        private int nbRuns;
+    }
+}
@@ -3,25 +3,29 @@
  */
 package be.kuleuven.OOP;
 
+import java.lang.ref.Reference;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.function.Supplier;
 
 import be.kuleuven.OOP.exceptions.QueryResultException;
 import be.kuleuven.cs.som.annotate.*;
 
-import java.util.Observable;
-import java.util.Observer;
+import java.util.List;
 import java.util.Set;
 
 /**
  * A class representing query results involving sequence identifiers of biological sequences.
- * The query result objects are observers of the sequence repositories to account for consistency of
- * the association with sequence repository.
+ * Query results of a sequence repository read the removal log of that repository, and drop the sequence
+ * identifiers of the biological sequences removed since the query when they are read.
+ * The set of sequence identifiers is never changed once it is published: removals build a new set and swap it in,
+ * so that query results can be read by several threads while their repository changes.
  *
  * @author delphinecappelle
  * @invar Each query result must have proper sequence identifiers.
  * | hasProperIds()
  */
-public class QueryResult implements Observer {
+public class QueryResult {
 
     /**
      * Initialize this new query result with no biological sequences attached to it.
@@ -32,10 +36,73 @@ public class QueryResult implements Observer {
      */
     @Raw
     public QueryResult(Set<String> idList) throws QueryResultException {
+        if (idList == null) throw new QueryResultException("idList cannot be null");
+        queryResult = new HashSet<>(idList);
+        removalLog = null;
+    }
+
+    /**
+     * Initialize this new query result with the sequence identifiers computed by the given query, dropping the
+     * sequence identifiers registered in the given removal log from now on.
+     *
+     * @param removalLog The removal log of the sequence repository answering the given query.
+     * @param query      The query computing the sequence identifiers of this new query result, as a new set that
+     *                   is not modified afterwards.
+     * @throws QueryResultException ("idList cannot be null")
+     *                              The given query returns a set that is not effective.
+     */
+    @Raw
+    QueryResult(RemovalLog removalLog, Supplier<Set<String>> query) throws QueryResultException {
+        this.removalLog = removalLog;
+        this.registration = removalLog.register(this);
+        this.seenEpoch = removalLog.getEpoch();
+        Set<String> idList = query.get();
         if (idList == null) throw new QueryResultException("idList cannot be null");
         queryResult = idList;
     }
 
+    /**
+     * Variable referencing the removal log read by this query result, or null if this query result is not
+     * associated with a sequence repository.
+     */
+    private final RemovalLog removalLog;
+
+    /**
+     * Variable referencing the reference through which this query result is registered in its removal log.
+     */
+    private Reference<QueryResult> registration;
+
+    /**
+     * Return the epoch of the removal log up to which the removals are applied to this query result.
+     */
+    @Basic
+    long getSeenEpoch() {
+        return seenEpoch;
+    }
+
+    /**
+     * Variable registering the epoch of the removal log up to which the removals are applied to this query result.
+     */
+    private volatile long seenEpoch = 0;
+
+    /**
+     * Drop the sequence identifiers removed since the epoch seen by this query result.
+     */
+    private synchronized void applyRemovals() {
+        if (removalLog == null || isTerminated() || seenEpoch == removalLog.getEpoch())
+            return;
+        List<String> removedIds = removalLog.getIdsRemovedSince(seenEpoch);
+        for (String id : removedIds) {
+            if (queryResult.contains(id)) {
+                Set<String> remaining = new HashSet<>(queryResult);
+                remaining.removeAll(removedIds);
+                queryResult = remaining;
+                break;
+            }
+        }
+        seenEpoch += removedIds.size();
+    }
+
     /**
      * Check whether this query result is already terminated.
      */
@@ -55,9 +122,11 @@ public class QueryResult implements Observer {
      * | this.queryResult = new HashSet<>();
      * | this.isTerminated = true;
      */
-    public void terminate() {
+    public synchronized void terminate() {
         if (!isTerminated()) {
             this.queryResult = new HashSet<>();
+            if (removalLog != null)
+                removalLog.unregister(registration);
         }
         this.isTerminated = true;
     }
@@ -70,24 +139,18 @@ public class QueryResult implements Observer {
 
     /**
      * Set collecting references to biological sequences (i.e., sequence identifiers) attached
-     * to this query result.
+     * to this query result, which is replaced rather than changed once it is published.
      */
-    private Set<String> queryResult = new HashSet<String>();
-
-    @Basic
-    public Set<String> getQueryResult() {
-        return this.queryResult;
-    }
-
+    private volatile Set<String> queryResult = new HashSet<String>();
 
     /**
-     * When a change occurs in observable (i.e., sequence repository), update the query results listening
-     * to the changes done in the observable.
+     * Return the sequence identifiers of this query result, after dropping those of the biological sequences
+     * removed from the sequence repository since the query.
+     *
+     * @return An unmodifiable set of sequence identifiers, which does not change afterwards.
      */
-    @Override
-    public void update(Observable o, Object sequenceId) {
-        if (sequenceId instanceof String) {
-            queryResult.remove(sequenceId);
-        }
+    public Set<String> getQueryResult() {
+        applyRemovals();
+        return Collections.unmodifiableSet(this.queryResult);
     }
 }
@@ -0,0 +1,163 @@
+package be.kuleuven.OOP;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of logs registering, in order, the sequence identifiers of the biological sequences removed from a
+ * sequence repository. Each removal advances the epoch of the log by one.
+ * Query results remember the epoch up to which they have applied the log, and drop the sequence identifiers
+ * removed since then when they are read, so that a removal costs the same however many query results are
+ * outstanding. Query results are registered through weak references only; the log is trimmed up to the oldest
+ * epoch still needed by a registered query result that has not been collected or terminated.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+class RemovalLog {
+
+    /**
+     * Constant registering the smallest number of logged removals from which the log is trimmed.
+     */
+    static final int MIN_TRIM_SIZE = 1024;
+
+    /**
+     * Return the number of removals registered in this removal log so far.
+     */
+    @Basic
+    long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Variable registering the number of removals registered in this removal log so far.
+     */
+    private volatile long epoch = 0;
+
+    /**
+     * Return the number of removals still held by this removal log.
+     */
+    synchronized int getNbLoggedRemovals() {
+        return removedIds.size();
+    }
+
+    /**
+     * Register the removal of the biological sequence with the given sequence identifier.
+     *
+     * @param id The sequence identifier of the removed biological sequence.
+     * @post The epoch of this removal log is advanced by one.
+     * | new.getEpoch() == getEpoch() + 1
+     */
+    synchronized void append(String id) {
+        removedIds.add(id);
+        epoch++;
+        if (removedIds.size() >= trimSize)
+            trim();
+    }
+
+    /**
+     * Return the sequence identifiers removed from the given epoch on, in the order of their removal.
+     * The epoch of this removal log after these removals is the given epoch plus the number of returned identifiers.
+     *
+     * @param since The epoch from which the removals are returned.
+     * @throws IllegalArgumentException ("Illegal epoch")
+     *                                  The removals from the given epoch on are no longer held by this removal log.
+     */
+    synchronized List<String> getIdsRemovedSince(long since) throws IllegalArgumentException {
+        if (since < firstEpoch || since > epoch)
+            throw new IllegalArgumentException("Illegal epoch");
+        if (since == epoch)
+            return Collections.emptyList();
+        return new ArrayList<>(removedIds.subList((int) (since - firstEpoch), removedIds.size()));
+    }
+
+    /**
+     * Variable referencing the sequence identifiers of the logged removals, in order.
+     */
+    private final List<String> removedIds = new ArrayList<>();
+
+    /**
+     * Variable registering the epoch at which the first logged removal happened.
+     */
+    private long firstEpoch = 0;
+
+    /**
+     * Variable registering the number of logged removals from which this removal log is trimmed.
+     */
+    private int trimSize = MIN_TRIM_SIZE;
+
+    /**
+     * Register the given query result as a reader of this removal log.
+     * Until it is unregistered or collected, the removals from its epoch on are kept.
+     *
+     * @param queryResult The query result to register.
+     * @return The reference through which the given query result is registered.
+     */
+    synchronized Reference<QueryResult> register(QueryResult queryResult) {
+        expungeCollected();
+        WeakReference<QueryResult> registration = new WeakReference<>(queryResult, collected);
+        registrations.add(registration);
+        return registration;
+    }
+
+    /**
+     * Unregister the query result registered through the given reference.
+     *
+     * @param registration The reference through which the query result was registered.
+     */
+    synchronized void unregister(Reference<QueryResult> registration) {
+        registrations.remove(registration);
+    }
+
+    /**
+     * Return the number of query results registered as readers of this removal log and not yet collected.
+     */
+    synchronized int getNbRegistrations() {
+        expungeCollected();
+        return registrations.size();
+    }
+
+    /**
+     * Drop the removals that no registered query result still needs, and double the trim size if the log stays large.
+     */
+    private void trim() {
+        expungeCollected();
+        long oldest = epoch;
+        for (Reference<QueryResult> registration : registrations) {
+            QueryResult queryResult = registration.get();
+            if (queryResult != null)
+                oldest = Math.min(oldest, queryResult.getSeenEpoch());
+        }
+        if (oldest > firstEpoch) {
+            removedIds.subList(0, (int) (oldest - firstEpoch)).clear();
+            firstEpoch = oldest;
+        }
+        trimSize = Math.max(MIN_TRIM_SIZE, removedIds.size() * 2);
+    }
+
+    /**
+     * Drop the registrations of the query results that have been collected.
+     */
+    private void expungeCollected() {
+        for (Reference<? extends QueryResult> registration = collected.poll(); registration != null; registration = collected.poll())
+            registrations.remove(registration);
+    }
+
+    /**
+     * Variable referencing the registrations of the query results reading this removal log.
+     */
+    private final Set<Reference<QueryResult>> registrations = new HashSet<>();
+
+    /**
+     * Variable referencing the queue on which the registrations of collected query results are enqueued.
+     */
+    private final ReferenceQueue<QueryResult> collected = new ReferenceQueue<>();
+}
@@ -0,0 +1,425 @@
+package be.kuleuven.OOP;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+
+import be.kuleuven.OOP.exceptions.*;
+
+/**
+ * A class of binary snapshots of the biological sequences of a sequence repository.
+ * A snapshot starts with a header holding a magic number, a format version, the number of biological sequences and
+ * a table of segments, followed by the CRC32 checksum of the header. Each segment holds the records of a number of
+ * biological sequences and is checksummed on its own in the table, so that segments are written and read in
+ * parallel through positional channel operations. A record holds the sequence identifier, the organism, an alphabet
+ * tag and the packed nucleotides of a biological sequence, so that no nucleotide is parsed or validated again.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public final class RepositorySnapshot {
+
+    /**
+     * Prevent the instantiation of this utility class.
+     */
+    private RepositorySnapshot() {
+    }
+
+    /**
+     * Constant registering the magic number with which each snapshot starts ("BSEQSNAP").
+     */
+    static final long MAGIC = 0x42534551534E4150L;
+
+    /**
+     * Constant registering the version of the snapshot format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Constant registering the default number of bytes from which the records of a snapshot start a new segment.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    /**
+     * Constant registering the alphabet tag of biological sequences with a DNA alphabet.
+     */
+    static final byte DNA_TAG = 'D';
+
+    /**
+     * Constant registering the alphabet tag of biological sequences with an RNA alphabet.
+     */
+    static final byte RNA_TAG = 'R';
+
+    /**
+     * Write a snapshot of the biological sequences of the given sequence repository to the given file.
+     * The snapshot is written to a temporary file next to the given file, forced to the storage device and moved
+     * over the given file, so that the given file always holds a complete snapshot.
+     *
+     * @param repository The sequence repository to write a snapshot of.
+     * @param file       The file to write the snapshot to.
+     * @return The number of biological sequences in the snapshot.
+     * @throws IllegalArgumentException ("Unsupported alphabet ...")
+     *                                  A biological sequence has an alphabet that is neither a DNA nor an RNA alphabet.
+     * @throws IOException              The snapshot could not be written.
+     */
+    public static int write(SequenceRepository repository, Path file) throws IllegalArgumentException, IOException {
+        return write(repository.getBiologicalSequences(), file, DEFAULT_SEGMENT_SIZE, repository.getQueryPool());
+    }
+
+    /**
+     * Write a snapshot of the given biological sequences to the given file, starting a new segment each time the
+     * records of the current segment reach the given size, and serializing the segments in the given pool.
+     *
+     * @param biologicalSequences The biological sequences to write a snapshot of.
+     * @param file                The file to write the snapshot to.
+     * @param segmentSize         The number of bytes from which the records of a segment start a new segment.
+     * @param pool                The fork/join pool serializing the segments.
+     * @return The number of biological sequences in the snapshot.
+     * @throws IllegalArgumentException ("Illegal segment size")
+     *                                  | segmentSize <= 0
+     * @throws IllegalArgumentException ("Unsupported alphabet ...")
+     *                                  A biological sequence has an alphabet that is neither a DNA nor an RNA alphabet.
+     * @throws IOException              The snapshot could not be written.
+     */
+    static int write(Collection<BiologicalSequence> biologicalSequences, Path file, int segmentSize, ForkJoinPool pool)
+            throws IllegalArgumentException, IOException {
+        if (segmentSize <= 0)
+            throw new IllegalArgumentException("Illegal segment size");
+        List<Segment> segments = new ArrayList<>();
+        Segment current = null;
+        int nbSequences = 0;
+        for (BiologicalSequence biologicalSequence : biologicalSequences) {
+            Record record = new Record(biologicalSequence);
+            if (record.size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Biological sequence " + biologicalSequence.getId() + " is too large for a snapshot");
+            if (current == null || current.size + record.size > segmentSize) {
+                current = new Segment();
+                segments.add(current);
+            }
+            current.records.add(record);
+            current.size += record.size;
+            nbSequences++;
+        }
+        long position = headerSize(segments.size());
+        for (Segment segment : segments) {
+            segment.offset = position;
+            position += segment.size;
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<ForkJoinTask<Void>> tasks = new ArrayList<>();
+            for (final Segment segment : segments) {
+                tasks.add(pool.submit(() -> {
+                    writeSegment(channel, segment);
+                    return null;
+                }));
+            }
+            try {
+                joinAll(tasks);
+            } catch (IllegalParseException | IllegalIdException e) {
+                throw new IOException(e);
+            }
+            ByteBuffer header = ByteBuffer.allocate(headerSize(segments.size()));
+            header.putLong(MAGIC).putInt(VERSION).putInt(segments.size()).putLong(nbSequences);
+            for (Segment segment : segments)
+                header.putLong(segment.offset).putLong(segment.size).putInt(segment.records.size()).putInt(segment.checksum);
+            header.putInt(checksumOf(header, 0, header.position()));
+            header.flip();
+            writeFully(channel, header, 0);
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return nbSequences;
+    }
+
+    /**
+     * Serialize the records of the given segment and write them at the offset of that segment in the given channel.
+     */
+    private static void writeSegment(FileChannel channel, Segment segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) segment.size);
+        for (Record record : segment.records)
+            record.writeTo(buffer);
+        segment.checksum = checksumOf(buffer, 0, buffer.position());
+        buffer.flip();
+        writeFully(channel, buffer, segment.offset);
+    }
+
+    /**
+     * Read the snapshot in the given file into a new sequence repository, loading its segments in parallel.
+     *
+     * @param file The file holding the snapshot.
+     * @return A new sequence repository holding the biological sequences of the snapshot.
+     * @throws IllegalParseException ("Corrupt snapshot ...")
+     *                               The given file does not hold a valid snapshot, or one of its checksums does not match.
+     * @throws IOException           The snapshot could not be read.
+     */
+    public static SequenceRepository read(Path file) throws IllegalParseException, IOException {
+        SequenceRepository repository = new SequenceRepository();
+        try {
+            readInto(repository, file);
+        } catch (IllegalIdException | IllegalBiologicalSequenceException e) {
+            throw new IllegalParseException("Corrupt snapshot: " + e.getMessage());
+        }
+        return repository;
+    }
+
+    /**
+     * Add the biological sequences of the snapshot in the given file to the given sequence repository.
+     * The segments are read and decoded in parallel in the query pool of the given sequence repository; the
+     * biological sequences are added as one batch once all segments are verified, so that either all of them are
+     * added, or none of them is.
+     *
+     * @param repository The sequence repository to add the biological sequences to.
+     * @param file       The file holding the snapshot.
+     * @return The number of biological sequences added to the given sequence repository.
+     * @throws IllegalParseException ("Corrupt snapshot ...")
+     *                               The given file does not hold a valid snapshot, or one of its checksums does not match.
+     * @throws IllegalIdException    Two biological sequences of the snapshot have the same sequence identifier, or a
+     *                               biological sequence of the snapshot has a sequence identifier that is already
+     *                               stored in the given sequence repository; no biological sequence is added then.
+     * @throws IOException           The snapshot could not be read.
+     */
+    public static int readInto(SequenceRepository repository, Path file)
+            throws IllegalParseException, IllegalIdException, IllegalBiologicalSequenceException, IOException {
+        List<ForkJoinTask<List<BiologicalSequence>>> tasks = new ArrayList<>();
+        final Alphabet dnaAlphabet = new DnaAlphabet(), rnaAlphabet = new RnaAlphabet();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer fixed = readFully(channel, 0, headerSize(0) - 4);
+            if (fixed.getLong() != MAGIC || fixed.getInt() != VERSION)
+                throw new IllegalParseException("Corrupt snapshot: unknown format");
+            int nbSegments = fixed.getInt();
+            if (nbSegments < 0 || headerSize(nbSegments) > channel.size())
+                throw new IllegalParseException("Corrupt snapshot: illegal number of segments");
+            ByteBuffer header = readFully(channel, 0, headerSize(nbSegments));
+            if (checksumOf(header, 0, header.limit() - 4) != header.getInt(header.limit() - 4))
+                throw new IllegalParseException("Corrupt snapshot: header checksum mismatch");
+            header.position(headerSize(0) - 4);
+            for (int index = 0; index < nbSegments; index++) {
+                final long offset = header.getLong(), size = header.getLong();
+                final int nbRecords = header.getInt(), checksum = header.getInt();
+                if (offset < headerSize(nbSegments) || size < 0 || size > Integer.MAX_VALUE || offset + size > channel.size())
+                    throw new IllegalParseException("Corrupt snapshot: illegal segment " + index);
+                tasks.add(repository.getQueryPool().submit(() -> readSegment(channel, offset, (int) size, nbRecords, checksum, dnaAlphabet, rnaAlphabet)));
+            }
+            List<BiologicalSequence> biologicalSequences = new ArrayList<>();
+            for (List<BiologicalSequence> segment : joinAll(tasks))
+                biologicalSequences.addAll(segment);
+            return repository.addBiologicalSequences(biologicalSequences);
+        }
+    }
+
+    /**
+     * Read, verify and decode the segment at the given offset of the given channel, sharing the given alphabets
+     * among all biological sequences of the snapshot.
+     */
+    private static List<BiologicalSequence> readSegment(FileChannel channel, long offset, int size, int nbRecords, int checksum,
+                                                        Alphabet dnaAlphabet, Alphabet rnaAlphabet)
+            throws IOException, IllegalParseException, IllegalIdException {
+        ByteBuffer buffer = readFully(channel, offset, size);
+        if (checksumOf(buffer, 0, size) != checksum)
+            throw new IllegalParseException("Corrupt snapshot: checksum mismatch in segment at " + offset);
+        List<BiologicalSequence> biologicalSequences = new ArrayList<>(nbRecords);
+        for (int record = 0; record < nbRecords; record++) {
+            BiologicalSequence biologicalSequence = readRecord(buffer, dnaAlphabet, rnaAlphabet);
+            if (biologicalSequence == null)
+                throw new IllegalParseException("Corrupt snapshot: illegal record in segment at " + offset);
+            biologicalSequences.add(biologicalSequence);
+        }
+        return biologicalSequences;
+    }
+
+    /**
+     * Return the biological sequence whose record starts at the position of the given buffer, and move that position
+     * past it, or return null if the buffer does not hold a valid record there.
+     *
+     * @param buffer      The buffer to read from.
+     * @param dnaAlphabet The alphabet of biological sequences tagged as DNA.
+     * @param rnaAlphabet The alphabet of biological sequences tagged as RNA.
+     * @throws IllegalIdException The record holds an invalid sequence identifier.
+     */
+    static BiologicalSequence readRecord(ByteBuffer buffer, Alphabet dnaAlphabet, Alphabet rnaAlphabet) throws IllegalIdException {
+        try {
+            String id = readString(buffer);
+            String organism = readString(buffer);
+            byte tag = buffer.get();
+            Alphabet alphabet = tag == DNA_TAG ? dnaAlphabet : tag == RNA_TAG ? rnaAlphabet : null;
+            if (id == null || alphabet == null)
+                return null;
+            return new BiologicalSequence(id, organism, PackedNucleotideSequence.readFrom(buffer, alphabet), alphabet);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Return the number of bytes of the header of a snapshot with the given number of segments.
+     */
+    private static int headerSize(int nbSegments) {
+        return 24 + 24 * nbSegments + 4;
+    }
+
+    /**
+     * Return the alphabet tag of the given alphabet.
+     *
+     * @throws IllegalArgumentException ("Unsupported alphabet ...")
+     *                                  The given alphabet is neither a DNA nor an RNA alphabet.
+     */
+    static byte tagOf(Alphabet alphabet) throws IllegalArgumentException {
+        if (alphabet instanceof DnaAlphabet) return DNA_TAG;
+        if (alphabet instanceof RnaAlphabet) return RNA_TAG;
+        throw new IllegalArgumentException("Unsupported alphabet " + alphabet.getAlphabetName());
+    }
+
+    /**
+     * Return the CRC32 checksum of the bytes between the given positions of the given buffer, as an int.
+     */
+    static int checksumOf(ByteBuffer buffer, int from, int to) {
+        ByteBuffer region = buffer.duplicate();
+        region.limit(to).position(from);
+        CRC32 crc = new CRC32();
+        crc.update(region);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Write the remaining bytes of the given buffer to the given channel from the given position on.
+     */
+    static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    /**
+     * Return a buffer holding the given number of bytes read from the given channel from the given position on.
+     *
+     * @throws IllegalParseException ("Corrupt snapshot: unexpected end of file")
+     *                               The channel ends before the given number of bytes are read.
+     */
+    static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException, IllegalParseException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0)
+                throw new IllegalParseException("Corrupt snapshot: unexpected end of file");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Write the given string, which may be null, to the given buffer as its number of UTF-8 bytes followed by those bytes.
+     */
+    static void writeString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * Return the string, which may be null, at the position of the given buffer, and move that position past it.
+     */
+    static String readString(ByteBuffer buffer) throws IllegalArgumentException {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        if (length > buffer.remaining())
+            throw new IllegalArgumentException("Illegal string length");
+        String result = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return result;
+    }
+
+    /**
+     * Wait for all given tasks and return their results, rethrowing the checked exception of the first failed task,
+     * which the fork/join pool wraps in unchecked exceptions.
+     */
+    private static <T> List<T> joinAll(List<ForkJoinTask<T>> tasks) throws IOException, IllegalParseException, IllegalIdException {
+        List<T> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<T> task : tasks) {
+            try {
+                results.add(task.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a segment");
+            } catch (ExecutionException e) {
+                for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                    if (cause instanceof IOException) throw (IOException) cause;
+                    if (cause instanceof IllegalParseException) throw (IllegalParseException) cause;
+                    if (cause instanceof IllegalIdException) throw (IllegalIdException) cause;
+                }
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw new IOException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * A class of records of a biological sequence, of which the size is known before they are written.
+     */
+    static final class Record {
+
+        /**
+         * Initialize this new record of the given biological sequence.
+         *
+         * @throws IllegalArgumentException ("Unsupported alphabet ...")
+         *                                  The given biological sequence has neither a DNA nor an RNA alphabet.
+         */
+        Record(BiologicalSequence biologicalSequence) throws IllegalArgumentException {
+            this.tag = tagOf(biologicalSequence.getAlphabet());
+            this.id = biologicalSequence.getId().getBytes(StandardCharsets.UTF_8);
+            this.organism = biologicalSequence.getOrganism() == null ? null : biologicalSequence.getOrganism().getBytes(StandardCharsets.UTF_8);
+            this.nucleotides = biologicalSequence.getPackedNucleotideSequence();
+            this.size = 4 + id.length + 4 + (organism == null ? 0 : organism.length) + 1 + (long) nucleotides.getSerializedSize();
+        }
+
+        /**
+         * Return the number of bytes of this record.
+         */
+        long getSize() {
+            return size;
+        }
+
+        /**
+         * Write this record to the given buffer, which has at least getSize() bytes remaining.
+         */
+        void writeTo(ByteBuffer buffer) {
+            writeString(buffer, id);
+            writeString(buffer, organism);
+            buffer.put(tag);
+            nucleotides.writeTo(buffer);
+        }
+
+        private final byte tag;
+        private final byte[] id, organism;
+        private final PackedNucleotideSequence nucleotides;
+        private final long size;
+    }
+
+    /**
+     * A class of segments of a snapshot being written.
+     */
+    private static final class Segment {
+        private final List<Record> records = new ArrayList<>();
+        private long size;
+        private long offset;
+        private int checksum;
+    }
+}
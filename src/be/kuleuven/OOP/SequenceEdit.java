@@ -0,0 +1,118 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of edits of a nucleotide sequence, replacing a number of nucleotides from a position on by a
+ * replacement. Insertions replace no nucleotides and deletions have an empty replacement.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ * @invar The position and length of each sequence edit are not negative.
+ * | getPosition() >= 0 && getLength() >= 0
+ */
+public class SequenceEdit implements Comparable<SequenceEdit> {
+
+    /**
+     * Initialize this new sequence edit with the given position, length and replacement.
+     *
+     * @param position    The position of the first replaced nucleotide, in the coordinates of the original sequence.
+     * @param length      The number of replaced nucleotides.
+     * @param replacement The nucleotides put in their place.
+     * @post The position of this new sequence edit is the given position.
+     * | new.getPosition() == position
+     * @post The length of this new sequence edit is the given length.
+     * | new.getLength() == length
+     * @post The replacement of this new sequence edit is the given replacement.
+     * | new.getReplacement() == replacement
+     * @throws IllegalArgumentException ("Illegal edit")
+     *                                  | position < 0 || length < 0 || replacement == null
+     */
+    public SequenceEdit(int position, int length, String replacement) throws IllegalArgumentException {
+        if (position < 0 || length < 0 || replacement == null)
+            throw new IllegalArgumentException("Illegal edit");
+        this.position = position;
+        this.length = length;
+        this.replacement = replacement;
+    }
+
+    /**
+     * Return the position of the first nucleotide replaced by this sequence edit.
+     */
+    @Basic
+    @Immutable
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Variable registering the position of the first nucleotide replaced by this sequence edit.
+     */
+    private final int position;
+
+    /**
+     * Return the number of nucleotides replaced by this sequence edit.
+     */
+    @Basic
+    @Immutable
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Variable registering the number of nucleotides replaced by this sequence edit.
+     */
+    private final int length;
+
+    /**
+     * Return the position following the last nucleotide replaced by this sequence edit.
+     *
+     * @return | result == getPosition() + getLength()
+     */
+    public int getEnd() {
+        return position + length;
+    }
+
+    /**
+     * Return the nucleotides put in place of the replaced nucleotides.
+     */
+    @Basic
+    @Immutable
+    public String getReplacement() {
+        return replacement;
+    }
+
+    /**
+     * Variable registering the nucleotides put in place of the replaced nucleotides.
+     */
+    private final String replacement;
+
+    /**
+     * Compare this sequence edit with the given sequence edit, by position first and length next.
+     */
+    @Override
+    public int compareTo(SequenceEdit other) {
+        int result = Integer.compare(position, other.position);
+        return result != 0 ? result : Integer.compare(length, other.length);
+    }
+
+    /**
+     * Check whether the given object is a sequence edit with the same position, length and replacement.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof SequenceEdit)) return false;
+        SequenceEdit other = (SequenceEdit) obj;
+        return position == other.position && length == other.length && replacement.equals(other.replacement);
+    }
+
+    @Override
+    public int hashCode() {
+        return (position * 31 + length) * 31 + replacement.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return position + ":" + length + ">" + replacement;
+    }
+}
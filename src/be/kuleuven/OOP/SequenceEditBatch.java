@@ -0,0 +1,187 @@
+package be.kuleuven.OOP;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import be.kuleuven.OOP.exceptions.IllegalNucleotideSequenceException;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of batches of sequence edits expressed in the coordinates of one original nucleotide sequence.
+ * The sequence edits of a batch are validated, sorted and checked for overlaps once, after which they are
+ * applied in a single pass over the original nucleotide sequence, and positions in the original nucleotide
+ * sequence can be rebased onto the edited nucleotide sequence.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ * @invar The sequence edits of each batch are sorted and do not overlap.
+ * | for each I in 1..getNbEdits()-1: getEditAt(I-1).getEnd() <= getEditAt(I).getPosition()
+ */
+public class SequenceEditBatch {
+
+    /**
+     * Initialize this new batch with the given sequence edits of a nucleotide sequence of the given length and alphabet.
+     *
+     * @param edits          The sequence edits, in any order.
+     * @param originalLength The length of the original nucleotide sequence.
+     * @param alphabet       The alphabet of the original nucleotide sequence.
+     * @throws IllegalArgumentException ("Illegal startposition")
+     *                                  A sequence edit ends after the original nucleotide sequence.
+     *                                  | for some edit in edits: edit.getEnd() > originalLength
+     * @throws IllegalArgumentException ("Overlapping edits ...")
+     *                                  Two sequence edits replace a common nucleotide, or insert at the same position.
+     * @throws IllegalNucleotideSequenceException A replacement holds a symbol that is not a valid symbol for the given alphabet.
+     *                                  | for some edit in edits: alphabet.indexOfInvalidSymbol(edit.getReplacement()) != -1
+     */
+    public SequenceEditBatch(Collection<SequenceEdit> edits, int originalLength, Alphabet alphabet) throws IllegalArgumentException, IllegalNucleotideSequenceException {
+        List<SequenceEdit> sorted = new ArrayList<>(edits);
+        Collections.sort(sorted);
+        this.edits = sorted.toArray(new SequenceEdit[sorted.size()]);
+        this.ends = new int[this.edits.length];
+        this.shifts = new long[this.edits.length + 1];
+        for (int index = 0; index < this.edits.length; index++) {
+            SequenceEdit edit = this.edits[index];
+            if (edit.getEnd() > originalLength || edit.getEnd() < 0)
+                throw new IllegalArgumentException("Illegal startposition");
+            if (index > 0 && overlap(this.edits[index - 1], edit))
+                throw new IllegalArgumentException("Overlapping edits " + this.edits[index - 1] + " and " + edit);
+            int offset = alphabet.indexOfInvalidSymbol(edit.getReplacement());
+            if (offset != -1)
+                throw new IllegalNucleotideSequenceException("Symbol " + edit.getReplacement().charAt(offset) + " at offset " + offset + " of edit " + edit + " is not a valid symbol");
+            ends[index] = edit.getEnd();
+            shifts[index + 1] = shifts[index] + edit.getReplacement().length() - edit.getLength();
+        }
+        this.originalLength = originalLength;
+        this.alphabet = alphabet;
+    }
+
+    /**
+     * Check whether the given sequence edits, with the first sorted before the second, overlap.
+     */
+    private static boolean overlap(SequenceEdit first, SequenceEdit second) {
+        return first.getEnd() > second.getPosition()
+                || (first.getLength() == 0 && second.getLength() == 0 && first.getPosition() == second.getPosition());
+    }
+
+    /**
+     * Return the number of sequence edits of this batch.
+     */
+    @Basic
+    public int getNbEdits() {
+        return edits.length;
+    }
+
+    /**
+     * Return the sequence edit at the given index in the sorted sequence edits of this batch.
+     *
+     * @param index The index of the sequence edit.
+     */
+    @Basic
+    public SequenceEdit getEditAt(int index) throws IndexOutOfBoundsException {
+        return edits[index];
+    }
+
+    /**
+     * Variable referencing the sequence edits of this batch, sorted by position.
+     */
+    private final SequenceEdit[] edits;
+
+    /**
+     * Variable referencing the end positions of the sorted sequence edits of this batch, in ascending order.
+     */
+    private final int[] ends;
+
+    /**
+     * Variable referencing the cumulative change in length caused by the first i sorted sequence edits of this batch.
+     */
+    private final long[] shifts;
+
+    /**
+     * Return the length of the original nucleotide sequence of this batch.
+     */
+    @Basic
+    @Immutable
+    public int getOriginalLength() {
+        return originalLength;
+    }
+
+    /**
+     * Variable registering the length of the original nucleotide sequence of this batch.
+     */
+    private final int originalLength;
+
+    /**
+     * Return the alphabet of the original nucleotide sequence of this batch.
+     */
+    @Basic
+    @Immutable
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    /**
+     * Variable registering the alphabet of the original nucleotide sequence of this batch.
+     */
+    private final Alphabet alphabet;
+
+    /**
+     * Return the length of the nucleotide sequence resulting from applying this batch.
+     *
+     * @return | result == getOriginalLength() + sum of the change in length of each sequence edit
+     */
+    public long getEditedLength() {
+        return originalLength + shifts[edits.length];
+    }
+
+    /**
+     * Return the position in the edited nucleotide sequence of the nucleotide at the given position of the original
+     * nucleotide sequence. Nucleotides after an insertion at their own position are shifted past the insertion.
+     *
+     * @param position The position in the original nucleotide sequence.
+     * @throws IllegalArgumentException ("Illegal position")
+     *                                  | position < 0 || position > getOriginalLength()
+     * @throws IllegalArgumentException ("Position ... is replaced by an edit")
+     *                                  The nucleotide at the given position is replaced by a sequence edit.
+     */
+    public long rebase(int position) throws IllegalArgumentException {
+        if (position < 0 || position > originalLength)
+            throw new IllegalArgumentException("Illegal position");
+        int low = 0, high = ends.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle] <= position) low = middle + 1;
+            else high = middle - 1;
+        }
+        if (low < edits.length && edits[low].getPosition() <= position)
+            throw new IllegalArgumentException("Position " + position + " is replaced by an edit");
+        return position + shifts[low];
+    }
+
+    /**
+     * Return a packed nucleotide sequence holding the given original nucleotides with the sequence edits of this
+     * batch applied, built in a single pass over the original nucleotides.
+     *
+     * @param original The original nucleotides.
+     * @throws IllegalArgumentException ("Illegal original sequence")
+     *                                  | original.length() != getOriginalLength() || original.getAlphabet() != getAlphabet()
+     * @throws IllegalArgumentException ("Edited sequence too long")
+     *                                  | getEditedLength() > Integer.MAX_VALUE
+     */
+    PackedNucleotideSequence applyTo(PackedNucleotideSequence original) throws IllegalArgumentException {
+        if (original.length() != originalLength || original.getAlphabet() != alphabet)
+            throw new IllegalArgumentException("Illegal original sequence");
+        if (getEditedLength() > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Edited sequence too long");
+        PackedNucleotideSequence.Builder builder = new PackedNucleotideSequence.Builder(alphabet, (int) getEditedLength());
+        int position = 0;
+        for (SequenceEdit edit : edits) {
+            builder.appendRange(original, position, edit.getPosition());
+            builder.appendAll(edit.getReplacement());
+            position = edit.getEnd();
+        }
+        builder.appendRange(original, position, originalLength);
+        return builder.build();
+    }
+}
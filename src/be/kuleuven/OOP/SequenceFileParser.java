@@ -4,56 +4,125 @@ import java.io.File;
 
 import be.kuleuven.OOP.exceptions.*;
 
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
 import java.util.Scanner;
+import java.util.zip.GZIPInputStream;
 
 public class SequenceFileParser {
     /**
      * Method to read a biological sequence provided in FASTA format
+     * A header with a single field yields a biological sequence with that field as its sequence identifier and
+     * "unknown" as its organism.
      *
      * @param fileName
      * @return BiologicalSequence
      * @throws IllegalParseException The given sequence is not a valid sequence
+     * @throws IllegalIdException The header of the given sequence holds an empty sequence identifier.
      */
     private static BiologicalSequence getBiologicalSequence(Alphabet alphabet, String fileName) throws IllegalParseException, IllegalAlphabetException, IllegalIdException, IllegalNucleotideSequenceException {
         File file = new File(String.format("resources/%s.txt", fileName));
+        if (!file.exists() && new File(file.getPath() + ".gz").exists())
+            file = new File(file.getPath() + ".gz");
 
         StringBuilder dnaString = new StringBuilder();
         String organism = null;
-        StringBuilder sequenceId = new StringBuilder();
-        try (Scanner scanner = new Scanner(file)) {
+        String sequenceId = "";
+        try (Scanner scanner = new Scanner(openInput(file), "US-ASCII")) {
             while (scanner.hasNextLine()) {
                 String line = scanner.nextLine().trim();
                 if (line.startsWith(">")) {
-                    line = line.substring(1);
-                    String[] descriptionArray = line.split("\\|");
-                    for (String des1 : descriptionArray) {
-                        System.out.println(des1);
-                    }
-
-                    if (descriptionArray.length == 0)
-                        throw new IllegalParseException("There is no sequence id present");
-                    organism = descriptionArray[descriptionArray.length - 1];
-                    sequenceId = new StringBuilder();
-
-                    for (int i = 0; i < descriptionArray.length - 1; i++) {
-                        sequenceId.append(String.format("%s%s",
-                                descriptionArray[i],
-                                (i < descriptionArray.length - 2 ? "-" : "")
-                        ));
-                    }
+                    String[] description = parseHeader(line.substring(1));
+                    sequenceId = description[0];
+                    organism = description[1];
                 } else {
                     dnaString.append(line);
                 }
             }
-            return new BiologicalSequence(sequenceId.toString(), organism, dnaString.toString(), alphabet);
+            return new BiologicalSequence(sequenceId, organism, dnaString.toString(), alphabet);
+        }
+    }
+
+    /**
+     * Constant registering the number of bytes peeked at to recognise compressed input.
+     */
+    private static final int MAGIC_SIZE = BgzfInputStream.HEADER_SIZE;
+
+    /**
+     * Open the given file for reading, decompressing it transparently if it is compressed.
+     * Block-gzip (BGZF) files are inflated in parallel by a BGZF input stream, other gzip files by a gzip input
+     * stream; the compression is recognised from the first bytes of the file, not from its name.
+     *
+     * @param file The file to open.
+     * @return An input stream returning the decompressed contents of the given file, which must be closed after use.
+     * @throws IllegalParseException ("File was not found")
+     *                               The given file does not exist or cannot be opened.
+     */
+    static InputStream openInput(File file) throws IllegalParseException {
+        InputStream input;
+        try {
+            input = new FileInputStream(file);
         } catch (FileNotFoundException e) {
             throw new IllegalParseException("File was not found");
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new IllegalParseException("Array out of bound");
+        }
+        try {
+            PushbackInputStream pushback = new PushbackInputStream(new BufferedInputStream(input, FastaReader.BUFFER_SIZE), MAGIC_SIZE);
+            byte[] magic = new byte[MAGIC_SIZE];
+            int length = 0, read;
+            while (length < MAGIC_SIZE && (read = pushback.read(magic, length, MAGIC_SIZE - length)) > 0)
+                length += read;
+            pushback.unread(magic, 0, length);
+            if (BgzfInputStream.isBgzfHeader(magic, length))
+                return new BgzfInputStream(pushback);
+            if (length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b)
+                return new GZIPInputStream(pushback, FastaReader.BUFFER_SIZE);
+            return pushback;
+        } catch (IOException e) {
+            try {
+                input.close();
+            } catch (IOException ignored) {
+                // The file could not be read anyway.
+            }
+            throw new IllegalParseException("File could not be read");
         }
     }
 
+    /**
+     * Return the sequence identifier and the organism described in the given FASTA header.
+     * The fields of the header are separated by '|'. The last field describes the organism, the other fields
+     * joined by '-' form the sequence identifier. A header with a single field only describes the sequence identifier,
+     * and the organism is "unknown".
+     *
+     * @param header The header to parse, without its leading '>'.
+     * @return An array holding the sequence identifier and the organism, in that order.
+     * | if (header.split("\\|").length == 1) then result[0].equals(header) && result[1].equals("unknown")
+     * @throws IllegalParseException ("There is no sequence id present")
+     *                               The given header has no fields.
+     */
+    static String[] parseHeader(String header) throws IllegalParseException {
+        String[] descriptionArray = header.split("\\|");
+        if (descriptionArray.length == 0)
+            throw new IllegalParseException("There is no sequence id present");
+        if (descriptionArray.length == 1)
+            return new String[]{descriptionArray[0], "unknown"};
+
+        StringBuilder sequenceId = new StringBuilder();
+        for (int i = 0; i < descriptionArray.length - 1; i++) {
+            sequenceId.append(String.format("%s%s",
+                    descriptionArray[i],
+                    (i < descriptionArray.length - 2 ? "-" : "")
+            ));
+        }
+        return new String[]{sequenceId.toString(), descriptionArray[descriptionArray.length - 1]};
+    }
+
     public static BiologicalSequence getDnaSequence(String filename) throws IllegalParseException, IllegalAlphabetException, IllegalIdException, IllegalNucleotideSequenceException {
         return getBiologicalSequence(new DnaAlphabet(), filename);
     }
@@ -61,4 +130,91 @@ public class SequenceFileParser {
     public static BiologicalSequence getRnaSequence(String filename) throws IllegalParseException, IllegalAlphabetException, IllegalIdException, IllegalNucleotideSequenceException {
         return getBiologicalSequence(new RnaAlphabet(), filename);
     }
+
+    /**
+     * Open a reader streaming the records of the given FASTA file one by one, decompressing gzip and block-gzip
+     * files transparently.
+     *
+     * @param alphabet The alphabet of the biological sequences in the given file.
+     * @param file     The FASTA file to read.
+     * @return A FASTA reader on the given file, which must be closed after use.
+     * @throws IllegalParseException ("File was not found")
+     *                               The given file does not exist or cannot be opened.
+     */
+    public static FastaReader readSequences(Alphabet alphabet, File file) throws IllegalParseException {
+        return new FastaReader(openInput(file), alphabet);
+    }
+
+    /**
+     * Open a reader streaming the records of the given FASTQ file one by one as sequencing reads, decompressing gzip
+     * and block-gzip files transparently.
+     *
+     * @param alphabet The alphabet of the sequencing reads in the given file.
+     * @param file     The FASTQ file to read.
+     * @return A FASTQ reader on the given file, which must be closed after use.
+     * @throws IllegalParseException ("File was not found")
+     *                               The given file does not exist or cannot be opened.
+     */
+    public static FastqReader readReads(Alphabet alphabet, File file) throws IllegalParseException {
+        return new FastqReader(openInput(file), alphabet);
+    }
+
+    /**
+     * Open a reader streaming the records of the given FASTA file one by one through memory mappings of that file.
+     *
+     * @param alphabet The alphabet of the biological sequences in the given file.
+     * @param file     The FASTA file to read.
+     * @return A mapped FASTA reader on the given file, which must be closed after use.
+     * @throws IllegalParseException ("File was not found")
+     *                               The given file does not exist or cannot be opened.
+     */
+    public static FastaReader mapSequences(Alphabet alphabet, File file) throws IllegalParseException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new IllegalParseException("File was not found");
+        }
+        return new MappedFastaReader(channel, alphabet);
+    }
+
+    /**
+     * Add the biological sequence of each record of the given FASTA file to the given sequence repository.
+     *
+     * @param repository The sequence repository to add the biological sequences to.
+     * @param alphabet   The alphabet of the biological sequences in the given file.
+     * @param file       The FASTA file to read.
+     * @return The number of biological sequences added to the given sequence repository.
+     * @throws IllegalParseException The given file cannot be read, or is not a valid FASTA file.
+     * @throws IllegalIdException    A record has an invalid sequence identifier, or its sequence identifier is
+     *                               already stored in the given sequence repository.
+     */
+    public static int addSequencesTo(SequenceRepository repository, Alphabet alphabet, File file)
+            throws IllegalParseException, IllegalAlphabetException, IllegalIdException, IllegalBiologicalSequenceException {
+        int count = 0;
+        try (FastaReader reader = readSequences(alphabet, file)) {
+            while (reader.hasNext()) {
+                repository.addBiologicalSequence(reader.next());
+                count++;
+            }
+        } catch (IOException e) {
+            throw new IllegalParseException("File could not be closed");
+        }
+        return count;
+    }
+
+    /**
+     * Add the biological sequences of all given FASTA files to the given sequence repository, parsing the files
+     * concurrently on as many workers as there are processors.
+     *
+     * @param repository The sequence repository to add the biological sequences to.
+     * @param alphabet   The alphabet of the biological sequences in the given files.
+     * @param files      The FASTA files to read, plain or compressed.
+     * @return A report of the load, holding its throughput and the errors of each file.
+     * @throws InterruptedException The calling thread was interrupted while waiting for parsed files.
+     */
+    public static BulkLoader.Report addSequencesTo(SequenceRepository repository, Alphabet alphabet, Collection<File> files)
+            throws InterruptedException {
+        return new BulkLoader(repository, alphabet).load(files);
+    }
 }
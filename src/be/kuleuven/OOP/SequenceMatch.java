@@ -0,0 +1,85 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of matches of a subsequence in a biological sequence, involving the sequence identifier of that
+ * biological sequence and the position at which the match starts.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class SequenceMatch implements Comparable<SequenceMatch> {
+
+    /**
+     * Initialize this new sequence match with the given sequence identifier and position.
+     *
+     * @param id       The sequence identifier of the biological sequence holding the match.
+     * @param position The position in that biological sequence at which the match starts.
+     * @post The sequence identifier of this new sequence match is the given sequence identifier.
+     * | new.getId() == id
+     * @post The position of this new sequence match is the given position.
+     * | new.getPosition() == position
+     */
+    public SequenceMatch(String id, int position) {
+        this.id = id;
+        this.position = position;
+    }
+
+    /**
+     * Return the sequence identifier of the biological sequence holding this sequence match.
+     */
+    @Basic
+    @Immutable
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Variable registering the sequence identifier of the biological sequence holding this sequence match.
+     */
+    private final String id;
+
+    /**
+     * Return the position at which this sequence match starts.
+     */
+    @Basic
+    @Immutable
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Variable registering the position at which this sequence match starts.
+     */
+    private final int position;
+
+    /**
+     * Compare this sequence match with the given sequence match, by sequence identifier first and position next.
+     */
+    @Override
+    public int compareTo(SequenceMatch other) {
+        int result = id.compareTo(other.id);
+        return result != 0 ? result : Integer.compare(position, other.position);
+    }
+
+    /**
+     * Check whether the given object is a sequence match with the same sequence identifier and position.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof SequenceMatch)) return false;
+        SequenceMatch other = (SequenceMatch) obj;
+        return id.equals(other.id) && position == other.position;
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode() * 31 + position;
+    }
+
+    @Override
+    public String toString() {
+        return id + ":" + position;
+    }
+}
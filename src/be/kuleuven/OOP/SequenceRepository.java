@@ -7,15 +7,29 @@ package be.kuleuven.OOP;
 import be.kuleuven.cs.som.annotate.*;
 import be.kuleuven.OOP.exceptions.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Observable;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * A class for dealing with sequence repositories involving biological sequences and query results.
- * The sequence repositories represent observable objects.
+ * The query results of a sequence repository drop the biological sequences removed from it through its removal log.
  *
  * @author delphinecappelle
  * @version 1.0
@@ -23,7 +37,7 @@ import java.util.Set;
  * biological sequences for that sequence repository.
  * | hasProperBiologicalSequences()
  */
-public class SequenceRepository extends Observable {
+public class SequenceRepository {
 
     /**
      * Initialize this new sequence repository as a non-terminated sequence repository with no biological sequences
@@ -32,6 +46,80 @@ public class SequenceRepository extends Observable {
      */
     @Raw
     public SequenceRepository() {
+        this(false);
+    }
+
+    /**
+     * Initialize this new sequence repository as a non-terminated sequence repository with no biological sequences,
+     * storing them in concurrent maps if so requested.
+     *
+     * @param concurrent Whether the biological sequences and secondary indexes are stored in concurrent maps.
+     * @post No biological sequences are stored in this new sequence repository.
+     */
+    @Raw
+    SequenceRepository(boolean concurrent) {
+        this.concurrent = concurrent;
+        this.biologicalSequences = newMap();
+        this.idsByOrganism = newMap();
+        this.idsByAlphabetType = newMap();
+    }
+
+    /**
+     * Check whether this sequence repository stores its biological sequences in concurrent maps.
+     */
+    @Basic
+    @Immutable
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * Variable registering whether this sequence repository stores its biological sequences in concurrent maps.
+     */
+    private final boolean concurrent;
+
+    /**
+     * Return a new empty map, concurrent if this sequence repository is concurrent.
+     */
+    private <K, V> Map<K, V> newMap() {
+        return concurrent ? new ConcurrentHashMap<K, V>() : new HashMap<K, V>();
+    }
+
+    /**
+     * Return a new empty set of sequence identifiers, concurrent if this sequence repository is concurrent.
+     */
+    private Set<String> newIdSet() {
+        return concurrent ? ConcurrentHashMap.<String>newKeySet() : new HashSet<String>();
+    }
+
+    /**
+     * Return the lock serializing the additions and removals of biological sequences with the given sequence identifier.
+     */
+    private Object writeLockFor(String id) {
+        return writeLocks[stripeOf(id)];
+    }
+
+    /**
+     * Return the index of the lock serializing the additions and removals of biological sequences with the given
+     * sequence identifier.
+     */
+    private int stripeOf(String id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % writeLocks.length;
+    }
+
+    /**
+     * Variable referencing the locks on which additions and removals are striped by sequence identifier.
+     */
+    private final Object[] writeLocks = newLocks(64);
+
+    /**
+     * Return the given number of new lock objects.
+     */
+    private static Object[] newLocks(int number) {
+        Object[] locks = new Object[number];
+        for (int index = 0; index < number; index++)
+            locks[index] = new Object();
+        return locks;
     }
 
     /**
@@ -55,7 +143,11 @@ public class SequenceRepository extends Observable {
      */
     public void terminate() {
         if (!isTerminated) {
-            biologicalSequences = new HashMap<>();
+            biologicalSequences.clear();
+            idsByOrganism.clear();
+            idsByAlphabetType.clear();
+            kmerIndex = null;
+            searchEngine = null;
         }
         isTerminated = true;
     }
@@ -150,7 +242,6 @@ public class SequenceRepository extends Observable {
     public BiologicalSequence getBiologicalSequenceOf(String id) throws IllegalIdException {
         if (id == null) throw new IllegalIdException("The id cannot be null");
         if (id.isEmpty()) throw new IllegalIdException("The id cannot be empty");
-        if (!biologicalSequences.containsKey(id)) return null;
         return biologicalSequences.get(id);
     }
 
@@ -175,6 +266,8 @@ public class SequenceRepository extends Observable {
      *              | biologicalSequence == null
      * @throws The  given biological sequence is not referencing an effective sequence identifier.
      *              | biologicalSequence.getId() == null
+     * @throws The  given biological sequence is referencing an empty sequence identifier.
+     *              | biologicalSequence.getId().isEmpty()
      * @throws This sequence repository already includes a biological sequence of the
      *              sequence identifier involved in the given biological sequence.
      *              | hasBiologicalSequenceOf(biologicalSequence.getId())
@@ -185,11 +278,131 @@ public class SequenceRepository extends Observable {
     void addBiologicalSequence(@Raw BiologicalSequence biologicalSequence) throws IllegalBiologicalSequenceException, IllegalIdException {
         if (biologicalSequence == null)
             throw new IllegalBiologicalSequenceException("The biological sequence cannot be null");
-        if (biologicalSequence.getId() == null)
-            throw new IllegalIdException("The id cannot be null");
-        if (hasBiologicalSequenceOf(biologicalSequence.getId()))
-            throw new IllegalIdException("The id is already stored in this sequence repository");
-        biologicalSequences.put(biologicalSequence.getId(), biologicalSequence);
+        String id = biologicalSequence.getId();
+        if (id == null) throw new IllegalIdException("The id cannot be null");
+        if (id.isEmpty()) throw new IllegalIdException("The id cannot be empty");
+        if (writeAheadLog == null) {
+            addUnlogged(biologicalSequence);
+            return;
+        }
+        durabilityLock.readLock().lock();
+        try {
+            WriteAheadLog log = writeAheadLog;
+            WriteAheadLog.Batch commit = null;
+            synchronized (writeLockFor(id)) {
+                if (log != null) {
+                    if (biologicalSequences.containsKey(id))
+                        throw new IllegalIdException("The id is already stored in this sequence repository");
+                    commit = append(() -> log.appendAddition(biologicalSequence));
+                }
+                addUnlogged(biologicalSequence);
+            }
+            if (commit != null)
+                awaitCommit(log, commit);
+        } finally {
+            durabilityLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add the given biological sequence to the biological sequences registered in this sequence repository,
+     * without logging the addition.
+     *
+     * @param biologicalSequence The biological sequence to be added.
+     * @throws IllegalIdException This sequence repository already includes a biological sequence of the
+     *                            sequence identifier involved in the given biological sequence.
+     */
+    private void addUnlogged(BiologicalSequence biologicalSequence) throws IllegalIdException {
+        synchronized (writeLockFor(biologicalSequence.getId())) {
+            if (biologicalSequences.putIfAbsent(biologicalSequence.getId(), biologicalSequence) != null)
+                throw new IllegalIdException("The id is already stored in this sequence repository");
+            addToSecondaryIndexes(biologicalSequence);
+            KmerIndex index = kmerIndex;
+            if (index != null)
+                index.add(biologicalSequence);
+            SubstringSearchEngine engine = searchEngine;
+            if (engine != null)
+                engine.add(biologicalSequence);
+        }
+    }
+
+    /**
+     * Add all given biological sequences to the biological sequences stored in this sequence repository at once:
+     * either all of them are added, or none of them is.
+     * Duplicate sequence identifiers are detected in a single pass over the given biological sequences, the map of
+     * biological sequences grows at most once, the secondary indexes are updated once for each organism and type of
+     * alphabet, and a write-ahead log records the whole batch as one change.
+     *
+     * @param biologicalSequences The biological sequences to be added.
+     * @return The number of biological sequences added.
+     * @throws IllegalBiologicalSequenceException ("The biological sequence cannot be null")
+     *                                            | biologicalSequences.contains(null)
+     * @throws IllegalIdException                 A given biological sequence has an invalid sequence identifier, two given
+     *                                            biological sequences have the same sequence identifier, or this sequence
+     *                                            repository already includes a biological sequence of the sequence
+     *                                            identifier of a given biological sequence.
+     * @post | for each biologicalSequence in biologicalSequences: new.hasAsBiologicalSequence(biologicalSequence)
+     */
+    int addBiologicalSequences(Collection<BiologicalSequence> biologicalSequences)
+            throws IllegalBiologicalSequenceException, IllegalIdException {
+        final Map<String, BiologicalSequence> batch = new LinkedHashMap<>(Math.max(16, (int) (biologicalSequences.size() / 0.75f) + 1));
+        final boolean[] stripes = new boolean[writeLocks.length];
+        for (BiologicalSequence biologicalSequence : biologicalSequences) {
+            if (biologicalSequence == null)
+                throw new IllegalBiologicalSequenceException("The biological sequence cannot be null");
+            String id = biologicalSequence.getId();
+            if (id == null) throw new IllegalIdException("The id cannot be null");
+            if (id.isEmpty()) throw new IllegalIdException("The id cannot be empty");
+            if (batch.put(id, biologicalSequence) != null)
+                throw new IllegalIdException("The id " + id + " occurs more than once in the batch");
+            stripes[stripeOf(id)] = true;
+        }
+        if (batch.isEmpty()) return 0;
+        final boolean logged = writeAheadLog != null;
+        if (logged) durabilityLock.readLock().lock();
+        try {
+            WriteAheadLog log = writeAheadLog;
+            WriteAheadLog.Batch commit = addLocked(batch, stripes, 0);
+            if (commit != null)
+                awaitCommit(log, commit);
+        } finally {
+            if (logged) durabilityLock.readLock().unlock();
+        }
+        return batch.size();
+    }
+
+    /**
+     * Add the given batch of biological sequences while holding the given write locks from the given index on,
+     * acquiring them in ascending order so that concurrent batches cannot deadlock.
+     *
+     * @return The group commit of the write-ahead log holding the batch, or null if no write-ahead log is attached.
+     */
+    private WriteAheadLog.Batch addLocked(Map<String, BiologicalSequence> batch, boolean[] stripes, int stripe) throws IllegalIdException {
+        while (stripe < stripes.length && !stripes[stripe]) stripe++;
+        if (stripe < stripes.length) {
+            synchronized (writeLocks[stripe]) {
+                return addLocked(batch, stripes, stripe + 1);
+            }
+        }
+        for (String id : batch.keySet()) {
+            if (biologicalSequences.containsKey(id))
+                throw new IllegalIdException("The id " + id + " is already stored in this sequence repository");
+        }
+        WriteAheadLog log = writeAheadLog;
+        WriteAheadLog.Batch commit = log == null ? null : append(() -> log.appendAdditions(batch.values()));
+        biologicalSequences.putAll(batch);
+        addAllToSecondaryIndexes(batch.values());
+        KmerIndex index = kmerIndex;
+        if (index != null) {
+            for (BiologicalSequence biologicalSequence : batch.values())
+                index.add(biologicalSequence);
+        }
+        SubstringSearchEngine engine = searchEngine;
+        if (engine != null) {
+            for (BiologicalSequence biologicalSequence : batch.values())
+                engine.add(biologicalSequence);
+        }
+        return commit;
     }
 
     /**
@@ -208,9 +421,50 @@ public class SequenceRepository extends Observable {
     void removeBiologicalSequence(@Raw BiologicalSequence biologicalSequence) throws IllegalBiologicalSequenceException {
         if (!hasAsBiologicalSequence(biologicalSequence))
             throw new IllegalBiologicalSequenceException("The biological sequence is not a sequence of this sequence repository");
-        biologicalSequences.remove(biologicalSequence.getId());
-        setChanged();
-        notifyObservers(biologicalSequence);
+        if (writeAheadLog == null) {
+            removeUnlogged(biologicalSequence);
+        } else {
+            durabilityLock.readLock().lock();
+            try {
+                WriteAheadLog log = writeAheadLog;
+                WriteAheadLog.Batch commit = null;
+                synchronized (writeLockFor(biologicalSequence.getId())) {
+                    if (log != null) {
+                        if (biologicalSequences.get(biologicalSequence.getId()) != biologicalSequence)
+                            throw new IllegalBiologicalSequenceException("The biological sequence is not a sequence of this sequence repository");
+                        commit = append(() -> log.appendRemoval(biologicalSequence));
+                    }
+                    removeUnlogged(biologicalSequence);
+                }
+                if (commit != null)
+                    awaitCommit(log, commit);
+            } finally {
+                durabilityLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Remove the given biological sequence from the biological sequences registered in this sequence repository,
+     * without logging the removal.
+     *
+     * @param biologicalSequence The biological sequence to be removed.
+     * @throws IllegalBiologicalSequenceException The given biological sequence is not registered as one of the
+     *                                            biological sequences for this sequence repository.
+     */
+    private void removeUnlogged(BiologicalSequence biologicalSequence) throws IllegalBiologicalSequenceException {
+        synchronized (writeLockFor(biologicalSequence.getId())) {
+            if (!biologicalSequences.remove(biologicalSequence.getId(), biologicalSequence))
+                throw new IllegalBiologicalSequenceException("The biological sequence is not a sequence of this sequence repository");
+            removalLog.append(biologicalSequence.getId());
+            removeFromSecondaryIndexes(biologicalSequence);
+            KmerIndex index = kmerIndex;
+            if (index != null)
+                index.remove(biologicalSequence);
+            SubstringSearchEngine engine = searchEngine;
+            if (engine != null)
+                engine.remove(biologicalSequence);
+        }
     }
 
     /**
@@ -229,28 +483,426 @@ public class SequenceRepository extends Observable {
      * | (biologicalSequences.get(key).getSequenceRepository() == this) &&
      * | (biologicalSequences.get(key).getId().equals(key))
      */
-    private Map<String, BiologicalSequence> biologicalSequences = new HashMap<String, BiologicalSequence>();
+    private final Map<String, BiologicalSequence> biologicalSequences;
 
     /**
-     * Return a QueryResult object that contains the sequence identifiers of all biological sequences
-     * stored in this sequence repository for a given alphabet
+     * Return the write-ahead log to which the additions and removals of this sequence repository are appended,
+     * or null if they are not logged.
+     */
+    @Basic
+    public WriteAheadLog getWriteAheadLog() {
+        return writeAheadLog;
+    }
+
+    /**
+     * Append the additions and removals of this sequence repository to the given write-ahead log from now on, or
+     * stop logging them if the given write-ahead log is null. The write-ahead log should be attached right after the
+     * sequence repository is recovered, before it is changed concurrently.
+     * Each logged change is durable when its addition or removal returns; if it cannot be made durable, the change
+     * is not applied and an UncheckedIOException is thrown.
      *
-     * @param typeOfAlphabet the type of alphabet from which the biological sequence identiefiers must be retrieved
+     * @param writeAheadLog The write-ahead log to append the changes to.
+     * @post | new.getWriteAheadLog() == writeAheadLog
      */
-    public QueryResult getAllIds(Class<? extends Alphabet> typeOfAlphabet) throws QueryResultException, IllegalAlphabetException {
-        Set<String> idList = new HashSet<>();
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        durabilityLock.writeLock().lock();
+        try {
+            this.writeAheadLog = writeAheadLog;
+        } finally {
+            durabilityLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * An interface of appends of a change to a write-ahead log.
+     */
+    private interface Append {
+        WriteAheadLog.Batch append() throws IOException;
+    }
+
+    /**
+     * Append a change to the write-ahead log of this sequence repository with the given append, while the write lock
+     * of that change is held, so that the records of the changes of each sequence identifier are logged in the order
+     * in which the changes are made.
+     *
+     * @return The group commit holding the change.
+     * @throws UncheckedIOException The write-ahead log is closed, or a group commit of it failed.
+     */
+    private static WriteAheadLog.Batch append(Append append) throws UncheckedIOException {
+        try {
+            return append.append();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Wait until the given group commit of the given write-ahead log is durable, after the write lock of the change
+     * it holds has been released, so that writers of other changes can join that group commit meanwhile.
+     * If the group commit fails, the change remains made in this sequence repository without being durable, and
+     * the write-ahead log refuses further changes.
+     *
+     * @throws UncheckedIOException The group commit failed.
+     */
+    private static void awaitCommit(WriteAheadLog log, WriteAheadLog.Batch commit) throws UncheckedIOException {
+        try {
+            log.awaitCommit(commit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Variable referencing the write-ahead log to which the changes of this sequence repository are appended.
+     */
+    private volatile WriteAheadLog writeAheadLog;
+
+    /**
+     * Variable referencing the lock held shared by logged changes and exclusively by compactions, so that no logged
+     * change falls between a snapshot and the emptying of the write-ahead log.
+     */
+    private final ReadWriteLock durabilityLock = new ReentrantReadWriteLock();
+
+    /**
+     * Write a snapshot of this sequence repository to the given file and empty its write-ahead log, blocking the
+     * logged changes meanwhile.
+     *
+     * @param snapshotFile The file to write the snapshot to.
+     * @throws IllegalArgumentException ("No write-ahead log is attached")
+     *                                  | getWriteAheadLog() == null
+     * @throws IOException              The snapshot could not be written or the write-ahead log could not be emptied.
+     */
+    public void compactWriteAheadLog(Path snapshotFile) throws IllegalArgumentException, IOException {
+        durabilityLock.writeLock().lock();
+        try {
+            if (writeAheadLog == null)
+                throw new IllegalArgumentException("No write-ahead log is attached");
+            RepositorySnapshot.write(this, snapshotFile);
+            writeAheadLog.reset();
+        } finally {
+            durabilityLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Return an unmodifiable view of the biological sequences stored in this sequence repository.
+     * For a concurrent sequence repository, iterating the view is weakly consistent with concurrent changes.
+     */
+    Collection<BiologicalSequence> getBiologicalSequences() {
+        return Collections.unmodifiableCollection(biologicalSequences.values());
+    }
+
+    /**
+     * Register the given biological sequence in the secondary indexes of this sequence repository.
+     *
+     * @param biologicalSequence The biological sequence to register.
+     */
+    private void addToSecondaryIndexes(final BiologicalSequence biologicalSequence) {
+        final Class<? extends Alphabet> type = biologicalSequence.getAlphabet().getClass();
+        idsByOrganism.compute(organismKey(biologicalSequence.getOrganism()), (organism, idsByType) -> {
+            if (idsByType == null) idsByType = newMap();
+            addId(idsByType, type, biologicalSequence.getId());
+            return idsByType;
+        });
+        addId(idsByAlphabetType, type, biologicalSequence.getId());
+    }
+
+    /**
+     * Register the given biological sequences in the secondary indexes of this sequence repository, updating the
+     * set of each organism and type of alphabet once.
+     *
+     * @param biologicalSequences The biological sequences to register.
+     */
+    private void addAllToSecondaryIndexes(Collection<BiologicalSequence> biologicalSequences) {
+        Map<String, Map<Class<? extends Alphabet>, List<String>>> idsByOrganismAndType = new HashMap<>();
+        Map<Class<? extends Alphabet>, List<String>> idsByType = new HashMap<>();
+        for (BiologicalSequence biologicalSequence : biologicalSequences) {
+            Class<? extends Alphabet> type = biologicalSequence.getAlphabet().getClass();
+            idsByOrganismAndType.computeIfAbsent(organismKey(biologicalSequence.getOrganism()), organism -> new HashMap<>())
+                    .computeIfAbsent(type, key -> new ArrayList<>()).add(biologicalSequence.getId());
+            idsByType.computeIfAbsent(type, key -> new ArrayList<>()).add(biologicalSequence.getId());
+        }
+        for (final Map.Entry<String, Map<Class<? extends Alphabet>, List<String>>> entry : idsByOrganismAndType.entrySet()) {
+            idsByOrganism.compute(entry.getKey(), (organism, idsOfOrganism) -> {
+                if (idsOfOrganism == null) idsOfOrganism = newMap();
+                for (Map.Entry<Class<? extends Alphabet>, List<String>> ids : entry.getValue().entrySet())
+                    addIds(idsOfOrganism, ids.getKey(), ids.getValue());
+                return idsOfOrganism;
+            });
+        }
+        for (Map.Entry<Class<? extends Alphabet>, List<String>> ids : idsByType.entrySet())
+            addIds(idsByAlphabetType, ids.getKey(), ids.getValue());
+    }
+
+    /**
+     * Unregister the given biological sequence from the secondary indexes of this sequence repository.
+     *
+     * @param biologicalSequence The biological sequence to unregister.
+     */
+    private void removeFromSecondaryIndexes(final BiologicalSequence biologicalSequence) {
+        final Class<? extends Alphabet> type = biologicalSequence.getAlphabet().getClass();
+        idsByOrganism.computeIfPresent(organismKey(biologicalSequence.getOrganism()), (organism, idsByType) -> {
+            removeId(idsByType, type, biologicalSequence.getId());
+            return idsByType.isEmpty() ? null : idsByType;
+        });
+        removeId(idsByAlphabetType, type, biologicalSequence.getId());
+    }
+
+    /**
+     * Add the given sequence identifier to the set registered for the given type of alphabet in the given map,
+     * registering a new set first if there is none.
+     */
+    private void addId(Map<Class<? extends Alphabet>, Set<String>> idsByType, Class<? extends Alphabet> type, final String id) {
+        idsByType.compute(type, (key, ids) -> {
+            if (ids == null) ids = newIdSet();
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    /**
+     * Add the given sequence identifiers to the set registered for the given type of alphabet in the given map,
+     * registering a new set first if there is none.
+     */
+    private void addIds(Map<Class<? extends Alphabet>, Set<String>> idsByType, Class<? extends Alphabet> type, final Collection<String> ids) {
+        idsByType.compute(type, (key, set) -> {
+            if (set == null) set = newIdSet();
+            set.addAll(ids);
+            return set;
+        });
+    }
+
+    /**
+     * Remove the given sequence identifier from the set registered for the given type of alphabet in the given map,
+     * dropping that set once it is empty.
+     */
+    private static void removeId(Map<Class<? extends Alphabet>, Set<String>> idsByType, Class<? extends Alphabet> type, final String id) {
+        idsByType.computeIfPresent(type, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Return the key of the given organism in the organism index; concurrent maps do not accept null keys.
+     */
+    private static String organismKey(String organism) {
+        return organism == null ? NO_ORGANISM : organism;
+    }
+
+    /**
+     * Constant registering the key of the organism index for biological sequences without organism.
+     */
+    private static final String NO_ORGANISM = "\u0000";
+
+    /**
+     * Return the sequence identifiers registered in the given map for the types of alphabet that are the given
+     * type of alphabet or one of its subtypes.
+     */
+    private static Set<String> idsOfType(Map<Class<? extends Alphabet>, Set<String>> idsByType, Class<? extends Alphabet> typeOfAlphabet) {
+        Set<String> result = new HashSet<>();
+        for (Map.Entry<Class<? extends Alphabet>, Set<String>> entry : idsByType.entrySet()) {
+            if (typeOfAlphabet.isAssignableFrom(entry.getKey()))
+                result.addAll(entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Variable referencing a map collecting, for each organism, the sequence identifiers of the biological sequences
+     * of that organism stored in this sequence repository, for each type of alphabet.
+     *
+     * @invar Each set of sequence identifiers in the map is non-empty and holds exactly the sequence identifiers of
+     * the stored biological sequences of its organism and type of alphabet.
+     */
+    private final Map<String, Map<Class<? extends Alphabet>, Set<String>>> idsByOrganism;
+
+    /**
+     * Variable referencing a map collecting, for each type of alphabet, the sequence identifiers of the biological
+     * sequences of that type of alphabet stored in this sequence repository.
+     *
+     * @invar Each set of sequence identifiers in the map is non-empty and holds exactly the sequence identifiers of
+     * the stored biological sequences of its type of alphabet.
+     */
+    private final Map<Class<? extends Alphabet>, Set<String>> idsByAlphabetType;
+
+    /**
+     * Return the k-mer index of this sequence repository, or null if it has none.
+     */
+    @Basic
+    public KmerIndex getKmerIndex() {
+        return kmerIndex;
+    }
+
+    /**
+     * Build a k-mer index with the given k-mer length over all biological sequences stored in this sequence repository,
+     * and maintain it while biological sequences are added and removed.
+     * The new k-mer index is published before it is filled, so that no concurrent change is missed, but subsequence
+     * queries only use it once it holds all biological sequences.
+     *
+     * @param k The k-mer length of the new k-mer index.
+     * @throws IllegalArgumentException ("Illegal k-mer length")
+     *                                  The given k-mer length is not a valid k-mer length.
+     *                                  | ! KmerIndex.isValidK(k)
+     * @post This sequence repository has a k-mer index with the given k-mer length.
+     * | new.getKmerIndex().getK() == k
+     */
+    public void enableKmerIndex(int k) throws IllegalArgumentException {
+        KmerIndex index = new KmerIndex(k, false);
+        this.kmerIndex = index;
+        for (BiologicalSequence biologicalSequence : biologicalSequences.values()) {
+            index.add(biologicalSequence);
+        }
+        index.markComplete();
+    }
+
+    /**
+     * Drop the k-mer index of this sequence repository, if any.
+     *
+     * @post This sequence repository has no k-mer index.
+     * | new.getKmerIndex() == null
+     */
+    public void disableKmerIndex() {
+        this.kmerIndex = null;
+    }
+
+    /**
+     * Variable referencing the k-mer index of this sequence repository, or null if subsequence queries scan
+     * all biological sequences.
+     */
+    private volatile KmerIndex kmerIndex;
+
+    /**
+     * Return the substring search engine of this sequence repository, or null if it has none.
+     */
+    @Basic
+    public SubstringSearchEngine getSearchEngine() {
+        return searchEngine;
+    }
+
+    /**
+     * Build a substring search engine over all biological sequences stored in this sequence repository, which is
+     * rebuilt during subsequence queries once more biological sequences have been added or removed than the given
+     * rebuild threshold.
+     * The new substring search engine is published before it is built, so that no concurrent change is missed, but
+     * subsequence queries only use it once it has been built.
+     *
+     * @param rebuildThreshold The number of changes after which the substring search engine is rebuilt.
+     * @throws IllegalArgumentException ("Illegal rebuild threshold")
+     *                                  The given rebuild threshold is negative.
+     * @post This sequence repository has a substring search engine with the given rebuild threshold.
+     * | new.getSearchEngine().getRebuildThreshold() == rebuildThreshold
+     */
+    public void buildSearchEngine(int rebuildThreshold) throws IllegalArgumentException {
+        SubstringSearchEngine engine = new SubstringSearchEngine(rebuildThreshold);
+        this.searchEngine = engine;
+        engine.rebuild(biologicalSequences);
+    }
+
+    /**
+     * Drop the substring search engine of this sequence repository, if any.
+     *
+     * @post This sequence repository has no substring search engine.
+     * | new.getSearchEngine() == null
+     */
+    public void dropSearchEngine() {
+        this.searchEngine = null;
+    }
+
+    /**
+     * Return the sequence identifiers of the stored biological sequences of the given type of alphabet holding the
+     * given subsequence according to the substring search engine of this sequence repository, or null if this
+     * sequence repository has no built substring search engine or that engine cannot look up the given subsequence.
+     * If the substring search engine needs a rebuild, it is rebuilt on the query pool, while this and later queries
+     * are answered from its current FM-indexes and delta buffer until the new ones are swapped in.
+     */
+    private Set<String> lookUpInSearchEngine(String subsequence, Class<? extends Alphabet> typeOfAlphabet) {
+        SubstringSearchEngine engine = searchEngine;
+        if (engine == null || !engine.isComplete() || !engine.canLookUp(subsequence))
+            return null;
+        if (engine.needsRebuild())
+            engine.rebuildInBackground(biologicalSequences, queryPool);
+        Set<String> ids = engine.getIdsContaining(subsequence, typeOfAlphabet);
+        ids.retainAll(biologicalSequences.keySet());
+        return ids;
+    }
+
+    /**
+     * Variable referencing the substring search engine of this sequence repository, or null if it has none.
+     */
+    private volatile SubstringSearchEngine searchEngine;
+
+    /**
+     * Constant registering the number of biological sequences from which queries scan them in parallel.
+     */
+    public static final int PARALLEL_SCAN_THRESHOLD = 4096;
+
+    /**
+     * Return the fork/join pool running the parallel scans of this sequence repository.
+     */
+    @Basic
+    public ForkJoinPool getQueryPool() {
+        return queryPool;
+    }
+
+    /**
+     * Set the fork/join pool running the parallel scans of this sequence repository to the given pool.
+     *
+     * @param queryPool The new fork/join pool for parallel scans.
+     * @throws IllegalArgumentException ("The query pool cannot be null")
+     *                                  | queryPool == null
+     * @post The fork/join pool of this sequence repository is the given pool.
+     * | new.getQueryPool() == queryPool
+     */
+    public void setQueryPool(ForkJoinPool queryPool) throws IllegalArgumentException {
+        if (queryPool == null)
+            throw new IllegalArgumentException("The query pool cannot be null");
+        this.queryPool = queryPool;
+    }
 
-        for (String key : biologicalSequences.keySet()) {
-            if (typeOfAlphabet.isInstance(biologicalSequences.get(key).getAlphabet()))
-                idList.add(key);
+    /**
+     * Variable referencing the fork/join pool running the parallel scans of this sequence repository.
+     */
+    private ForkJoinPool queryPool = ForkJoinPool.commonPool();
+
+    /**
+     * Return the sequence identifiers of the given biological sequences satisfying the given filter.
+     * From PARALLEL_SCAN_THRESHOLD biological sequences on, the scan runs in the query pool of this sequence
+     * repository, each worker collecting into its own set and the sets being merged at the end.
+     *
+     * @param sequences The biological sequences to scan.
+     * @param filter    The condition on the biological sequences of which the sequence identifiers are collected.
+     */
+    private Set<String> collectIds(final Collection<BiologicalSequence> sequences, final Predicate<BiologicalSequence> filter) {
+        if (sequences.size() < PARALLEL_SCAN_THRESHOLD) {
+            Set<String> idList = new HashSet<>();
+            for (BiologicalSequence biologicalSequence : sequences) {
+                if (filter.test(biologicalSequence))
+                    idList.add(biologicalSequence.getId());
+            }
+            return idList;
         }
+        return queryPool.submit(() -> sequences.parallelStream().collect(HashSet<String>::new, (idList, biologicalSequence) -> {
+            if (filter.test(biologicalSequence))
+                idList.add(biologicalSequence.getId());
+        }, HashSet::addAll)).join();
+    }
 
-        return createQueryResultAndAddAsObserver(idList);
+    /**
+     * Return a QueryResult object that contains the sequence identifiers of all biological sequences
+     * stored in this sequence repository for a given alphabet.
+     * The sequence identifiers are looked up in the alphabet type index of this sequence repository.
+     *
+     * @param typeOfAlphabet the type of alphabet from which the biological sequence identiefiers must be retrieved
+     */
+    public QueryResult getAllIds(Class<? extends Alphabet> typeOfAlphabet) throws QueryResultException, IllegalAlphabetException {
+        return createQueryResult(() -> idsOfType(idsByAlphabetType, typeOfAlphabet));
     }
 
     /**
      * Return a QueryResult object that contains the sequence identifiers of all biological sequences
-     * from the given organism stored in this sequence repository for a given alphabet
+     * from the given organism stored in this sequence repository for a given alphabet.
+     * The sequence identifiers are looked up in the organism index of this sequence repository.
      *
      * @param organism the organism from which the biological sequence identiefiers must be retrieved
      * @param typeOfAlphabet the type of alphabet from which the biological sequence identiefiers must be retrieved
@@ -259,20 +911,20 @@ public class SequenceRepository extends Observable {
      * @throws QueryResultException
      */
     public QueryResult getIdsForOrganism(String organism, Class<? extends Alphabet> typeOfAlphabet) throws IllegalAlphabetException, QueryResultException {
-        Set<String> idList = new HashSet<>();
-
-        for (String key : this.biologicalSequences.keySet()) {
-            BiologicalSequence biologicalSequence = this.biologicalSequences.get(key);
-            if ((biologicalSequence.getOrganism()).equals(organism) && typeOfAlphabet.isInstance(biologicalSequence.getAlphabet()))
-                idList.add(biologicalSequence.getId());
-        }
-
-        return createQueryResultAndAddAsObserver(idList);
+        return createQueryResult(() -> {
+            Map<Class<? extends Alphabet>, Set<String>> idsByType = idsByOrganism.get(organismKey(organism));
+            return idsByType == null ? new HashSet<String>() : idsOfType(idsByType, typeOfAlphabet);
+        });
     }
 
     /**
      * Return a QueryResult object that contains the sequence identifiers of all biological sequences
-     * from the given subsequence stored in this sequence repository for a given alphabet
+     * from the given subsequence stored in this sequence repository for a given alphabet.
+     * If this sequence repository has a substring search engine, that engine answers the query unless the given
+     * subsequence holds the unknown nucleotide 'N'.
+     * Otherwise, if this sequence repository has a k-mer index, only the biological sequences holding all k-mers of the given
+     * subsequence are checked; subsequences shorter than the k-mer length fall back to checking all biological sequences.
+     * Large scans run in parallel in the query pool of this sequence repository.
      *
      * @param subsequence the subsequence from which the biological sequence identiefiers must be retrieved
      * @param typeOfAlphabet the type of alphabet from which the biological sequence identiefiers must be retrieved
@@ -282,38 +934,147 @@ public class SequenceRepository extends Observable {
      * @throws IllegalAlphabetException
      */
     public QueryResult getIdsForSubsequence(String subsequence, Class<? extends Alphabet> typeOfAlphabet) throws QueryResultException, IllegalNucleotideSequenceException, IllegalAlphabetException {
-        Set<String> idList = new HashSet<>();
+        return createQueryResult(() -> idsForSubsequence(subsequence, typeOfAlphabet));
+    }
 
-        for (String key : this.biologicalSequences.keySet()) {
-            BiologicalSequence biologicalSequence = this.biologicalSequences.get(key);
-            if (biologicalSequence.containsSubsequence(subsequence) && typeOfAlphabet.isInstance(biologicalSequence.getAlphabet()))
-                idList.add(biologicalSequence.getId());
+    /**
+     * Return the sequence identifiers of the biological sequences of the given type of alphabet stored in this
+     * sequence repository that hold the given subsequence.
+     */
+    private Set<String> idsForSubsequence(String subsequence, Class<? extends Alphabet> typeOfAlphabet) {
+        Set<String> indexed = lookUpInSearchEngine(subsequence, typeOfAlphabet);
+        if (indexed != null)
+            return indexed;
+
+        Set<String> candidates = null;
+        KmerIndex index = kmerIndex;
+        if (index != null && index.isComplete())
+            candidates = index.getCandidates(subsequence, typeOfAlphabet);
+        Collection<BiologicalSequence> sequences = biologicalSequences.values();
+
+        if (candidates != null) {
+            List<BiologicalSequence> candidateSequences = new ArrayList<>(candidates.size());
+            for (String key : candidates) {
+                BiologicalSequence biologicalSequence = biologicalSequences.get(key);
+                if (biologicalSequence != null)
+                    candidateSequences.add(biologicalSequence);
+            }
+            sequences = candidateSequences;
         }
+        return collectIds(sequences, biologicalSequence ->
+                typeOfAlphabet.isInstance(biologicalSequence.getAlphabet()) && biologicalSequence.getPackedNucleotideSequence().contains(subsequence));
+    }
 
-        return createQueryResultAndAddAsObserver(idList);
+    /**
+     * Return the matches of the given pattern with at most the given number of errors, counted as edit distance,
+     * in the biological sequences of the given type of alphabet stored in this sequence repository.
+     *
+     * @param pattern        The pattern to locate, of at most ApproximateMatcher.MAX_PATTERN_LENGTH nucleotides.
+     * @param maxErrors      The maximal number of errors of a match.
+     * @param typeOfAlphabet The type of alphabet of the biological sequences to look in.
+     * @effect | result == locateApproximately(pattern, maxErrors, ApproximateMatcher.Distance.EDIT, typeOfAlphabet)
+     */
+    public List<SequenceMatch> locateApproximately(String pattern, int maxErrors, Class<? extends Alphabet> typeOfAlphabet)
+            throws IllegalArgumentException {
+        return locateApproximately(pattern, maxErrors, ApproximateMatcher.Distance.EDIT, typeOfAlphabet);
     }
 
     /**
-     * Initialize a QueryResult object as a list of the sequence identifiers and add the QueryResult as observer of this
-     * sequence repository.
+     * Return the matches of the given pattern with at most the given number of errors in the biological sequences of
+     * the given type of alphabet stored in this sequence repository, sorted by sequence identifier and position.
+     * Each biological sequence is scanned by a bit-parallel approximate matcher for its alphabet; biological sequences
+     * of an alphabet for which the given pattern holds an invalid symbol have no matches.
+     * Large scans run in parallel in the query pool of this sequence repository.
+     *
+     * @param pattern        The pattern to locate, of at most ApproximateMatcher.MAX_PATTERN_LENGTH nucleotides.
+     * @param maxErrors      The maximal number of errors of a match.
+     * @param distance       The distance counting the errors of a match.
+     * @param typeOfAlphabet The type of alphabet of the biological sequences to look in.
+     * @throws IllegalArgumentException ("Illegal pattern length")
+     *                                  | pattern == null || ! ApproximateMatcher.isValidPatternLength(pattern.length())
+     * @throws IllegalArgumentException ("Illegal number of errors")
+     *                                  | ! ApproximateMatcher.isValidNumberOfErrors(maxErrors, pattern.length())
+     * @throws IllegalArgumentException ("The distance cannot be null")
+     *                                  | distance == null
+     * @see ApproximateMatcher#locateIn(BiologicalSequence)
+     */
+    public List<SequenceMatch> locateApproximately(final String pattern, final int maxErrors, final ApproximateMatcher.Distance distance,
+                                                   final Class<? extends Alphabet> typeOfAlphabet) throws IllegalArgumentException {
+        if (pattern == null || !ApproximateMatcher.isValidPatternLength(pattern.length()))
+            throw new IllegalArgumentException("Illegal pattern length");
+        if (!ApproximateMatcher.isValidNumberOfErrors(maxErrors, pattern.length()))
+            throw new IllegalArgumentException("Illegal number of errors");
+        if (distance == null)
+            throw new IllegalArgumentException("The distance cannot be null");
+        final Map<Class<? extends Alphabet>, Optional<ApproximateMatcher>> matchers = new ConcurrentHashMap<>();
+        final Collection<BiologicalSequence> sequences = biologicalSequences.values();
+        List<SequenceMatch> matches;
+        if (sequences.size() < PARALLEL_SCAN_THRESHOLD) {
+            matches = new ArrayList<>();
+            for (BiologicalSequence biologicalSequence : sequences)
+                addApproximateMatches(matches, biologicalSequence, matchers, pattern, maxErrors, distance, typeOfAlphabet);
+        } else {
+            matches = queryPool.submit(() -> sequences.parallelStream().collect(ArrayList<SequenceMatch>::new, (found, biologicalSequence) ->
+                    addApproximateMatches(found, biologicalSequence, matchers, pattern, maxErrors, distance, typeOfAlphabet), ArrayList::addAll)).join();
+        }
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * Add the matches of the given pattern in the given biological sequence to the given matches, if the biological
+     * sequence has the given type of alphabet, creating the approximate matcher for its alphabet if needed.
+     */
+    private static void addApproximateMatches(List<SequenceMatch> matches, BiologicalSequence biologicalSequence,
+                                              Map<Class<? extends Alphabet>, Optional<ApproximateMatcher>> matchers, String pattern,
+                                              int maxErrors, ApproximateMatcher.Distance distance, Class<? extends Alphabet> typeOfAlphabet) {
+        final Alphabet alphabet = biologicalSequence.getAlphabet();
+        if (!typeOfAlphabet.isInstance(alphabet)) return;
+        Optional<ApproximateMatcher> matcher = matchers.computeIfAbsent(alphabet.getClass(), type -> {
+            try {
+                return Optional.of(new ApproximateMatcher(pattern, alphabet, maxErrors, distance));
+            } catch (IllegalNucleotideSequenceException e) {
+                return Optional.empty();
+            }
+        });
+        if (matcher.isPresent())
+            matches.addAll(matcher.get().locateIn(biologicalSequence));
+    }
+
+    /**
+     * Initialize a QueryResult object with the sequence identifiers computed by the given query. The query result
+     * reads the removal log of this sequence repository from before the query on, so that it drops the sequence
+     * identifiers of biological sequences removed during or after the query when it is read.
+     * Removals cost the same however many query results are outstanding, and query results that are no longer
+     * referenced are garbage collected.
      *
-     * @param idList the list of biological sequence identifiers for which a QueryResult object will be created
+     * @param query the query computing the biological sequence identifiers for which a QueryResult object will be created
      *
      * @throws QueryResultException
      */
-    private QueryResult createQueryResultAndAddAsObserver(Set<String> idList) throws QueryResultException {
-        QueryResult queryResult = new QueryResult(idList);
-        this.addObserver(queryResult);
-        return queryResult;
+    private QueryResult createQueryResult(Supplier<Set<String>> query) throws QueryResultException {
+        return new QueryResult(removalLog, query);
     }
 
+    /**
+     * Return the removal log of this sequence repository.
+     */
+    @Basic
+    RemovalLog getRemovalLog() {
+        return removalLog;
+    }
+
+    /**
+     * Variable referencing the log of the sequence identifiers removed from this sequence repository.
+     */
+    private final RemovalLog removalLog = new RemovalLog();
+
     /**
      * Terminate the given query result as it is no longer needed.
      *
      * @param queryResult the QueryResult object that need to be terminated
      */
     public void terminateQueryResult(QueryResult queryResult) {
-        deleteObserver(queryResult);
         queryResult.terminate();
     }
 }
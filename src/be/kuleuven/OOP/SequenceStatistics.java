@@ -0,0 +1,152 @@
+package be.kuleuven.OOP;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of immutable statistics of a packed nucleotide sequence: its length, its composition, its GC content
+ * and the set of symbols it holds. The statistics are computed in one pass when they are created.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class SequenceStatistics {
+
+    /**
+     * Initialize these new statistics of the given packed nucleotide sequence.
+     *
+     * @param nucleotides The packed nucleotide sequence to compute the statistics of.
+     */
+    SequenceStatistics(PackedNucleotideSequence nucleotides) {
+        this.source = nucleotides;
+        Alphabet alphabet = nucleotides.getAlphabet();
+        this.validSymbols = alphabet.getValidSymbols();
+        int[] counts = nucleotides.getCodeCounts();
+        this.composition = new int[validSymbols.length()];
+        Set<Character> symbols = new TreeSet<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                composition[alphabet.indexOfCode(code)] = counts[code];
+                symbols.add(alphabet.decode(code));
+            }
+        }
+        this.nucleotides = Collections.unmodifiableSet(symbols);
+        this.length = nucleotides.length();
+        int known = length - counts[PackedNucleotideSequence.N_CODE];
+        int gc = countOf(alphabet, counts, 'G') + countOf(alphabet, counts, 'C');
+        this.gcContent = known == 0 ? 0.0 : (double) gc / known;
+    }
+
+    /**
+     * Return the count of the given symbol in the given code counts, or zero if the given alphabet lacks it.
+     */
+    private static int countOf(Alphabet alphabet, int[] counts, char symbol) {
+        byte code = alphabet.encode(symbol);
+        return code < 0 || code == PackedNucleotideSequence.N_CODE ? 0 : counts[code];
+    }
+
+    /**
+     * Return the packed nucleotide sequence of which these are the statistics.
+     */
+    @Basic
+    @Immutable
+    PackedNucleotideSequence getSource() {
+        return source;
+    }
+
+    /**
+     * Variable referencing the packed nucleotide sequence of which these are the statistics.
+     */
+    private final PackedNucleotideSequence source;
+
+    /**
+     * Return the number of nucleotides.
+     */
+    @Basic
+    @Immutable
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Variable registering the number of nucleotides.
+     */
+    private final int length;
+
+    /**
+     * Return the composition of the nucleotides.
+     *
+     * @return An array holding, for each valid symbol of the alphabet, the number of times it occurs,
+     * indexed by the position of that symbol in the valid symbols.
+     */
+    public int[] getComposition() {
+        return composition.clone();
+    }
+
+    /**
+     * Store the composition of the nucleotides in the given array.
+     *
+     * @param composition The array to store the composition in.
+     * @return The given array.
+     * @throws IllegalArgumentException ("Illegal composition array")
+     *                                  The given array cannot hold a count for each valid symbol.
+     */
+    public int[] getComposition(int[] composition) throws IllegalArgumentException {
+        if (composition == null || composition.length < this.composition.length)
+            throw new IllegalArgumentException("Illegal composition array");
+        System.arraycopy(this.composition, 0, composition, 0, this.composition.length);
+        return composition;
+    }
+
+    /**
+     * Variable referencing the composition of the nucleotides, indexed by the position of each symbol in the valid symbols.
+     */
+    private final int[] composition;
+
+    /**
+     * Variable registering the valid symbols of the alphabet of the nucleotides.
+     */
+    private final String validSymbols;
+
+    /**
+     * Return the number of times the given symbol occurs.
+     *
+     * @param symbol The symbol to count, in the case of the valid symbols of the alphabet.
+     * @return Zero if the given symbol is not one of the valid symbols of the alphabet.
+     */
+    public int getNumberOf(char symbol) {
+        int index = validSymbols.indexOf(symbol);
+        return index < 0 ? 0 : composition[index];
+    }
+
+    /**
+     * Return the fraction of the known nucleotides that are 'G' or 'C', or zero if there are no known nucleotides.
+     */
+    @Basic
+    @Immutable
+    public double getGcContent() {
+        return gcContent;
+    }
+
+    /**
+     * Variable registering the fraction of the known nucleotides that are 'G' or 'C'.
+     */
+    private final double gcContent;
+
+    /**
+     * Return the symbols occurring in the nucleotides, in sorted order.
+     */
+    @Basic
+    @Immutable
+    public Set<Character> getNucleotides() {
+        return nucleotides;
+    }
+
+    /**
+     * Variable referencing the unmodifiable sorted set of the symbols occurring in the nucleotides.
+     */
+    private final Set<Character> nucleotides;
+}
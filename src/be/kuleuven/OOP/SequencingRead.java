@@ -0,0 +1,180 @@
+package be.kuleuven.OOP;
+
+import java.util.Arrays;
+
+import be.kuleuven.OOP.exceptions.*;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of sequencing reads, being biological sequences with a Phred quality score for each of their nucleotides.
+ * The quality scores are stored as one byte per nucleotide, holding the score itself rather than its ASCII encoding.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ * @invar Each sequencing read has a quality score for each of its nucleotides.
+ * | getQualities().length == getNucleotideSequenceLength()
+ */
+public class SequencingRead extends BiologicalSequence {
+
+    /**
+     * Constant registering the highest quality score that can be encoded in a FASTQ file.
+     */
+    public static final int MAX_QUALITY = 93;
+
+    /**
+     * Constant registering the offset of the quality scores in the Sanger (Phred+33) encoding.
+     */
+    public static final int PHRED_OFFSET = 33;
+
+    /**
+     * Initialize this new sequencing read with given sequence identifier, given nucleotides, given alphabet and
+     * given quality scores.
+     *
+     * @param id                 The sequence identifier for this new sequencing read.
+     * @param nucleotideSequence The nucleotides of this new sequencing read.
+     * @param alphabet           The alphabet corresponding to this new sequencing read.
+     * @param qualities          The quality score of each nucleotide of this new sequencing read.
+     * @throws IllegalArgumentException ("Illegal qualities")
+     *                                  The given quality scores do not match the given nucleotides one by one, or
+     *                                  are not all between 0 and MAX_QUALITY.
+     * @effect | super(id, "unknown", nucleotideSequence, alphabet)
+     * @post | Arrays.equals(new.getQualities(), qualities)
+     */
+    @Raw
+    public SequencingRead(String id, String nucleotideSequence, Alphabet alphabet, byte[] qualities)
+            throws IllegalIdException, IllegalNucleotideSequenceException, IllegalAlphabetException, IllegalArgumentException {
+        super(id, "unknown", nucleotideSequence, alphabet);
+        if (!areValidQualities(qualities, nucleotideSequence.length()))
+            throw new IllegalArgumentException("Illegal qualities");
+        this.qualities = qualities.clone();
+    }
+
+    /**
+     * Initialize this new sequencing read with given sequence identifier, given packed nucleotides, given alphabet
+     * and given quality scores, without validating the nucleotides or copying the quality scores.
+     *
+     * @param id                 The sequence identifier for this new sequencing read.
+     * @param nucleotideSequence The packed nucleotides of this new sequencing read.
+     * @param alphabet           The alphabet corresponding to this new sequencing read.
+     * @param qualities          The quality score of each nucleotide of this new sequencing read, which is not
+     *                           modified afterwards.
+     * @effect | super(id, "unknown", nucleotideSequence, alphabet)
+     */
+    @Raw
+    SequencingRead(String id, PackedNucleotideSequence nucleotideSequence, Alphabet alphabet, byte[] qualities)
+            throws IllegalIdException {
+        super(id, "unknown", nucleotideSequence, alphabet);
+        this.qualities = qualities;
+    }
+
+    /**
+     * Check whether the given quality scores are valid quality scores for the given number of nucleotides.
+     *
+     * @param qualities The quality scores to check.
+     * @param length    The number of nucleotides.
+     * @return | result == (qualities != null && qualities.length == length &&
+     * | for each quality in qualities: 0 <= quality <= MAX_QUALITY)
+     */
+    public static boolean areValidQualities(byte[] qualities, int length) {
+        if (qualities == null || qualities.length != length) return false;
+        for (byte quality : qualities) {
+            if (quality < 0 || quality > MAX_QUALITY) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Return the quality score of the nucleotide at the given position of this sequencing read.
+     *
+     * @param position The position of the nucleotide.
+     * @throws IndexOutOfBoundsException The given position is not a position of this sequencing read.
+     */
+    public int getQualityAt(int position) throws IndexOutOfBoundsException {
+        return qualities[position];
+    }
+
+    /**
+     * Return a copy of the quality scores of this sequencing read.
+     */
+    @Basic
+    public byte[] getQualities() {
+        return qualities.clone();
+    }
+
+    /**
+     * Return the quality scores of this sequencing read in the Sanger (Phred+33) encoding of FASTQ files.
+     *
+     * @return | for each position in 0..getNucleotideSequenceLength()-1:
+     * | result.charAt(position) == (char) (getQualityAt(position) + PHRED_OFFSET)
+     */
+    public String getQualityString() {
+        char[] symbols = new char[qualities.length];
+        for (int position = 0; position < qualities.length; position++)
+            symbols[position] = (char) (qualities[position] + PHRED_OFFSET);
+        return new String(symbols);
+    }
+
+    /**
+     * Return the mean quality score of this sequencing read, or 0 if it has no nucleotides.
+     */
+    public double getMeanQuality() {
+        return qualities.length == 0 ? 0.0 : (double) sumOf(qualities, qualities.length) / qualities.length;
+    }
+
+    /**
+     * Variable referencing the quality scores of this sequencing read.
+     */
+    private final byte[] qualities;
+
+    /**
+     * Return this sequencing read with its low-quality 3' end trimmed off.
+     *
+     * @param threshold The quality score below which nucleotides are considered to be of low quality.
+     * @return This sequencing read if nothing is trimmed, or a new sequencing read with the same sequence
+     * identifier, holding the nucleotides and quality scores up to the trim position of this sequencing read.
+     * | result.getNucleotideSequenceLength() == trimPosition(getQualities(), getNucleotideSequenceLength(), threshold)
+     */
+    public SequencingRead trimQuality(int threshold) {
+        int length = trimPosition(qualities, qualities.length, threshold);
+        if (length == qualities.length) return this;
+        PackedNucleotideSequence.Builder builder = new PackedNucleotideSequence.Builder(getAlphabet(), length);
+        builder.appendRange(getPackedNucleotideSequence(), 0, length);
+        try {
+            return new SequencingRead(getId(), builder.build(), getAlphabet(), Arrays.copyOf(qualities, length));
+        } catch (IllegalIdException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Return the number of leading nucleotides kept when trimming the low-quality 3' end of the given quality scores.
+     * The trim position maximizes the sum of threshold - quality over the trimmed nucleotides, as done by BWA: scanning
+     * from the 3' end, the scan stops as soon as that sum drops below zero.
+     *
+     * @param qualities The quality scores.
+     * @param length    The number of quality scores to consider.
+     * @param threshold The quality score below which nucleotides are considered to be of low quality.
+     */
+    static int trimPosition(byte[] qualities, int length, int threshold) {
+        int sum = 0, best = 0, position = length;
+        for (int index = length - 1; index >= 0; index--) {
+            sum += threshold - qualities[index];
+            if (sum < 0) break;
+            if (sum > best) {
+                best = sum;
+                position = index;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Return the sum of the given number of leading quality scores.
+     */
+    static long sumOf(byte[] qualities, int length) {
+        long sum = 0;
+        for (int index = 0; index < length; index++)
+            sum += qualities[index];
+        return sum;
+    }
+}
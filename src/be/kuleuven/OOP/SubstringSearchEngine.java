@@ -0,0 +1,427 @@
+package be.kuleuven.OOP;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of substring search engines answering subsequence queries over the biological sequences of a sequence
+ * repository with an FM-index for each type of alphabet.
+ * Biological sequences added after the last build are kept in a delta buffer that is searched directly, and
+ * biological sequences removed after the last build are filtered from the results, until the next rebuild.
+ * The FM-indexes and their delta buffer form a generation, published through a volatile field: lookups read the
+ * current generation without locking, since its FM-indexes never change and its delta buffer is held in concurrent
+ * collections. A rebuild indexes a copy of the biological sequences off to the side, possibly in the background, and
+ * then swaps in the new generation, handing the changes made during the rebuild over to its delta buffer.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class SubstringSearchEngine {
+
+    /**
+     * Constant registering the default number of changes after which a rebuild is needed.
+     */
+    public static final int DEFAULT_REBUILD_THRESHOLD = 1024;
+
+    /**
+     * Initialize this new substring search engine over the given biological sequences.
+     *
+     * @param biologicalSequences The biological sequences to index.
+     * @param rebuildThreshold    The number of changes after which this new engine needs a rebuild.
+     * @throws IllegalArgumentException ("Illegal rebuild threshold")
+     *                                  The given rebuild threshold is negative.
+     */
+    public SubstringSearchEngine(Collection<BiologicalSequence> biologicalSequences, int rebuildThreshold) throws IllegalArgumentException {
+        this(rebuildThreshold);
+        rebuild(biologicalSequences);
+    }
+
+    /**
+     * Initialize this new substring search engine without biological sequences, as an incomplete engine that
+     * registers changes but cannot answer lookups until it is rebuilt.
+     *
+     * @param rebuildThreshold The number of changes after which this new engine needs a rebuild.
+     * @throws IllegalArgumentException ("Illegal rebuild threshold")
+     *                                  The given rebuild threshold is negative.
+     * @post | ! new.isComplete()
+     */
+    SubstringSearchEngine(int rebuildThreshold) throws IllegalArgumentException {
+        if (rebuildThreshold < 0)
+            throw new IllegalArgumentException("Illegal rebuild threshold");
+        this.rebuildThreshold = rebuildThreshold;
+        this.generation = new Generation(new HashMap<Class<? extends Alphabet>, FmIndex>(), new HashMap<String, BiologicalSequence>());
+    }
+
+    /**
+     * Rebuild the FM-indexes of this substring search engine over the given biological sequences,
+     * and empty its delta buffer. Changes registered while the FM-indexes are built are lost.
+     *
+     * @param biologicalSequences The biological sequences to index.
+     * @post This substring search engine does not need a rebuild.
+     * | ! new.needsRebuild()
+     */
+    public void rebuild(Collection<BiologicalSequence> biologicalSequences) {
+        Map<String, BiologicalSequence> indexed = new HashMap<>();
+        for (BiologicalSequence biologicalSequence : biologicalSequences)
+            indexed.put(biologicalSequence.getId(), biologicalSequence);
+        Generation next = index(indexed);
+        changeLock.writeLock().lock();
+        try {
+            generation = next;
+            complete = true;
+        } finally {
+            changeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the FM-indexes of this substring search engine over a copy of the given map of biological sequences,
+     * which may be changed meanwhile as long as each change is registered in this substring search engine after it
+     * is made in the map.
+     * The FM-indexes are built without blocking lookups or changes; only the swap of the generations blocks changes,
+     * while the biological sequences changed since the last build are compared with those indexed.
+     *
+     * @param biologicalSequences The map of the biological sequences to index by sequence identifier.
+     * @post | new.isComplete()
+     */
+    void rebuild(Map<String, BiologicalSequence> biologicalSequences) {
+        install(index(new HashMap<>(biologicalSequences)));
+    }
+
+    /**
+     * Rebuild this substring search engine over a copy of the given map of biological sequences with the given
+     * executor, unless it is being rebuilt already.
+     * The copy is taken in the calling thread, so that the given map need not be safe for concurrent access;
+     * lookups keep being answered from the current generation and its delta buffer until the new generation is
+     * swapped in.
+     *
+     * @param biologicalSequences The map of the biological sequences to index by sequence identifier.
+     * @param executor            The executor to build the FM-indexes with.
+     * @return True if and only if a rebuild has been started.
+     * @see #rebuild(Map)
+     */
+    boolean rebuildInBackground(Map<String, BiologicalSequence> biologicalSequences, Executor executor) {
+        if (!rebuilding.compareAndSet(false, true))
+            return false;
+        try {
+            final Map<String, BiologicalSequence> indexed = new HashMap<>(biologicalSequences);
+            executor.execute(() -> {
+                try {
+                    install(index(indexed));
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+            return true;
+        } catch (RuntimeException exc) {
+            rebuilding.set(false);
+            throw exc;
+        }
+    }
+
+    /**
+     * Swap in the given generation, handing the changes registered in the current generation over to the delta
+     * buffer of the given generation.
+     * The biological sequence now stored under a changed sequence identifier is the one in the recent additions of
+     * the current generation, if any, since each change is registered in the generation it is made in.
+     *
+     * @param next The generation to swap in.
+     */
+    private void install(Generation next) {
+        changeLock.writeLock().lock();
+        try {
+            Generation previous = generation;
+            for (String id : previous.changedIds) {
+                BiologicalSequence stored = previous.recentAdditions.get(id), indexed = next.indexed.get(id);
+                if (stored == indexed) continue;
+                if (indexed != null) next.removedIds.add(id);
+                if (stored != null) next.recentAdditions.put(id, stored);
+                next.changedIds.add(id);
+            }
+            generation = next;
+            complete = true;
+        } finally {
+            changeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Return a new generation with an FM-index for each type of alphabet of the given biological sequences, and
+     * an empty delta buffer.
+     *
+     * @param indexed The biological sequences to index by sequence identifier, which is not modified afterwards.
+     */
+    private static Generation index(Map<String, BiologicalSequence> indexed) {
+        Map<Class<? extends Alphabet>, List<BiologicalSequence>> sequencesByType = new HashMap<>();
+        for (BiologicalSequence biologicalSequence : indexed.values()) {
+            Class<? extends Alphabet> type = biologicalSequence.getAlphabet().getClass();
+            if (!sequencesByType.containsKey(type))
+                sequencesByType.put(type, new ArrayList<BiologicalSequence>());
+            sequencesByType.get(type).add(biologicalSequence);
+        }
+        Map<Class<? extends Alphabet>, FmIndex> indexes = new HashMap<>();
+        for (Map.Entry<Class<? extends Alphabet>, List<BiologicalSequence>> entry : sequencesByType.entrySet()) {
+            indexes.put(entry.getKey(), new FmIndex(entry.getValue().get(0).getAlphabet(), entry.getValue()));
+        }
+        return new Generation(indexes, indexed);
+    }
+
+    /**
+     * A class of generations of a substring search engine, holding the FM-indexes of one build and the delta
+     * buffer of the changes registered since that build.
+     */
+    private static final class Generation {
+
+        Generation(Map<Class<? extends Alphabet>, FmIndex> indexes, Map<String, BiologicalSequence> indexed) {
+            this.indexes = indexes;
+            this.indexed = indexed;
+        }
+
+        /**
+         * Variable referencing a map collecting the FM-index of each type of alphabet.
+         */
+        private final Map<Class<? extends Alphabet>, FmIndex> indexes;
+
+        /**
+         * Variable referencing a map collecting the indexed biological sequences by sequence identifier.
+         */
+        private final Map<String, BiologicalSequence> indexed;
+
+        /**
+         * Variable referencing a map collecting the biological sequences added since the build.
+         */
+        private final Map<String, BiologicalSequence> recentAdditions = new ConcurrentHashMap<>();
+
+        /**
+         * Variable referencing the sequence identifiers of the indexed biological sequences removed since the build.
+         * Indexed matches of these sequence identifiers are outdated; biological sequences added again with the same
+         * sequence identifier are searched in the delta buffer.
+         */
+        private final Set<String> removedIds = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Variable referencing the sequence identifiers of all biological sequences added or removed since the build,
+         * including those added and removed again.
+         */
+        private final Set<String> changedIds = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Variable referencing the current generation of this substring search engine.
+     */
+    private volatile Generation generation;
+
+    /**
+     * Variable referencing the lock held shared while changes are registered, and exclusively while generations
+     * are swapped, so that no change is registered in a generation that is being replaced.
+     */
+    private final ReadWriteLock changeLock = new ReentrantReadWriteLock();
+
+    /**
+     * Variable registering whether a thread is rebuilding this substring search engine.
+     */
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * Check whether this substring search engine has been built over all biological sequences of its repository.
+     */
+    @Basic
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Variable registering whether this substring search engine has been built over all biological sequences of
+     * its repository.
+     */
+    private volatile boolean complete;
+
+    /**
+     * Register the addition of the given biological sequence to the repository of this substring search engine.
+     * An addition that is already indexed, because it was made while the current generation was built, is ignored.
+     *
+     * @param biologicalSequence The added biological sequence.
+     */
+    public void add(BiologicalSequence biologicalSequence) {
+        String id = biologicalSequence.getId();
+        changeLock.readLock().lock();
+        try {
+            Generation current = generation;
+            if (current.indexed.get(id) == biologicalSequence && !current.removedIds.contains(id))
+                return;
+            current.recentAdditions.put(id, biologicalSequence);
+            current.changedIds.add(id);
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Register the removal of the given biological sequence from the repository of this substring search engine.
+     *
+     * @param biologicalSequence The removed biological sequence.
+     */
+    public void remove(BiologicalSequence biologicalSequence) {
+        String id = biologicalSequence.getId();
+        changeLock.readLock().lock();
+        try {
+            Generation current = generation;
+            current.recentAdditions.remove(id);
+            if (current.indexed.containsKey(id))
+                current.removedIds.add(id);
+            current.changedIds.add(id);
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Return the number of changes after which this substring search engine needs a rebuild.
+     */
+    @Basic
+    @Immutable
+    public int getRebuildThreshold() {
+        return rebuildThreshold;
+    }
+
+    /**
+     * Variable registering the number of changes after which this substring search engine needs a rebuild.
+     */
+    private final int rebuildThreshold;
+
+    /**
+     * Check whether this substring search engine needs a rebuild.
+     *
+     * @return True if and only if the number of additions and removals since the last build exceeds the rebuild threshold.
+     * | result == (getNbChanges() > getRebuildThreshold())
+     */
+    public boolean needsRebuild() {
+        return getNbChanges() > rebuildThreshold;
+    }
+
+    /**
+     * Return the number of additions and removals since the last build.
+     */
+    public int getNbChanges() {
+        Generation current = generation;
+        return current.recentAdditions.size() + current.removedIds.size();
+    }
+
+    /**
+     * Check whether the given pattern can be looked up in this substring search engine.
+     *
+     * @param pattern The pattern to check.
+     * @return True if and only if the given pattern is not empty and does not hold the unknown nucleotide 'N'.
+     */
+    public boolean canLookUp(String pattern) {
+        return !pattern.isEmpty() && pattern.indexOf('N') < 0 && pattern.indexOf('n') < 0;
+    }
+
+    /**
+     * Return the sequence identifiers of the biological sequences of the given type of alphabet holding the given pattern.
+     *
+     * @param pattern        The pattern to look for.
+     * @param typeOfAlphabet The type of alphabet of the biological sequences to look in.
+     * @throws IllegalArgumentException ("The pattern cannot be looked up")
+     *                                  | ! canLookUp(pattern)
+     */
+    public Set<String> getIdsContaining(String pattern, Class<? extends Alphabet> typeOfAlphabet) throws IllegalArgumentException {
+        if (!canLookUp(pattern))
+            throw new IllegalArgumentException("The pattern cannot be looked up");
+        Generation current = generation;
+        Set<String> result = new HashSet<>();
+        for (Map.Entry<Class<? extends Alphabet>, FmIndex> entry : current.indexes.entrySet()) {
+            if (typeOfAlphabet.isAssignableFrom(entry.getKey()))
+                result.addAll(entry.getValue().getIdsContaining(pattern));
+        }
+        result.removeAll(current.removedIds);
+        for (BiologicalSequence biologicalSequence : current.recentAdditions.values()) {
+            if (typeOfAlphabet.isInstance(biologicalSequence.getAlphabet()) && biologicalSequence.getPackedNucleotideSequence().contains(pattern))
+                result.add(biologicalSequence.getId());
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of occurrences of the given pattern in the biological sequences of the given type of alphabet.
+     *
+     * @param pattern        The pattern to count.
+     * @param typeOfAlphabet The type of alphabet of the biological sequences to look in.
+     * @throws IllegalArgumentException ("The pattern cannot be looked up")
+     *                                  | ! canLookUp(pattern)
+     */
+    public int count(String pattern, Class<? extends Alphabet> typeOfAlphabet) throws IllegalArgumentException {
+        Generation current = generation;
+        if (current.removedIds.isEmpty()) {
+            if (!canLookUp(pattern))
+                throw new IllegalArgumentException("The pattern cannot be looked up");
+            int count = 0;
+            for (Map.Entry<Class<? extends Alphabet>, FmIndex> entry : current.indexes.entrySet()) {
+                if (typeOfAlphabet.isAssignableFrom(entry.getKey()))
+                    count += entry.getValue().count(pattern);
+            }
+            for (BiologicalSequence biologicalSequence : current.recentAdditions.values()) {
+                if (typeOfAlphabet.isInstance(biologicalSequence.getAlphabet()))
+                    count += matchesIn(biologicalSequence, pattern).size();
+            }
+            return count;
+        }
+        return locate(current, pattern, typeOfAlphabet).size();
+    }
+
+    /**
+     * Return the matches of the given pattern in the biological sequences of the given type of alphabet.
+     *
+     * @param pattern        The pattern to locate.
+     * @param typeOfAlphabet The type of alphabet of the biological sequences to look in.
+     * @throws IllegalArgumentException ("The pattern cannot be looked up")
+     *                                  | ! canLookUp(pattern)
+     */
+    public List<SequenceMatch> locate(String pattern, Class<? extends Alphabet> typeOfAlphabet) throws IllegalArgumentException {
+        return locate(generation, pattern, typeOfAlphabet);
+    }
+
+    /**
+     * Return the matches of the given pattern in the biological sequences of the given type of alphabet, according
+     * to the given generation.
+     */
+    private List<SequenceMatch> locate(Generation current, String pattern, Class<? extends Alphabet> typeOfAlphabet) throws IllegalArgumentException {
+        if (!canLookUp(pattern))
+            throw new IllegalArgumentException("The pattern cannot be looked up");
+        List<SequenceMatch> result = new ArrayList<>();
+        for (Map.Entry<Class<? extends Alphabet>, FmIndex> entry : current.indexes.entrySet()) {
+            if (!typeOfAlphabet.isAssignableFrom(entry.getKey())) continue;
+            for (SequenceMatch match : entry.getValue().locate(pattern)) {
+                if (!current.removedIds.contains(match.getId())) result.add(match);
+            }
+        }
+        for (BiologicalSequence biologicalSequence : current.recentAdditions.values()) {
+            if (typeOfAlphabet.isInstance(biologicalSequence.getAlphabet()))
+                result.addAll(matchesIn(biologicalSequence, pattern));
+        }
+        return result;
+    }
+
+    /**
+     * Return the matches of the given pattern in the given biological sequence.
+     */
+    private static List<SequenceMatch> matchesIn(BiologicalSequence biologicalSequence, String pattern) {
+        List<SequenceMatch> matches = new ArrayList<>();
+        PackedNucleotideSequence nucleotides = biologicalSequence.getPackedNucleotideSequence();
+        for (int position = nucleotides.indexOf(pattern, 0); position >= 0; position = nucleotides.indexOf(pattern, position + 1))
+            matches.add(new SequenceMatch(biologicalSequence.getId(), position));
+        return matches;
+    }
+}
@@ -0,0 +1,528 @@
+package be.kuleuven.OOP;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import be.kuleuven.OOP.exceptions.*;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of write-ahead logs making the additions and removals of a sequence repository durable.
+ * Each change is appended as a record holding its length, its CRC32 checksum, its kind and either the record of the
+ * added biological sequence in the snapshot format or the sequence identifier of the removed biological sequence.
+ * Changes are group-committed: a writer first appends its record to the queue, and then awaits its commit; the first
+ * waiting writer to find no flush in progress writes all records queued so far in one gathering write and forces them
+ * with a single fsync, while the writers of those records wait for it. Once a group commit fails, the log refuses
+ * further records, since the state of the records that were written but not forced is unknown.
+ * On startup the log is replayed over the latest snapshot; a torn record at the end of the log, left by a crash during
+ * an append, is cut off. Replaying is idempotent, so a crash between writing a snapshot and emptying the log is harmless.
+ *
+ * @author delphinecappelle
+ * @version 1.0
+ */
+public class WriteAheadLog implements Closeable {
+
+    /**
+     * Constant registering the default number of bytes from which a write-ahead log needs a compaction.
+     */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 256L << 20;
+
+    /**
+     * Constant registering the kind of records logging an addition.
+     */
+    static final byte ADDITION = 'A';
+
+    /**
+     * Constant registering the kind of records logging a removal.
+     */
+    static final byte REMOVAL = 'R';
+
+    /**
+     * Constant registering the kind of records logging a batch of additions that is replayed entirely or not at all.
+     */
+    static final byte BATCH = 'B';
+
+    /**
+     * Constant registering the number of bytes preceding the contents of each record: its length and checksum.
+     */
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * Initialize this new write-ahead log appending to the given file, which is created if it does not exist yet.
+     *
+     * @param file The file holding the log.
+     * @post The file of this new write-ahead log is the given file.
+     * | new.getFile() == file
+     * @throws IOException The given file cannot be opened.
+     */
+    public WriteAheadLog(Path file) throws IOException {
+        this(file, channel -> channel.force(false));
+    }
+
+    /**
+     * Initialize this new write-ahead log appending to the given file, forcing the written records to the storage
+     * device with the given fsync.
+     *
+     * @param file  The file holding the log.
+     * @param fsync The fsync making the records written to the channel of this new write-ahead log durable.
+     * @post The file of this new write-ahead log is the given file.
+     * | new.getFile() == file
+     * @throws IOException The given file cannot be opened.
+     */
+    WriteAheadLog(Path file, Fsync fsync) throws IOException {
+        this.file = file;
+        this.fsync = fsync;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.size = channel.size();
+    }
+
+    /**
+     * An interface of operations forcing the records written to the channel of a write-ahead log to the storage device.
+     */
+    interface Fsync {
+
+        /**
+         * Force the bytes written to the given channel to the storage device.
+         *
+         * @param channel The channel to force.
+         * @throws IOException The bytes could not be forced.
+         */
+        void force(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Variable referencing the fsync of the group commits of this write-ahead log.
+     */
+    private final Fsync fsync;
+
+    /**
+     * Recover the given sequence repository from the given snapshot, if it exists, and the given write-ahead log
+     * file, and attach the write-ahead log to it.
+     *
+     * @param repository   The empty sequence repository to recover.
+     * @param snapshotFile The file holding the latest snapshot.
+     * @param logFile      The file holding the write-ahead log.
+     * @return The write-ahead log attached to the given sequence repository.
+     * @throws IllegalParseException The snapshot or a complete record of the log is corrupt.
+     * @throws IllegalIdException    A biological sequence in the snapshot or the log has an invalid sequence identifier.
+     * @throws IOException           The snapshot or the log cannot be read.
+     */
+    public static WriteAheadLog recover(SequenceRepository repository, Path snapshotFile, Path logFile)
+            throws IllegalParseException, IllegalIdException, IllegalBiologicalSequenceException, IOException {
+        if (Files.exists(snapshotFile))
+            RepositorySnapshot.readInto(repository, snapshotFile);
+        WriteAheadLog log = new WriteAheadLog(logFile);
+        try {
+            log.replayInto(repository);
+        } catch (IllegalParseException | IllegalIdException | IllegalBiologicalSequenceException | IOException e) {
+            log.close();
+            throw e;
+        }
+        repository.setWriteAheadLog(log);
+        return log;
+    }
+
+    /**
+     * Return the file holding this write-ahead log.
+     */
+    @Basic
+    @Immutable
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Variable registering the file holding this write-ahead log.
+     */
+    private final Path file;
+
+    /**
+     * Variable referencing the channel appending to the file of this write-ahead log.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Return the number of bytes in this write-ahead log.
+     */
+    public long getSize() {
+        synchronized (commitLock) {
+            return size;
+        }
+    }
+
+    /**
+     * Variable registering the number of bytes in this write-ahead log, which is the position of the next record.
+     */
+    private long size;
+
+    /**
+     * Return the number of bytes from which this write-ahead log needs a compaction.
+     */
+    @Basic
+    public long getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    /**
+     * Set the number of bytes from which this write-ahead log needs a compaction to the given number.
+     *
+     * @param compactionThreshold The new compaction threshold.
+     * @throws IllegalArgumentException ("Illegal compaction threshold")
+     *                                  | compactionThreshold < 0
+     * @post | new.getCompactionThreshold() == compactionThreshold
+     */
+    public void setCompactionThreshold(long compactionThreshold) throws IllegalArgumentException {
+        if (compactionThreshold < 0)
+            throw new IllegalArgumentException("Illegal compaction threshold");
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Variable registering the number of bytes from which this write-ahead log needs a compaction.
+     */
+    private volatile long compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+    /**
+     * Check whether this write-ahead log has grown beyond its compaction threshold.
+     *
+     * @return | result == (getSize() > getCompactionThreshold())
+     */
+    public boolean needsCompaction() {
+        return getSize() > compactionThreshold;
+    }
+
+    /**
+     * Return the number of group commits, each forcing one batch of changes to the storage device, since this
+     * write-ahead log was opened.
+     */
+    public long getNbCommits() {
+        synchronized (commitLock) {
+            return nbCommits;
+        }
+    }
+
+    /**
+     * Variable registering the number of group commits since this write-ahead log was opened.
+     */
+    private long nbCommits;
+
+    /**
+     * Replay the changes in this write-ahead log on the given sequence repository, which has no write-ahead log
+     * attached. An added biological sequence replaces a stored biological sequence with the same sequence identifier,
+     * and a removal of a sequence identifier that is not stored is ignored. A torn record at the end is cut off.
+     *
+     * @param repository The sequence repository to replay the changes on.
+     * @return The number of changes replayed.
+     * @throws IllegalArgumentException ("The sequence repository already logs its changes")
+     *                                  | repository.getWriteAheadLog() != null
+     * @throws IllegalParseException    ("Corrupt write-ahead log ...")
+     *                                  A complete record with a valid checksum cannot be decoded.
+     * @throws IOException              This write-ahead log cannot be read.
+     */
+    public int replayInto(SequenceRepository repository)
+            throws IllegalArgumentException, IllegalParseException, IllegalIdException, IllegalBiologicalSequenceException, IOException {
+        if (repository.getWriteAheadLog() != null)
+            throw new IllegalArgumentException("The sequence repository already logs its changes");
+        Alphabet dnaAlphabet = new DnaAlphabet(), rnaAlphabet = new RnaAlphabet();
+        synchronized (commitLock) {
+            long position = 0, end = channel.size();
+            int count = 0;
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            while (position + RECORD_HEADER_SIZE <= end) {
+                header.clear();
+                readFully(header, position);
+                int length = header.getInt(0), checksum = header.getInt(4);
+                if (length <= 0 || position + RECORD_HEADER_SIZE + length > end) break;
+                ByteBuffer contents = ByteBuffer.allocate(length);
+                readFully(contents, position + RECORD_HEADER_SIZE);
+                if (RepositorySnapshot.checksumOf(contents, 0, length) != checksum) break;
+                contents.flip();
+                apply(repository, contents, dnaAlphabet, rnaAlphabet, position);
+                position += RECORD_HEADER_SIZE + length;
+                count++;
+            }
+            if (position < end) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+            size = position;
+            return count;
+        }
+    }
+
+    /**
+     * Apply the change in the given record contents, found at the given position of this log, to the given repository.
+     */
+    private static void apply(SequenceRepository repository, ByteBuffer contents, Alphabet dnaAlphabet, Alphabet rnaAlphabet, long position)
+            throws IllegalParseException, IllegalIdException, IllegalBiologicalSequenceException {
+        byte kind = contents.get();
+        if (kind == ADDITION || kind == BATCH) {
+            int count = kind == BATCH ? contents.getInt() : 1;
+            List<BiologicalSequence> biologicalSequences = new ArrayList<>();
+            for (int index = 0; index < count; index++) {
+                BiologicalSequence biologicalSequence = RepositorySnapshot.readRecord(contents, dnaAlphabet, rnaAlphabet);
+                if (biologicalSequence == null)
+                    throw new IllegalParseException("Corrupt write-ahead log: illegal record at " + position);
+                biologicalSequences.add(biologicalSequence);
+            }
+            for (BiologicalSequence biologicalSequence : biologicalSequences) {
+                if (repository.hasBiologicalSequenceOf(biologicalSequence.getId()))
+                    repository.removeBiologicalSequence(repository.getBiologicalSequenceOf(biologicalSequence.getId()));
+                repository.addBiologicalSequence(biologicalSequence);
+            }
+        } else if (kind == REMOVAL) {
+            String id;
+            try {
+                id = RepositorySnapshot.readString(contents);
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                id = null;
+            }
+            if (id == null)
+                throw new IllegalParseException("Corrupt write-ahead log: illegal record at " + position);
+            if (repository.hasBiologicalSequenceOf(id))
+                repository.removeBiologicalSequence(repository.getBiologicalSequenceOf(id));
+        } else {
+            throw new IllegalParseException("Corrupt write-ahead log: unknown record at " + position);
+        }
+    }
+
+    /**
+     * Append the addition of the given biological sequence to the queue of this write-ahead log.
+     *
+     * @param biologicalSequence The added biological sequence.
+     * @return The group commit that makes the addition durable, to be awaited with awaitCommit.
+     * @throws IllegalArgumentException ("Unsupported alphabet ...")
+     *                                  The given biological sequence has neither a DNA nor an RNA alphabet.
+     * @throws IOException              This write-ahead log is closed, or a group commit of it failed.
+     */
+    Batch appendAddition(BiologicalSequence biologicalSequence) throws IllegalArgumentException, IOException {
+        RepositorySnapshot.Record record = new RepositorySnapshot.Record(biologicalSequence);
+        if (record.getSize() > Integer.MAX_VALUE - RECORD_HEADER_SIZE - 1)
+            throw new IllegalArgumentException("Biological sequence " + biologicalSequence.getId() + " is too large for the write-ahead log");
+        ByteBuffer buffer = newRecord(ADDITION, (int) record.getSize());
+        record.writeTo(buffer);
+        return append(seal(buffer));
+    }
+
+    /**
+     * Append the additions of the given biological sequences to the queue of this write-ahead log as one record.
+     *
+     * @param biologicalSequences The added biological sequences.
+     * @return The group commit that makes the additions durable, to be awaited with awaitCommit.
+     * @throws IllegalArgumentException ("Unsupported alphabet ...")
+     *                                  A given biological sequence has neither a DNA nor an RNA alphabet.
+     * @throws IOException              This write-ahead log is closed, or a group commit of it failed.
+     */
+    Batch appendAdditions(Collection<BiologicalSequence> biologicalSequences) throws IllegalArgumentException, IOException {
+        List<RepositorySnapshot.Record> records = new ArrayList<>(biologicalSequences.size());
+        long size = 4;
+        for (BiologicalSequence biologicalSequence : biologicalSequences) {
+            RepositorySnapshot.Record record = new RepositorySnapshot.Record(biologicalSequence);
+            records.add(record);
+            size += record.getSize();
+        }
+        if (size > Integer.MAX_VALUE - RECORD_HEADER_SIZE - 1)
+            throw new IllegalArgumentException("The batch is too large for the write-ahead log");
+        ByteBuffer buffer = newRecord(BATCH, (int) size);
+        buffer.putInt(records.size());
+        for (RepositorySnapshot.Record record : records)
+            record.writeTo(buffer);
+        return append(seal(buffer));
+    }
+
+    /**
+     * Append the removal of the given biological sequence to the queue of this write-ahead log.
+     *
+     * @param biologicalSequence The removed biological sequence.
+     * @return The group commit that makes the removal durable, to be awaited with awaitCommit.
+     * @throws IOException This write-ahead log is closed, or a group commit of it failed.
+     */
+    Batch appendRemoval(BiologicalSequence biologicalSequence) throws IOException {
+        byte[] id = biologicalSequence.getId().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = newRecord(REMOVAL, 4 + id.length);
+        RepositorySnapshot.writeString(buffer, id);
+        return append(seal(buffer));
+    }
+
+    /**
+     * Return a buffer for a record of the given kind with the given number of bytes after its kind, positioned
+     * after that kind.
+     */
+    private static ByteBuffer newRecord(byte kind, int size) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + 1 + size);
+        buffer.position(RECORD_HEADER_SIZE);
+        buffer.put(kind);
+        return buffer;
+    }
+
+    /**
+     * Fill in the length and checksum of the record in the given buffer, and flip the buffer for writing.
+     */
+    private static ByteBuffer seal(ByteBuffer buffer) {
+        buffer.putInt(0, buffer.position() - RECORD_HEADER_SIZE);
+        buffer.putInt(4, RepositorySnapshot.checksumOf(buffer, RECORD_HEADER_SIZE, buffer.position()));
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Queue the given record for the next group commit.
+     *
+     * @param record The record to queue.
+     * @return The group commit that will hold the given record.
+     * @throws IOException This write-ahead log is closed, or a group commit of it failed.
+     */
+    private Batch append(ByteBuffer record) throws IOException {
+        synchronized (commitLock) {
+            if (closed)
+                throw new IOException("The write-ahead log is closed");
+            if (failure != null)
+                throw new IOException("A group commit of the write-ahead log failed", failure);
+            pending.records.add(record);
+            return pending;
+        }
+    }
+
+    /**
+     * Wait until the given group commit is durable, writing and forcing all queued records if no other writer is
+     * doing so.
+     *
+     * @param batch The group commit to wait for.
+     * @throws IOException The given group commit failed.
+     */
+    void awaitCommit(Batch batch) throws IOException {
+        long start;
+        synchronized (commitLock) {
+            boolean interrupted = false;
+            while (flushing && !batch.done) {
+                try {
+                    commitLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            if (batch.done) {
+                if (batch.failure != null)
+                    throw new IOException("Group commit failed", batch.failure);
+                return;
+            }
+            flushing = true;
+            pending = new Batch();
+            start = size;
+        }
+        IOException error = null;
+        long position = start;
+        try {
+            ByteBuffer[] buffers = batch.records.toArray(new ByteBuffer[batch.records.size()]);
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers)
+                remaining += buffer.remaining();
+            position += remaining;
+            channel.position(start);
+            while (remaining > 0)
+                remaining -= channel.write(buffers);
+            fsync.force(channel);
+        } catch (IOException e) {
+            error = e;
+            try {
+                channel.truncate(start);
+            } catch (IOException ignored) {
+                // The torn records are cut off by the next replay.
+            }
+        }
+        synchronized (commitLock) {
+            flushing = false;
+            batch.done = true;
+            batch.failure = error;
+            if (error == null) {
+                size = position;
+                nbCommits++;
+            } else {
+                failure = error;
+            }
+            commitLock.notifyAll();
+        }
+        if (error != null)
+            throw error;
+    }
+
+    /**
+     * Variable referencing the lock guarding the group commits of this write-ahead log.
+     */
+    private final Object commitLock = new Object();
+
+    /**
+     * Variable referencing the batch of records queued for the next group commit.
+     */
+    private Batch pending = new Batch();
+
+    /**
+     * Variable registering whether a writer is writing and forcing a batch of records.
+     */
+    private boolean flushing;
+
+    /**
+     * Variable referencing the failure of the group commit that failed, or null if no group commit failed.
+     */
+    private IOException failure;
+
+    /**
+     * A class of batches of records committed together.
+     */
+    static final class Batch {
+        private final List<ByteBuffer> records = new ArrayList<>();
+        private boolean done;
+        private IOException failure;
+    }
+
+    /**
+     * Empty this write-ahead log, after a snapshot holding all its changes has been written.
+     * The caller guarantees that no changes are appended meanwhile.
+     *
+     * @throws IOException This write-ahead log could not be emptied.
+     */
+    void reset() throws IOException {
+        synchronized (commitLock) {
+            channel.truncate(0);
+            channel.force(true);
+            size = 0;
+        }
+    }
+
+    /**
+     * Read bytes from the given position of this log until the given buffer is full.
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Unexpected end of the write-ahead log");
+        }
+    }
+
+    /**
+     * Close this write-ahead log. Records that are not yet durable are lost.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (commitLock) {
+            closed = true;
+        }
+        channel.close();
+    }
+
+    /**
+     * Variable registering whether this write-ahead log is closed.
+     */
+    private boolean closed;
+}
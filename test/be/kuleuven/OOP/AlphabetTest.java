@@ -7,7 +7,9 @@ import be.kuleuven.OOP.exceptions.IllegalAlphabetException;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import java.util.Arrays;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -51,4 +53,49 @@ public class AlphabetTest {
         assertFalse(alphabetdna.isValidNucleotideSymbol('H'));
         assertFalse(alphabetrna.isValidNucleotideSymbol('T'));
     }
+
+    @Test
+    public final void testIndexOfInvalidSymbol() {
+        assertEquals(-1, alphabetdna.indexOfInvalidSymbol("GTAggn"));
+        assertEquals(3, alphabetdna.indexOfInvalidSymbol("GTAUGN"));
+        assertEquals(0, alphabetrna.indexOfInvalidSymbol("TTAT"));
+    }
+
+    @Test
+    public final void testEncodeAndDecode() {
+        assertEquals(3, alphabetdna.encode('t'));
+        assertEquals(3, alphabetrna.encode('U'));
+        assertEquals(PackedNucleotideSequence.INVALID_CODE, alphabetdna.encode('U'));
+        assertEquals(PackedNucleotideSequence.N_CODE, alphabetrna.encode('n'));
+        assertEquals('U', alphabetrna.decode(alphabetrna.encode('u')));
+    }
+
+    @Test(expected = IllegalAlphabetException.class)
+    public final void isValidNucleotideSequence_EmptyCase() throws IllegalAlphabetException {
+        alphabetdna.isValidNucleotideSequence("");
+    }
+
+    @Test
+    public final void testComplementOf_TrueCase() {
+        assertEquals('T', alphabetdna.complementOf('A'));
+        assertEquals('A', alphabetrna.complementOf('u'));
+        assertEquals('N', alphabetrna.complementOf('N'));
+        assertTrue(alphabetdna.hasInvertibleComplements());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testComplementOf_IllegalSymbol() {
+        alphabetrna.complementOf('T');
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructor_TooManySymbols() {
+        new Alphabet("IUPAC", Arrays.asList(new Symbol('A', 'T'), new Symbol('C', 'G'), new Symbol('G', 'C'),
+                new Symbol('T', 'A'), new Symbol('R', 'Y'), new Symbol('N', 'N'))) {
+            @Override
+            public boolean hasAsAlphabet(Alphabet alphabet) {
+                return alphabet == this;
+            }
+        };
+    }
 }
@@ -0,0 +1,120 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.OOP.exceptions.IllegalNucleotideSequenceException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ApproximateMatcherTest {
+
+    private static List<SequenceMatch> locate(String pattern, int maxErrors, ApproximateMatcher.Distance distance, String nucleotides) throws Exception {
+        BiologicalSequence biologicalSequence = new BiologicalSequence("SEQ", nucleotides, new DnaAlphabet());
+        return new ApproximateMatcher(pattern, new DnaAlphabet(), maxErrors, distance).locateIn(biologicalSequence);
+    }
+
+    private static List<SequenceMatch> matchesAt(int... positions) {
+        List<SequenceMatch> matches = new ArrayList<>();
+        for (int position : positions)
+            matches.add(new SequenceMatch("SEQ", position));
+        return matches;
+    }
+
+    @Test
+    public void testHamming_LegalCase() throws Exception {
+        assertEquals(matchesAt(2, 11), locate("GATTACA", 1, ApproximateMatcher.Distance.HAMMING, "CCGATTACACCGATCACAGG"));
+        assertEquals(matchesAt(2), locate("GATTACA", 0, ApproximateMatcher.Distance.HAMMING, "CCGATTACACCGATCACAGG"));
+        assertEquals(matchesAt(), locate("GATTACA", 1, ApproximateMatcher.Distance.HAMMING, "CCGATACACC"));
+    }
+
+    @Test
+    public void testHamming_AgainstBruteForce() throws Exception {
+        Random random = new Random(25);
+        for (int round = 0; round < 50; round++) {
+            StringBuilder text = new StringBuilder();
+            for (int index = 0; index < 300; index++)
+                text.append("ACGTN".charAt(random.nextInt(index % 50 == 0 ? 5 : 4)));
+            int length = 1 + random.nextInt(20);
+            int start = random.nextInt(text.length() - length);
+            String pattern = text.substring(start, start + length).replace('N', 'A');
+            int maxErrors = random.nextInt(length);
+            List<SequenceMatch> expected = new ArrayList<>();
+            for (int position = 0; position + length <= text.length(); position++) {
+                int errors = 0;
+                for (int offset = 0; offset < length; offset++)
+                    if (text.charAt(position + offset) != pattern.charAt(offset)) errors++;
+                if (errors <= maxErrors) expected.add(new SequenceMatch("SEQ", position));
+            }
+            assertEquals(expected, locate(pattern, maxErrors, ApproximateMatcher.Distance.HAMMING, text.toString()));
+        }
+    }
+
+    @Test
+    public void testEdit_LegalCase() throws Exception {
+        assertEquals(matchesAt(2), locate("GATTACA", 1, ApproximateMatcher.Distance.EDIT, "CCGATACACC"));
+        assertEquals(matchesAt(2), locate("GATTACA", 1, ApproximateMatcher.Distance.EDIT, "CCGATTTACACC"));
+        assertEquals(matchesAt(2, 13), locate("GATTACA", 1, ApproximateMatcher.Distance.EDIT, "CCGATTACACCCCGATTCCATTTT"));
+        assertEquals(matchesAt(), locate("GATTACA", 1, ApproximateMatcher.Distance.EDIT, "CCGACCACAAC"));
+    }
+
+    @Test
+    public void testEdit_LongPatternAcrossChunks() throws Exception {
+        Random random = new Random(64);
+        StringBuilder text = new StringBuilder();
+        for (int index = 0; index < ApproximateMatcher.CHUNK_SIZE + 200; index++)
+            text.append("ACGT".charAt(random.nextInt(4)));
+        int start = ApproximateMatcher.CHUNK_SIZE - 30;
+        String pattern = text.substring(start, start + 64);
+        text.setCharAt(start + 10, text.charAt(start + 10) == 'A' ? 'C' : 'A');
+        text.deleteCharAt(start + 40);
+        List<SequenceMatch> matches = locate(pattern, 3, ApproximateMatcher.Distance.EDIT, text.toString());
+        assertEquals(matchesAt(start), matches);
+    }
+
+    @Test
+    public void testUnknownNucleotides() throws Exception {
+        assertEquals(matchesAt(), locate("ACGT", 0, ApproximateMatcher.Distance.HAMMING, "AANGTT"));
+        assertEquals(matchesAt(1), locate("ACGT", 1, ApproximateMatcher.Distance.HAMMING, "AANGTT"));
+        assertEquals(matchesAt(1), locate("ANGT", 0, ApproximateMatcher.Distance.HAMMING, "AANGTT"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_IllegalNumberOfErrors() throws Exception {
+        new ApproximateMatcher("ACGT", new DnaAlphabet(), 4, ApproximateMatcher.Distance.EDIT);
+    }
+
+    @Test(expected = IllegalNucleotideSequenceException.class)
+    public void testConstructor_IllegalSymbol() throws Exception {
+        new ApproximateMatcher("ACGU", new DnaAlphabet(), 1, ApproximateMatcher.Distance.EDIT);
+    }
+
+    @Test
+    public void testRepositoryQuery_Parallel() throws Exception {
+        SequenceRepository repository = new SequenceRepository();
+        List<SequenceMatch> expected = new ArrayList<>();
+        for (int index = 0; index < SequenceRepository.PARALLEL_SCAN_THRESHOLD; index++) {
+            String nucleotides = index % 5 == 0 ? "CCGATCACACC" : "CCCCCCCCCCC";
+            repository.addBiologicalSequence(new BiologicalSequence("DNA" + index, nucleotides, new DnaAlphabet()));
+            if (index % 5 == 0) expected.add(new SequenceMatch("DNA" + index, 2));
+        }
+        repository.addBiologicalSequence(new BiologicalSequence("RNA", "CCGAUUACACC", new RnaAlphabet()));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            repository.setQueryPool(pool);
+            List<SequenceMatch> matches = repository.locateApproximately("GATTACA", 1, ApproximateMatcher.Distance.HAMMING, DnaAlphabet.class);
+            Collections.sort(expected);
+            assertEquals(expected, matches);
+            assertEquals(Arrays.asList(new SequenceMatch("RNA", 2)), repository.locateApproximately("GAUUACA", 0, RnaAlphabet.class));
+            assertTrue(repository.locateApproximately("GAUUACA", 1, Alphabet.class).contains(new SequenceMatch("RNA", 2)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
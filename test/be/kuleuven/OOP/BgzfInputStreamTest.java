@@ -0,0 +1,130 @@
+package be.kuleuven.OOP;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class BgzfInputStreamTest {
+
+    private File file;
+    private String fasta;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("sequences", ".fa.gz");
+        Random random = new Random(21);
+        StringBuilder builder = new StringBuilder();
+        for (int record = 0; record < 30; record++) {
+            builder.append(">SEQ").append(record).append("|HUMAN\n");
+            for (int line = 0; line < 1 + random.nextInt(80); line++) {
+                for (int index = 0; index < 60; index++)
+                    builder.append("ACGTN".charAt(random.nextInt(5)));
+                builder.append('\n');
+            }
+        }
+        fasta = builder.toString();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testRead_ManyBlocksSmallWindow() throws Exception {
+        byte[] bytes = fasta.getBytes(StandardCharsets.US_ASCII);
+        try (InputStream input = new BgzfInputStream(new ByteArrayInputStream(bgzf(bytes, 1000)), ForkJoinPool.commonPool(), 3)) {
+            assertArrayEquals(bytes, readAll(input));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRead_CorruptBlock() throws Exception {
+        byte[] compressed = bgzf(fasta.getBytes(StandardCharsets.US_ASCII), 1000);
+        compressed[compressed.length - 40] ^= 1;
+        try (InputStream input = new BgzfInputStream(new ByteArrayInputStream(compressed))) {
+            readAll(input);
+        }
+    }
+
+    @Test
+    public void testReadSequences_Bgzf() throws Exception {
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(bgzf(fasta.getBytes(StandardCharsets.US_ASCII), 4096));
+        }
+        assertRecords();
+    }
+
+    @Test
+    public void testReadSequences_Gzip() throws Exception {
+        try (GZIPOutputStream output = new GZIPOutputStream(new FileOutputStream(file))) {
+            output.write(fasta.getBytes(StandardCharsets.US_ASCII));
+        }
+        assertRecords();
+    }
+
+    private void assertRecords() throws Exception {
+        try (FastaReader reader = SequenceFileParser.readSequences(new DnaAlphabet(), file)) {
+            for (int record = 0; record < 30; record++)
+                assertEquals("SEQ" + record, reader.next().getId());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[777];
+        for (int read; (read = input.read(buffer)) >= 0; )
+            output.write(buffer, 0, read);
+        return output.toByteArray();
+    }
+
+    /**
+     * Return the given bytes compressed as BGZF blocks of the given number of uncompressed bytes, followed by the
+     * empty end-of-file block.
+     */
+    private static byte[] bgzf(byte[] bytes, int blockSize) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (int offset = 0; offset <= bytes.length; offset += blockSize) {
+            int length = Math.min(blockSize, bytes.length - offset);
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflater.setInput(bytes, offset, length);
+            deflater.finish();
+            byte[] deflated = new byte[length + 1024];
+            int size = deflater.deflate(deflated);
+            deflater.end();
+            CRC32 crc = new CRC32();
+            crc.update(bytes, offset, length);
+            int total = 18 + size + 8;
+            output.write(new byte[]{31, (byte) 139, 8, 4, 0, 0, 0, 0, 0, (byte) 255, 6, 0, 'B', 'C', 2, 0,
+                    (byte) (total - 1), (byte) ((total - 1) >>> 8)}, 0, 18);
+            output.write(deflated, 0, size);
+            writeInt(output, (int) crc.getValue());
+            writeInt(output, length);
+            if (length == 0) break;
+        }
+        return output.toByteArray();
+    }
+
+    private static void writeInt(ByteArrayOutputStream output, int value) {
+        for (int shift = 0; shift < 32; shift += 8)
+            output.write(value >>> shift);
+    }
+}
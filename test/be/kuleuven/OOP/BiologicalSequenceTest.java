@@ -63,6 +63,16 @@ public class BiologicalSequenceTest {
         new BiologicalSequence("TROMB", "GOCTGS", dnaAlphabet);
     }
 
+    @Test
+    public void testContainsSubsequence() throws IllegalAlphabetException, IllegalIdException, IllegalNucleotideSequenceException {
+        BiologicalSequence biodnasequence = new BiologicalSequence("EPO", "HUMAN", "ggattaatac", dnaAlphabet);
+        assertEquals("GGATTAATAC", biodnasequence.getNucleotideSequence());
+        assertTrue(biodnasequence.containsSubsequence("TTAAT"));
+        assertFalse(biodnasequence.containsSubsequence("ttaat"));
+        assertFalse(biodnasequence.containsSubsequence("TTaAT"));
+        assertFalse(biodnasequence.containsSubsequence("TTAATT"));
+    }
+
     @Test
     public void isValidId_TrueCase() {
         assertTrue(BiologicalSequence.isValidId("ALB"));
@@ -83,6 +93,29 @@ public class BiologicalSequenceTest {
         dnasequence1.getNumberOfNucleotide('F');
     }
 
+    @Test
+    public void testGetComposition_TrueCase() {
+        Assert.assertArrayEquals(new int[]{1, 1, 2, 1, 1}, dnasequence2.getComposition());
+        int[] composition = {9, 9, 9, 9, 9, 9};
+        Assert.assertSame(composition, dnasequence1.getComposition(composition));
+        Assert.assertArrayEquals(new int[]{1, 1, 2, 1, 0, 9}, composition);
+    }
+
+    @Test
+    public void testGetStatistics_TrueCase() {
+        SequenceStatistics statistics = dnasequence2.getStatistics();
+        assertEquals(6, statistics.getLength());
+        assertEquals(0.6, statistics.getGcContent(), 1e-9);
+        assertEquals("[A, C, G, N, T]", statistics.getNucleotides().toString());
+        assertEquals(2, statistics.getNumberOf('G'));
+        Assert.assertSame(statistics, dnasequence2.getStatistics());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetComposition_IllegalArray() {
+        dnasequence1.getComposition(new int[4]);
+    }
+
     @Test
     public void mutateNucleotideSequence__TrueCase() throws IllegalNucleotideSequenceException, IllegalAlphabetException {
         assertEquals("AATGG", dnasequence1.mutateNucleotideSequence(1, 2, "AT"));
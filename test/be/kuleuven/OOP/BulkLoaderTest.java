@@ -0,0 +1,86 @@
+package be.kuleuven.OOP;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BulkLoaderTest {
+
+    private File directory;
+    private List<File> files;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("bulk").toFile();
+        files = new ArrayList<>();
+        for (int gene = 0; gene < 40; gene++)
+            files.add(write("gene" + gene + ".fa", ">GENE" + gene + "A|HUMAN\nACGTACGTNN\n>GENE" + gene + "B|MOUSE\nGGCC\n"));
+        File compressed = new File(directory, "compressed.fa.gz");
+        try (GZIPOutputStream output = new GZIPOutputStream(new FileOutputStream(compressed))) {
+            output.write(">PACKED|HUMAN\nACGT\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        files.add(compressed);
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : directory.listFiles())
+            file.delete();
+        directory.delete();
+    }
+
+    private File write(String name, String contents) throws Exception {
+        File file = new File(directory, name);
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(contents.getBytes(StandardCharsets.US_ASCII));
+        }
+        return file;
+    }
+
+    @Test
+    public void testLoad_LegalCase() throws Exception {
+        SequenceRepository repository = new SequenceRepository();
+        BulkLoader loader = new BulkLoader(repository, new DnaAlphabet(), 4);
+        loader.setBatchSize(7);
+        BulkLoader.Report report = loader.load(files);
+        assertTrue(report.isSuccessful());
+        assertEquals(41, report.getNbFiles());
+        assertEquals(81, report.getNbSequences());
+        assertEquals(81, repository.getNbBiologicalSequences());
+        assertEquals(40 * 14 + 4, report.getNbNucleotides());
+        assertEquals("ACGTACGTNN", repository.getBiologicalSequenceOf("GENE7A").getNucleotideSequence());
+    }
+
+    @Test
+    public void testLoad_ErrorsPerFile() throws Exception {
+        File invalid = write("invalid.fa", ">BROKEN|HUMAN\nACGTXX\n");
+        File duplicate = write("duplicate.fa", ">TWICE|RAT\nAAAA\n>TWICE|RAT\nCCCC\n>NEW|RAT\nGGGG\n");
+        File missing = new File(directory, "missing.fa");
+        files.add(invalid);
+        files.add(duplicate);
+        files.add(missing);
+        SequenceRepository repository = new SequenceRepository();
+        BulkLoader.Report report = SequenceFileParser.addSequencesTo(repository, new DnaAlphabet(), files);
+        assertFalse(report.isSuccessful());
+        assertEquals(44, report.getNbFiles());
+        assertEquals(3, report.getErrors().size());
+        assertTrue(report.getErrors().containsKey(invalid));
+        assertTrue(report.getErrors().containsKey(missing));
+        assertEquals(1, report.getErrors().get(duplicate).size());
+        assertTrue(repository.hasBiologicalSequenceOf("NEW"));
+        assertFalse(repository.hasBiologicalSequenceOf("BROKEN"));
+        assertEquals(83, repository.getNbBiologicalSequences());
+    }
+}
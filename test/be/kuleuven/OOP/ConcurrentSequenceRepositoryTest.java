@@ -0,0 +1,86 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.OOP.exceptions.IllegalIdException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentSequenceRepositoryTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 500;
+
+    private ConcurrentSequenceRepository repository;
+
+    @Before
+    public void setUp() {
+        repository = new ConcurrentSequenceRepository();
+    }
+
+    @Test
+    public void testConcurrentWritesAndQueries() throws Exception {
+        repository.enableKmerIndex(4);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                final int writer = thread;
+                writers.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int index = 0; index < PER_THREAD; index++) {
+                            BiologicalSequence biologicalSequence = new BiologicalSequence("T" + writer + "S" + index,
+                                    writer % 2 == 0 ? "human" : "mouse", index % 2 == 0 ? "GATTACA" : "CCCCGGGG", new DnaAlphabet());
+                            repository.addBiologicalSequence(biologicalSequence);
+                            if (index % 4 == 3)
+                                repository.removeBiologicalSequence(biologicalSequence);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            Future<Integer> reader = executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    int queries = 0;
+                    while (queries < 200) {
+                        for (String id : repository.getIdsForSubsequence("GATTA", DnaAlphabet.class).getQueryResult())
+                            assertTrue(repository.getBiologicalSequenceOf(id) == null
+                                    || repository.getBiologicalSequenceOf(id).getNucleotideSequence().contains("GATTA"));
+                        repository.getIdsForOrganism("human", DnaAlphabet.class);
+                        repository.getAllIds(Alphabet.class);
+                        queries++;
+                    }
+                    return queries;
+                }
+            });
+            for (Future<?> writer : writers)
+                writer.get();
+            assertEquals(200, (int) reader.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        int stored = THREADS * PER_THREAD * 3 / 4;
+        assertEquals(stored, repository.getNbBiologicalSequences());
+        assertEquals(stored, repository.getAllIds(DnaAlphabet.class).getQueryResult().size());
+        assertEquals(stored / 2, repository.getIdsForOrganism("human", DnaAlphabet.class).getQueryResult().size());
+        assertEquals(THREADS * PER_THREAD / 2, repository.getIdsForSubsequence("GATTACA", DnaAlphabet.class).getQueryResult().size());
+        assertEquals(THREADS * PER_THREAD / 4, repository.getIdsForSubsequence("CCCC", DnaAlphabet.class).getQueryResult().size());
+    }
+
+    @Test(expected = IllegalIdException.class)
+    public void testAddDuplicateId_IllegalCase() throws Exception {
+        repository.addBiologicalSequence(new BiologicalSequence("DNA", "human", "ACGT", new DnaAlphabet()));
+        repository.addBiologicalSequence(new BiologicalSequence("DNA", "mouse", "ACGT", new DnaAlphabet()));
+    }
+}
@@ -0,0 +1,106 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.OOP.exceptions.IllegalIdException;
+import be.kuleuven.OOP.exceptions.IllegalParseException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FastaIndexTest {
+
+    private File fasta;
+    private File indexFile;
+
+    private static void write(File file, String content) throws IOException {
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(content.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        fasta = File.createTempFile("sequences", ".fa");
+        indexFile = new File(fasta.getPath() + ".fai");
+        write(fasta, ">GLOBIN|MOUSE\r\nACGTA\r\nCGTAC\r\nGG\r\n>ALB|12|HUMAN\nTTTT\nCCCC\nNNAA\n>EPO\nGATTACA");
+    }
+
+    @After
+    public void tearDown() {
+        fasta.delete();
+        indexFile.delete();
+    }
+
+    @Test
+    public void testBuild_LegalCase() throws IllegalParseException {
+        FastaIndex index = FastaIndex.build(fasta);
+        assertEquals(3, index.getEntries().size());
+        FastaIndex.Entry globin = index.getEntry("GLOBIN");
+        assertEquals(12, globin.getLength());
+        assertEquals(15, globin.getOffset());
+        assertEquals(5, globin.getLineBases());
+        assertEquals(7, globin.getLineWidth());
+        assertEquals("HUMAN", index.getEntry("ALB-12").getOrganism());
+        assertEquals(12, index.getEntry("ALB-12").getLength());
+        assertEquals(7, index.getEntry("EPO").getLength());
+    }
+
+    @Test(expected = IllegalParseException.class)
+    public void testBuild_IllegalLineLength() throws IOException, IllegalParseException {
+        write(fasta, ">GLOBIN|MOUSE\nACG\nACGTA\nGG\n");
+        FastaIndex.build(fasta);
+    }
+
+    @Test
+    public void testGetBiologicalSequenceAndRegion_LegalCase() throws Exception {
+        try (IndexedFastaReader reader = new IndexedFastaReader(fasta, new DnaAlphabet())) {
+            assertEquals("ACGTACGTACGG", reader.getBiologicalSequence("GLOBIN").getNucleotideSequence());
+            assertEquals("TTTTCCCCNNAA", reader.getBiologicalSequence("ALB-12").getNucleotideSequence());
+            assertEquals("GATTACA", reader.getBiologicalSequence("EPO").getNucleotideSequence());
+            BiologicalSequence region = reader.getRegion("GLOBIN", 3, 11);
+            assertEquals("TACGTACG", region.getNucleotideSequence());
+            assertEquals("GLOBIN:3-11", region.getId());
+            assertEquals("MOUSE", region.getOrganism());
+        }
+        FastaIndex written = FastaIndex.read(indexFile);
+        assertEquals(3, written.getEntries().size());
+        FastaIndex.Entry alb = written.getEntry("ALB-12");
+        assertEquals(alb.getOffset() + 5, alb.getOffsetOf(4));
+    }
+
+    @Test
+    public void testStaleIndexIsRebuilt() throws Exception {
+        new IndexedFastaReader(fasta, new DnaAlphabet()).close();
+        write(fasta, ">GLOBIN|MOUSE\nGGGGG\nCC\n");
+        assertTrue(fasta.setLastModified(indexFile.lastModified()));
+        try (IndexedFastaReader reader = new IndexedFastaReader(fasta, new DnaAlphabet())) {
+            assertEquals("GGGGGCC", reader.getBiologicalSequence("GLOBIN").getNucleotideSequence());
+        }
+        write(fasta, ">GLOBIN|MOUSE\nTTTTT\nAA\n");
+        assertTrue(fasta.setLastModified(indexFile.lastModified() + 2000));
+        try (IndexedFastaReader reader = new IndexedFastaReader(fasta, new DnaAlphabet())) {
+            assertEquals("TTTTTAA", reader.getBiologicalSequence("GLOBIN").getNucleotideSequence());
+        }
+    }
+
+    @Test(expected = IllegalIdException.class)
+    public void testGetBiologicalSequence_UnknownId() throws Exception {
+        try (IndexedFastaReader reader = new IndexedFastaReader(fasta, FastaIndex.build(fasta), new DnaAlphabet())) {
+            reader.getBiologicalSequence("UNKNOWN");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetRegion_IllegalRegion() throws Exception {
+        try (IndexedFastaReader reader = new IndexedFastaReader(fasta, FastaIndex.build(fasta), new DnaAlphabet())) {
+            reader.getRegion("EPO", 2, 8);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.OOP.exceptions.IllegalAlphabetException;
+import be.kuleuven.OOP.exceptions.IllegalParseException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FastaReaderTest {
+
+    private static FastaReader readerOf(String content, Alphabet alphabet) {
+        return new FastaReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII)), alphabet);
+    }
+
+    @Test
+    public void testParseHeader() throws Exception {
+        assertArrayEquals(new String[]{"ALB-12", "HUMAN"}, SequenceFileParser.parseHeader("ALB|12|HUMAN"));
+        assertArrayEquals(new String[]{"EPO", "unknown"}, SequenceFileParser.parseHeader("EPO"));
+    }
+
+    @Test(expected = IllegalParseException.class)
+    public void testParseHeader_NoFields() throws Exception {
+        SequenceFileParser.parseHeader("|");
+    }
+
+    @Test
+    public void testMultipleRecords_LegalCase() throws Exception {
+        FastaReader reader = readerOf("\n>GLOBIN|MOUSE\nACGT\nNNac\r\n>ALB|12|HUMAN\nGGG\n>EPO\nT\n", new DnaAlphabet());
+
+        assertTrue(reader.hasNext());
+        BiologicalSequence first = reader.next();
+        assertEquals("GLOBIN", first.getId());
+        assertEquals("MOUSE", first.getOrganism());
+        assertEquals("ACGTNNAC", first.getNucleotideSequence());
+
+        BiologicalSequence second = reader.next();
+        assertEquals("ALB-12", second.getId());
+        assertEquals("HUMAN", second.getOrganism());
+        assertEquals("GGG", second.getNucleotideSequence());
+
+        BiologicalSequence third = reader.next();
+        assertEquals("EPO", third.getId());
+        assertEquals("unknown", third.getOrganism());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testResourceFile_LegalCase() throws Exception {
+        BiologicalSequence expected = SequenceFileParser.getDnaSequence("dna");
+        try (FastaReader reader = SequenceFileParser.readSequences(new DnaAlphabet(), new File("resources/dna.txt"))) {
+            BiologicalSequence actual = reader.next();
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getOrganism(), actual.getOrganism());
+            assertEquals(expected.getNucleotideSequence(), actual.getNucleotideSequence());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testAddSequencesTo_LegalCase() throws Exception {
+        SequenceRepository repository = new SequenceRepository();
+        assertEquals(1, SequenceFileParser.addSequencesTo(repository, new DnaAlphabet(), new File("resources/dna.txt")));
+        assertTrue(repository.hasBiologicalSequenceOf("AB000263"));
+    }
+
+    @Test(expected = IllegalAlphabetException.class)
+    public void testIllegalSymbol() throws Exception {
+        readerOf(">EPO|HUMAN\nACGT\nACGT\n", new RnaAlphabet()).next();
+    }
+
+    @Test(expected = IllegalParseException.class)
+    public void testMissingHeader() throws Exception {
+        readerOf("ACGT\n>EPO|HUMAN\nACGT\n", new DnaAlphabet()).hasNext();
+    }
+
+    @Test(expected = IllegalParseException.class)
+    public void testEmptyRecord() throws Exception {
+        readerOf(">EPO|HUMAN\n>ALB|HUMAN\nACGT\n", new DnaAlphabet()).next();
+    }
+}
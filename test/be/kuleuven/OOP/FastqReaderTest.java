@@ -0,0 +1,119 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.OOP.exceptions.IllegalAlphabetException;
+import be.kuleuven.OOP.exceptions.IllegalParseException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FastqReaderTest {
+
+    private static final String FASTQ =
+            "@READ1 lane 1\n" +
+            "ACGTNACGTA\n" +
+            "+\n" +
+            "IIIIIIII##\n" +
+            "\n" +
+            "@READ2\r\n" +
+            "GGCC\r\n" +
+            "AATT\r\n" +
+            "+READ2\r\n" +
+            "@@@@\r\n" +
+            "####\r\n" +
+            "@READ3\n" +
+            "ACGT\n" +
+            "+\n" +
+            "++++\n";
+
+    private static FastqReader readerOf(String fastq) {
+        return new FastqReader(new ByteArrayInputStream(fastq.getBytes(StandardCharsets.US_ASCII)), new DnaAlphabet());
+    }
+
+    @Test
+    public void testNext_LegalCase() throws Exception {
+        try (FastqReader reader = readerOf(FASTQ)) {
+            SequencingRead read = reader.next();
+            assertEquals("READ1", read.getId());
+            assertEquals("ACGTNACGTA", read.getNucleotideSequence());
+            assertEquals("IIIIIIII##", read.getQualityString());
+            assertEquals(40, read.getQualityAt(0));
+            assertEquals(2, read.getQualityAt(9));
+            read = reader.next();
+            assertEquals("READ2", read.getId());
+            assertEquals("GGCCAATT", read.getNucleotideSequence());
+            assertArrayEquals(new byte[]{31, 31, 31, 31, 2, 2, 2, 2}, read.getQualities());
+            assertEquals("ACGT", reader.next().getNucleotideSequence());
+            assertFalse(reader.hasNext());
+            assertEquals(3, reader.getNbRecords());
+            assertEquals(0, reader.getNbFiltered());
+        }
+    }
+
+    @Test
+    public void testTrimmingAndFiltering() throws Exception {
+        try (FastqReader reader = readerOf(FASTQ)) {
+            reader.setTrimThreshold(20);
+            reader.setMinimumLength(5);
+            SequencingRead read = reader.next();
+            assertEquals("ACGTNACG", read.getNucleotideSequence());
+            assertEquals("IIIIIIII", read.getQualityString());
+            assertFalse(reader.hasNext());
+            assertEquals(3, reader.getNbRecords());
+            assertEquals(2, reader.getNbFiltered());
+        }
+        try (FastqReader reader = readerOf(FASTQ)) {
+            reader.setMinimumMeanQuality(16.5);
+            assertEquals("READ1", reader.next().getId());
+            assertEquals("READ2", reader.next().getId());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testTrimQuality() throws Exception {
+        SequencingRead read = new SequencingRead("READ", "ACGTACGT", new DnaAlphabet(), new byte[]{30, 30, 30, 30, 10, 35, 5, 2});
+        SequencingRead trimmed = read.trimQuality(20);
+        assertEquals("ACGTAC", trimmed.getNucleotideSequence());
+        assertArrayEquals(new byte[]{30, 30, 30, 30, 10, 35}, trimmed.getQualities());
+        assertEquals(27.5, trimmed.getMeanQuality(), 1e-9);
+        assertSame(read, read.trimQuality(1));
+    }
+
+    @Test(expected = IllegalParseException.class)
+    public void testNext_TruncatedQualities() throws Exception {
+        try (FastqReader reader = readerOf("@READ\nACGT\n+\nII")) {
+            reader.next();
+        }
+    }
+
+    @Test(expected = IllegalAlphabetException.class)
+    public void testNext_IllegalSymbol() throws Exception {
+        try (FastqReader reader = readerOf("@READ\nACGU\n+\nIIII\n")) {
+            reader.next();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSequencingRead_IllegalQualities() throws Exception {
+        new SequencingRead("READ", "ACGT", new DnaAlphabet(), new byte[]{30, 30, 30});
+    }
+
+    @Test
+    public void testNext_EmptyInput() throws Exception {
+        try (FastqReader reader = readerOf("\n\n")) {
+            assertFalse(reader.hasNext());
+        }
+        try (FastqReader reader = readerOf("@READ\n\n+\n\n@READ2\nA\n+\nI\n")) {
+            assertTrue(reader.hasNext());
+            assertEquals("READ2", reader.next().getId());
+            assertEquals(1, reader.getNbFiltered());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package be.kuleuven.OOP;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class FmIndexTest {
+
+    private List<BiologicalSequence> sequences = new ArrayList<>();
+    private FmIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        Random random = new Random(7);
+        Alphabet dnaAlphabet = new DnaAlphabet();
+        for (int sequence = 0; sequence < 20; sequence++) {
+            StringBuilder builder = new StringBuilder();
+            int length = 1 + random.nextInt(200);
+            for (int index = 0; index < length; index++)
+                builder.append(random.nextInt(30) == 0 ? 'N' : "ACGT".charAt(random.nextInt(sequence % 3 == 0 ? 2 : 4)));
+            sequences.add(new BiologicalSequence("SEQ" + sequence, builder.toString(), dnaAlphabet));
+        }
+        index = new FmIndex(dnaAlphabet, sequences, 5);
+    }
+
+    private List<SequenceMatch> bruteForce(String pattern) {
+        List<SequenceMatch> matches = new ArrayList<>();
+        for (BiologicalSequence sequence : sequences) {
+            String nucleotides = sequence.getNucleotideSequence();
+            for (int position = nucleotides.indexOf(pattern); position >= 0; position = nucleotides.indexOf(pattern, position + 1))
+                matches.add(new SequenceMatch(sequence.getId(), position));
+        }
+        Collections.sort(matches);
+        return matches;
+    }
+
+    @Test
+    public void testCountAndLocate_LegalCase() {
+        Random random = new Random(11);
+        for (int query = 0; query < 200; query++) {
+            BiologicalSequence sequence = sequences.get(random.nextInt(sequences.size()));
+            String nucleotides = sequence.getNucleotideSequence();
+            int start = random.nextInt(nucleotides.length());
+            String pattern = nucleotides.substring(start, Math.min(nucleotides.length(), start + 1 + random.nextInt(8)));
+            if (!index.canLookUp(pattern)) continue;
+            List<SequenceMatch> expected = bruteForce(pattern);
+            List<SequenceMatch> actual = index.locate(pattern);
+            Collections.sort(actual);
+            assertEquals(pattern, expected, actual);
+            assertEquals(expected.size(), index.count(pattern));
+            Set<String> ids = new HashSet<>();
+            for (SequenceMatch match : expected) ids.add(match.getId());
+            assertEquals(ids, index.getIdsContaining(pattern));
+        }
+    }
+
+    @Test
+    public void testAbsentAndUnsupportedPatterns() {
+        assertEquals(0, index.count("ACGU"));
+        assertFalse(index.canLookUp("ANA"));
+        assertFalse(index.canLookUp(""));
+    }
+
+    @Test
+    public void testSuffixArray_LegalCase() {
+        byte[] text = {2, 3, 2, 3, 2, 1, 4, 2, 3, 1, 0};
+        int[] suffixArray = FmIndex.buildSuffixArray(text);
+        for (int row = 1; row < text.length; row++) {
+            int previous = suffixArray[row - 1], current = suffixArray[row];
+            int offset = 0;
+            while (previous + offset < text.length && current + offset < text.length && text[previous + offset] == text[current + offset])
+                offset++;
+            int previousSymbol = previous + offset < text.length ? text[previous + offset] : -1;
+            int currentSymbol = current + offset < text.length ? text[current + offset] : -1;
+            assertEquals(true, previousSymbol < currentSymbol);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package be.kuleuven.OOP;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import be.kuleuven.OOP.exceptions.IllegalAlphabetException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MappedFastaReaderTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("sequences", ".fa");
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(">GLOBIN|MOUSE\nACGTACGTAC\nGGNN\n>ALB|HUMAN\nTTTTCCCCAAAAGGGG\n".getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testSmallMappings_LegalCase() throws Exception {
+        for (long mappingSize : new long[]{1, 3, 7, 1 << 20}) {
+            try (FastaReader reader = new MappedFastaReader(FileChannel.open(file.toPath(), StandardOpenOption.READ), new DnaAlphabet(), mappingSize)) {
+                BiologicalSequence first = reader.next();
+                assertEquals("GLOBIN", first.getId());
+                assertEquals("ACGTACGTACGGNN", first.getNucleotideSequence());
+                BiologicalSequence second = reader.next();
+                assertEquals("HUMAN", second.getOrganism());
+                assertEquals("TTTTCCCCAAAAGGGG", second.getNucleotideSequence());
+                assertFalse(reader.hasNext());
+            }
+        }
+    }
+
+    @Test
+    public void testBlanksAndCarriageReturns_LegalCase() throws Exception {
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(">GLOBIN|MOUSE\r\nACGT ACGT\r\n\r\nGG\tNN\r\n>ALB|HUMAN\r\nTTTT\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        for (long mappingSize : new long[]{1, 5, 1 << 20}) {
+            try (FastaReader reader = new MappedFastaReader(FileChannel.open(file.toPath(), StandardOpenOption.READ), new DnaAlphabet(), mappingSize)) {
+                assertEquals("ACGTACGTGGNN", reader.next().getNucleotideSequence());
+                assertEquals("TTTT", reader.next().getNucleotideSequence());
+                assertFalse(reader.hasNext());
+            }
+        }
+    }
+
+    @Test
+    public void testIllegalSymbol_IllegalCase() throws Exception {
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(">GLOBIN|MOUSE\nACGT\nACXT\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        for (long mappingSize : new long[]{3, 1 << 20}) {
+            try (FastaReader reader = new MappedFastaReader(FileChannel.open(file.toPath(), StandardOpenOption.READ), new DnaAlphabet(), mappingSize)) {
+                reader.next();
+                fail();
+            } catch (IllegalAlphabetException exc) {
+                assertTrue(exc.getMessage().contains("at offset 6 of GLOBIN"));
+            }
+        }
+    }
+
+    @Test
+    public void testMapSequences_LegalCase() throws Exception {
+        try (FastaReader reader = SequenceFileParser.mapSequences(new DnaAlphabet(), new File("resources/dna.txt"))) {
+            assertEquals(SequenceFileParser.getDnaSequence("dna").getNucleotideSequence(), reader.next().getNucleotideSequence());
+        }
+    }
+}
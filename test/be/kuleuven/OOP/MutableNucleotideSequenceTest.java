@@ -0,0 +1,91 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.OOP.exceptions.IllegalNucleotideSequenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class MutableNucleotideSequenceTest {
+
+    private Alphabet dnaAlphabet = new DnaAlphabet();
+    private Random random;
+    private String initial;
+    private MutableNucleotideSequence sequence;
+
+    @Before
+    public void setUp() {
+        random = new Random(11);
+        initial = randomNucleotides(5000);
+        sequence = new MutableNucleotideSequence(new PackedNucleotideSequence(initial, dnaAlphabet));
+    }
+
+    private String randomNucleotides(int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < length; index++)
+            builder.append(random.nextInt(25) == 0 ? 'N' : "ACGT".charAt(random.nextInt(4)));
+        return builder.toString();
+    }
+
+    @Test
+    public void testEdits_LegalCase() throws Exception {
+        StringBuilder expected = new StringBuilder(initial);
+        for (int edit = 0; edit < 2000; edit++) {
+            int start = random.nextInt(expected.length() + 1);
+            int length = Math.min(random.nextInt(8), expected.length() - start);
+            String nucleotides = randomNucleotides(random.nextInt(8));
+            switch (edit % 3) {
+                case 0:
+                    sequence.replace(start, length, nucleotides);
+                    expected.replace(start, start + length, nucleotides);
+                    break;
+                case 1:
+                    sequence.insert(start, nucleotides);
+                    expected.insert(start, nucleotides);
+                    break;
+                default:
+                    sequence.delete(start, length);
+                    expected.delete(start, start + length);
+            }
+        }
+        assertEquals(expected.length(), sequence.length());
+        assertEquals(expected.toString(), sequence.toString());
+        for (int index = 0; index < expected.length(); index += 97)
+            assertEquals(expected.charAt(index), sequence.charAt(index));
+        assertEquals(expected.substring(100, 900), sequence.subSequence(100, 900).toString());
+    }
+
+    @Test
+    public void testSnapshot_LegalCase() throws Exception {
+        MutableNucleotideSequence snapshot = sequence.snapshot();
+        sequence.replace(0, 10, "GATTACA");
+        sequence.delete(100, 1000);
+        assertEquals(initial, snapshot.toString());
+        snapshot.insert(0, "CC");
+        assertEquals("GATTACA", sequence.toString().substring(0, 7));
+        assertEquals(initial.length() - 3 - 1000, sequence.length());
+    }
+
+    @Test
+    public void testToBiologicalSequence_LegalCase() throws Exception {
+        BiologicalSequence biologicalSequence = new BiologicalSequence("GLOBIN", "MOUSE", "ACTGGNNA", dnaAlphabet);
+        MutableNucleotideSequence mutable = biologicalSequence.toMutableNucleotideSequence();
+        mutable.replace(1, 2, "AT");
+        mutable.insert(8, "TT");
+        BiologicalSequence flattened = mutable.toBiologicalSequence("GLOBIN2", "MOUSE");
+        assertEquals("AATGGNNATT", flattened.getNucleotideSequence());
+        assertEquals(2, flattened.getNumberOfNucleotide('N'));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReplace_IllegalRegion() throws Exception {
+        sequence.replace(4990, 20, "A");
+    }
+
+    @Test(expected = IllegalNucleotideSequenceException.class)
+    public void testReplace_IllegalNucleotides() throws Exception {
+        sequence.replace(0, 1, "AUG");
+    }
+}
@@ -0,0 +1,82 @@
+package be.kuleuven.OOP;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NucleotideViewTest {
+
+    private Alphabet dnaAlphabet = new DnaAlphabet();
+    private String nucleotides;
+    private BiologicalSequence sequence;
+
+    @Before
+    public void setUp() throws Exception {
+        Random random = new Random(5);
+        StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < 300; index++)
+            builder.append(index % 41 < 3 ? 'N' : "ACGT".charAt(random.nextInt(4)));
+        nucleotides = builder.toString();
+        sequence = new BiologicalSequence("EPO", "HUMAN", nucleotides, dnaAlphabet);
+    }
+
+    @Test
+    public void testGetRegion() {
+        NucleotideView view = sequence.getRegion(37, 100);
+        assertEquals(37, view.getOffset());
+        assertEquals(100, view.length());
+        assertEquals(nucleotides.substring(37, 137), view.toString());
+        assertEquals(nucleotides.substring(47, 57), view.subSequence(10, 20).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetRegion_IllegalRegion() {
+        sequence.getRegion(250, 51);
+    }
+
+    @Test
+    public void testCountAndComposition_EveryWindow() {
+        int[] composition = new int[5], counts = new int[5];
+        String symbols = dnaAlphabet.getValidSymbols();
+        for (int start = 0; start + 70 <= nucleotides.length(); start += 13) {
+            NucleotideView view = sequence.getRegion(start, 70);
+            view.getComposition(composition, counts);
+            String window = nucleotides.substring(start, start + 70);
+            for (int index = 0; index < symbols.length(); index++) {
+                int expected = window.length() - window.replace(String.valueOf(symbols.charAt(index)), "").length();
+                assertEquals(expected, composition[index]);
+                assertEquals(expected, view.count(symbols.charAt(index)));
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOf() {
+        NucleotideView view = sequence.getRegion(50, 120);
+        String window = nucleotides.substring(50, 170);
+        String pattern = nucleotides.substring(100, 106);
+        assertEquals(window.indexOf(pattern), view.indexOf(pattern, 0));
+        assertTrue(view.contains(pattern));
+        assertFalse(view.contains(nucleotides.substring(160, 180)));
+        assertEquals(-1, sequence.getRegion(0, 10).indexOf(nucleotides.substring(8, 12), 0));
+    }
+
+    @Test
+    public void testComplementViews() {
+        NucleotideView view = sequence.getRegion(20, 40);
+        String complement = sequence.getComplementView().subSequence(20, 60).toString();
+        assertEquals(complement, view.complementView().toString());
+        assertEquals(new StringBuilder(complement).reverse().toString(), view.reverseComplementView().toString());
+    }
+
+    @Test
+    public void testGetComposition_WholeSequence() {
+        assertArrayEquals(sequence.getComposition(), sequence.getRegion(0, nucleotides.length()).getComposition());
+    }
+}
@@ -0,0 +1,126 @@
+package be.kuleuven.OOP;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PackedNucleotideSequenceTest {
+
+    private Alphabet dnaAlphabet = new DnaAlphabet();
+    private String longSequence;
+    private PackedNucleotideSequence packedLongSequence;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < 1000; index++) {
+            builder.append(random.nextInt(20) == 0 ? 'N' : "ACGT".charAt(random.nextInt(4)));
+        }
+        longSequence = builder.toString();
+        packedLongSequence = new PackedNucleotideSequence(longSequence, dnaAlphabet);
+    }
+
+    @Test
+    public void testDecode_LegalCase() {
+        assertEquals(longSequence, packedLongSequence.toString());
+        assertEquals(1000, packedLongSequence.length());
+        assertEquals("ACGTNNA", new PackedNucleotideSequence("acgTNnA", dnaAlphabet).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_IllegalNucleotide() {
+        new PackedNucleotideSequence("ACGX", dnaAlphabet);
+    }
+
+    @Test
+    public void testCount_LegalCase() {
+        for (char symbol : "ACGTN".toCharArray()) {
+            int expected = 0;
+            for (char element : longSequence.toCharArray()) {
+                if (element == symbol) expected++;
+            }
+            assertEquals(expected, packedLongSequence.count(symbol));
+        }
+        assertEquals(0, packedLongSequence.count('U'));
+    }
+
+    @Test
+    public void testCountCodes_LegalCase() {
+        int[] counts = new int[PackedNucleotideSequence.N_CODE + 1];
+        packedLongSequence.countCodes(counts);
+        for (char symbol : "ACGTN".toCharArray())
+            assertEquals(packedLongSequence.count(symbol), counts[dnaAlphabet.encode(symbol)]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCountCodes_IllegalCase() {
+        packedLongSequence.countCodes(new int[PackedNucleotideSequence.N_CODE]);
+    }
+
+    @Test
+    public void testContains_LegalCase() {
+        for (int start = 0; start < 960; start += 37) {
+            for (int patternLength : new int[]{1, 5, 31, 32, 33, 40}) {
+                String pattern = longSequence.substring(start, start + patternLength);
+                assertTrue(packedLongSequence.contains(pattern));
+                assertEquals(longSequence.indexOf(pattern), packedLongSequence.indexOf(pattern, 0));
+            }
+        }
+        assertTrue(packedLongSequence.contains(""));
+    }
+
+    @Test
+    public void testContains_FalseCase() {
+        PackedNucleotideSequence packed = new PackedNucleotideSequence("ACGTNNAC", dnaAlphabet);
+        assertFalse(packed.contains("AA"));
+        assertFalse(packed.contains("ACGU"));
+        assertFalse(packed.contains("TAA"));
+        assertTrue(packed.contains("TNNA"));
+    }
+
+    @Test
+    public void testComplement_LegalCase() {
+        StringBuilder expected = new StringBuilder();
+        for (char element : longSequence.toCharArray()) {
+            expected.append("TGCAN".charAt("ACGTN".indexOf(element)));
+        }
+        PackedNucleotideSequence complement = packedLongSequence.complement();
+        assertEquals(expected.toString(), complement.toString());
+        assertArrayEquals(packedLongSequence.getCodeCounts(), complement.complement().getCodeCounts());
+    }
+
+    @Test
+    public void testReverseComplement_LegalCase() {
+        for (int length : new int[]{0, 1, 31, 32, 33, 64, 999, 1000}) {
+            String nucleotides = longSequence.substring(0, length);
+            PackedNucleotideSequence packed = new PackedNucleotideSequence(nucleotides, dnaAlphabet);
+            String expected = new StringBuilder(packed.complement().toString()).reverse().toString();
+            PackedNucleotideSequence reverseComplement = packed.reverseComplement();
+            assertEquals(expected, reverseComplement.toString());
+            assertEquals(nucleotides, reverseComplement.reverseComplement().toString());
+            assertEquals(packed.getNumberOfUnknown(), reverseComplement.getNumberOfUnknown());
+        }
+    }
+
+    @Test
+    public void testComplementViews_LegalCase() {
+        CharSequence complement = packedLongSequence.complementView();
+        CharSequence reverseComplement = packedLongSequence.reverseComplementView();
+        assertEquals(packedLongSequence.complement().toString(), complement.toString());
+        assertEquals(packedLongSequence.reverseComplement().toString(), reverseComplement.toString());
+        assertEquals(packedLongSequence.reverseComplement().toString().substring(100, 250), reverseComplement.subSequence(100, 250).toString());
+        assertEquals(reverseComplement.toString().substring(120, 130), reverseComplement.subSequence(100, 250).subSequence(20, 30).toString());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testComplementViews_IllegalIndex() {
+        packedLongSequence.reverseComplementView().subSequence(10, 20).charAt(10);
+    }
+}
@@ -9,6 +9,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 //TODO: Check if all necessary tests are included
 
@@ -33,4 +35,60 @@ public class QueryResultTest {
     public void testConstructorIdListIsNull() throws QueryResultException {
         QueryResult queryResult = new QueryResult(null);
     }
+
+    @Test
+    public void testRemovalsAreAppliedWhenRead() throws Exception {
+        SequenceRepository repository = new SequenceRepository();
+        BiologicalSequence first = new BiologicalSequence("first", "human", "ACGT", new DnaAlphabet());
+        repository.addBiologicalSequence(first);
+        repository.addBiologicalSequence(new BiologicalSequence("second", "human", "ACGT", new DnaAlphabet()));
+        QueryResult before = repository.getAllIds(DnaAlphabet.class);
+        repository.removeBiologicalSequence(first);
+        assertEquals(1, before.getQueryResult().size());
+        assertFalse(before.getQueryResult().contains("first"));
+
+        repository.addBiologicalSequence(new BiologicalSequence("first", "human", "ACGT", new DnaAlphabet()));
+        QueryResult after = repository.getAllIds(DnaAlphabet.class);
+        assertEquals(2, after.getQueryResult().size());
+        assertEquals(1, before.getQueryResult().size());
+    }
+
+    @Test
+    public void testReturnedIdsAreSnapshots() throws Exception {
+        SequenceRepository repository = new ConcurrentSequenceRepository();
+        BiologicalSequence first = new BiologicalSequence("first", "human", "ACGT", new DnaAlphabet());
+        repository.addBiologicalSequence(first);
+        QueryResult queryResult = repository.getAllIds(DnaAlphabet.class);
+        Set<String> ids = queryResult.getQueryResult();
+        repository.removeBiologicalSequence(first);
+        assertTrue(ids.contains("first"));
+        assertTrue(queryResult.getQueryResult().isEmpty());
+        try {
+            ids.clear();
+            Assert.fail();
+        } catch (UnsupportedOperationException exc) {
+            assertEquals(1, ids.size());
+        }
+    }
+
+    @Test
+    public void testRemovalLogIsTrimmed() throws Exception {
+        SequenceRepository repository = new SequenceRepository();
+        QueryResult pinning = repository.getAllIds(DnaAlphabet.class);
+        for (int index = 0; index < 3 * RemovalLog.MIN_TRIM_SIZE; index++) {
+            BiologicalSequence biologicalSequence = new BiologicalSequence("ID" + index, "human", "ACGT", new DnaAlphabet());
+            repository.addBiologicalSequence(biologicalSequence);
+            repository.removeBiologicalSequence(biologicalSequence);
+        }
+        assertEquals(3 * RemovalLog.MIN_TRIM_SIZE, repository.getRemovalLog().getNbLoggedRemovals());
+        assertTrue(pinning.getQueryResult().isEmpty());
+        repository.terminateQueryResult(pinning);
+        for (int index = 0; index < 3 * RemovalLog.MIN_TRIM_SIZE; index++) {
+            BiologicalSequence biologicalSequence = new BiologicalSequence("ID" + index, "human", "ACGT", new DnaAlphabet());
+            repository.addBiologicalSequence(biologicalSequence);
+            repository.removeBiologicalSequence(biologicalSequence);
+        }
+        assertTrue(repository.getRemovalLog().getNbLoggedRemovals() < RemovalLog.MIN_TRIM_SIZE);
+        assertEquals(0, repository.getRemovalLog().getNbRegistrations());
+    }
 }
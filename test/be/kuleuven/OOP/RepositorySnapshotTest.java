@@ -0,0 +1,117 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.OOP.exceptions.IllegalIdException;
+import be.kuleuven.OOP.exceptions.IllegalParseException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RepositorySnapshotTest {
+
+    private File file;
+    private SequenceRepository repository;
+    private List<BiologicalSequence> sequences;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("repository", ".snapshot");
+        repository = new SequenceRepository();
+        sequences = new ArrayList<>();
+        Random random = new Random(19);
+        for (int index = 0; index < 40; index++) {
+            boolean dna = index % 3 != 0;
+            StringBuilder nucleotides = new StringBuilder();
+            for (int position = 0, length = 1 + random.nextInt(150); position < length; position++)
+                nucleotides.append((dna ? "ACGTN" : "ACGUN").charAt(random.nextInt(5)));
+            BiologicalSequence sequence = new BiologicalSequence("SEQ" + index, index % 7 == 0 ? null : "ORGANISM" + index % 4,
+                    nucleotides.toString(), dna ? new DnaAlphabet() : new RnaAlphabet());
+            repository.addBiologicalSequence(sequence);
+            sequences.add(sequence);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testWriteAndRead_LegalCase() throws Exception {
+        assertEquals(40, RepositorySnapshot.write(repository, file.toPath()));
+        SequenceRepository restored = RepositorySnapshot.read(file.toPath());
+        assertRestored(restored);
+    }
+
+    @Test
+    public void testWriteAndRead_ManySegments() throws Exception {
+        assertEquals(40, RepositorySnapshot.write(sequences, file.toPath(), 100, ForkJoinPool.commonPool()));
+        assertRestored(RepositorySnapshot.read(file.toPath()));
+    }
+
+    @Test(expected = IllegalParseException.class)
+    public void testRead_CorruptSegment() throws Exception {
+        RepositorySnapshot.write(repository, file.toPath());
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.seek(output.length() - 3);
+            int value = output.read();
+            output.seek(output.length() - 3);
+            output.write(value ^ 1);
+        }
+        RepositorySnapshot.read(file.toPath());
+    }
+
+    @Test(expected = IllegalParseException.class)
+    public void testRead_NoSnapshot() throws Exception {
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.writeBytes(">GLOBIN|MOUSE\nACGTACGTACGTACGTACGTACGTACGTACGTACGT\n");
+        }
+        RepositorySnapshot.read(file.toPath());
+    }
+
+    @Test
+    public void testReadInto_AllOrNothing() throws Exception {
+        RepositorySnapshot.write(repository, file.toPath());
+        SequenceRepository target = new SequenceRepository();
+        target.addBiologicalSequence(new BiologicalSequence("SEQ39", "ACGT", new DnaAlphabet()));
+        try {
+            RepositorySnapshot.readInto(target, file.toPath());
+            fail();
+        } catch (IllegalIdException exc) {
+            assertEquals(1, target.getNbBiologicalSequences());
+        }
+        List<BiologicalSequence> duplicated = new ArrayList<>(sequences);
+        duplicated.add(sequences.get(0));
+        RepositorySnapshot.write(duplicated, file.toPath(), 100, ForkJoinPool.commonPool());
+        target = new SequenceRepository();
+        try {
+            RepositorySnapshot.readInto(target, file.toPath());
+            fail();
+        } catch (IllegalIdException exc) {
+            assertEquals(0, target.getNbBiologicalSequences());
+        }
+    }
+
+    private void assertRestored(SequenceRepository restored) throws Exception {
+        assertEquals(sequences.size(), restored.getNbBiologicalSequences());
+        for (BiologicalSequence sequence : sequences) {
+            BiologicalSequence copy = restored.getBiologicalSequenceOf(sequence.getId());
+            assertEquals(sequence.getNucleotideSequence(), copy.getNucleotideSequence());
+            assertEquals(sequence.getAlphabet().getClass(), copy.getAlphabet().getClass());
+            if (sequence.getOrganism() == null) assertNull(copy.getOrganism());
+            else assertEquals(sequence.getOrganism(), copy.getOrganism());
+        }
+        assertTrue(restored.getIdsForSubsequence("ACG", DnaAlphabet.class).getQueryResult().size() > 0);
+    }
+}
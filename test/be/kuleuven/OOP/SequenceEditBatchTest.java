@@ -0,0 +1,90 @@
+package be.kuleuven.OOP;
+
+import be.kuleuven.OOP.exceptions.IllegalNucleotideSequenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class SequenceEditBatchTest {
+
+    private Alphabet dnaAlphabet = new DnaAlphabet();
+    private BiologicalSequence sequence;
+
+    @Before
+    public void setUp() throws Exception {
+        sequence = new BiologicalSequence("EPO", "HUMAN", "GGATTNNTACGT", dnaAlphabet);
+    }
+
+    @Test
+    public void testMutateNucleotideSequence_UnsortedEdits() throws Exception {
+        List<SequenceEdit> edits = Arrays.asList(
+                new SequenceEdit(10, 2, ""),
+                new SequenceEdit(0, 0, "CC"),
+                new SequenceEdit(4, 3, "A"));
+        assertEquals("CCGGATATACGT".substring(0, 10), sequence.mutateNucleotideSequence(edits));
+    }
+
+    @Test
+    public void testMutateNucleotideSequence_EqualsSequentialMutations() throws Exception {
+        Random random = new Random(3);
+        StringBuilder initial = new StringBuilder();
+        for (int index = 0; index < 500; index++)
+            initial.append("ACGTN".charAt(random.nextInt(5)));
+        BiologicalSequence original = new BiologicalSequence("RND", null, initial.toString(), dnaAlphabet);
+        List<SequenceEdit> edits = new ArrayList<>();
+        for (int position = 3; position < 490; position += 7 + random.nextInt(5))
+            edits.add(new SequenceEdit(position, random.nextInt(4), "TAN".substring(random.nextInt(3))));
+        String expected = initial.toString();
+        for (int index = edits.size() - 1; index >= 0; index--) {
+            SequenceEdit edit = edits.get(index);
+            expected = expected.substring(0, edit.getPosition()) + edit.getReplacement() + expected.substring(edit.getEnd());
+        }
+        Collections.shuffle(edits, random);
+        assertEquals(expected, original.mutateNucleotideSequence(edits));
+    }
+
+    @Test
+    public void testRebase() throws Exception {
+        SequenceEditBatch batch = sequence.newEditBatch(Arrays.asList(
+                new SequenceEdit(0, 0, "CC"),
+                new SequenceEdit(4, 3, "A")));
+        assertEquals(2, batch.getNbEdits());
+        assertEquals(12, batch.getEditedLength());
+        assertEquals(2, batch.rebase(0));
+        assertEquals(5, batch.rebase(3));
+        assertEquals(7, batch.rebase(7));
+        assertEquals(12, batch.rebase(12));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRebase_ReplacedPosition() throws Exception {
+        sequence.newEditBatch(Collections.singletonList(new SequenceEdit(4, 3, "A"))).rebase(5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMutateNucleotideSequence_OverlappingEdits() throws Exception {
+        sequence.mutateNucleotideSequence(Arrays.asList(new SequenceEdit(2, 3, "A"), new SequenceEdit(4, 1, "C")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMutateNucleotideSequence_InsertionsAtSamePosition() throws Exception {
+        sequence.mutateNucleotideSequence(Arrays.asList(new SequenceEdit(2, 0, "A"), new SequenceEdit(2, 0, "C")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMutateNucleotideSequence_EditPastEnd() throws Exception {
+        sequence.mutateNucleotideSequence(Collections.singletonList(new SequenceEdit(11, 2, "A")));
+    }
+
+    @Test(expected = IllegalNucleotideSequenceException.class)
+    public void testMutateNucleotideSequence_IllegalReplacement() throws Exception {
+        sequence.mutateNucleotideSequence(Collections.singletonList(new SequenceEdit(1, 1, "AU")));
+    }
+}
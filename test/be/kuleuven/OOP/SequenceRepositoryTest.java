@@ -7,7 +7,19 @@ import be.kuleuven.OOP.exceptions.*;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author delphinecappelle
@@ -135,5 +147,178 @@ public class SequenceRepositoryTest {
         }
     }
 
+    @Test
+    public void testKmerIndexMatchesScan() throws Exception {
+        String[] subsequences = {"TT", "ACG", "ACGTN", "CGTNT", "GTNTG", "GUNCG", "NUU", "acgu", "TTT", "ACGTA"};
+        for (int k : new int[]{1, 3, 4}) {
+            repository.disableKmerIndex();
+            for (String subsequence : subsequences) {
+                Set<String> scanned = repository.getIdsForSubsequence(subsequence, Alphabet.class).getQueryResult();
+                repository.enableKmerIndex(k);
+                assertEquals(subsequence, scanned, repository.getIdsForSubsequence(subsequence, Alphabet.class).getQueryResult());
+                repository.disableKmerIndex();
+            }
+        }
+    }
+
+    @Test
+    public void testKmerIndexIsMaintained() throws Exception {
+        repository.enableKmerIndex(3);
+        BiologicalSequence biologicalDnaSequence = new BiologicalSequence("NEWDNASTRING", "BEER", "GGGATTACA", new DnaAlphabet());
+        repository.addBiologicalSequence(biologicalDnaSequence);
+        assertEquals(1, repository.getIdsForSubsequence("GATTA", DnaAlphabet.class).getQueryResult().size());
+        assertEquals(0, repository.getIdsForSubsequence("GATTA", RnaAlphabet.class).getQueryResult().size());
+        repository.removeBiologicalSequence(biologicalDnaSequence);
+        assertEquals(0, repository.getIdsForSubsequence("GATTA", DnaAlphabet.class).getQueryResult().size());
+    }
+
+    @Test
+    public void testSearchEngineWithDeltaBuffer() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        repository.setQueryPool(pool);
+        repository.buildSearchEngine(1);
+        assertEquals(1, repository.getIdsForSubsequence("TT", DnaAlphabet.class).getQueryResult().size());
+        assertEquals(1, repository.getIdsForSubsequence("UNC", RnaAlphabet.class).getQueryResult().size());
+        BiologicalSequence biologicalDnaSequence = new BiologicalSequence("NEWDNASTRING", "BEER", "GGGATTACA", new DnaAlphabet());
+        repository.addBiologicalSequence(biologicalDnaSequence);
+        assertEquals(2, repository.getIdsForSubsequence("TT", DnaAlphabet.class).getQueryResult().size());
+        assertEquals(2, repository.getSearchEngine().count("TT", DnaAlphabet.class));
+        repository.removeBiologicalSequence(repository.getBiologicalSequenceOf("DNAGLAPROTEIN2"));
+        assertEquals(1, repository.getIdsForSubsequence("TT", DnaAlphabet.class).getQueryResult().size());
+        assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+        assertEquals(0, repository.getSearchEngine().getNbChanges());
+        assertEquals(1, repository.getSearchEngine().locate("TT", DnaAlphabet.class).size());
+        repository.removeBiologicalSequence(biologicalDnaSequence);
+        assertEquals(0, repository.getIdsForSubsequence("TT", DnaAlphabet.class).getQueryResult().size());
+        assertEquals(1, repository.getSearchEngine().getNbChanges());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testSearchEngineRebuildInBackgroundKeepsDeltaBuffer() throws Exception {
+        BiologicalSequence indexed = new BiologicalSequence("INDEXED", "GATTACA", new DnaAlphabet());
+        BiologicalSequence added = new BiologicalSequence("ADDED", "CATTAG", new DnaAlphabet());
+        Map<String, BiologicalSequence> stored = new HashMap<>();
+        stored.put(indexed.getId(), indexed);
+        SubstringSearchEngine engine = new SubstringSearchEngine(0);
+        engine.rebuild(stored);
+        stored.put(added.getId(), added);
+        engine.add(added);
+        List<Runnable> pending = new ArrayList<>();
+        assertTrue(engine.rebuildInBackground(stored, pending::add));
+        assertFalse(engine.rebuildInBackground(stored, pending::add));
+        stored.remove(indexed.getId());
+        engine.remove(indexed);
+        assertEquals(1, engine.count("TTA", DnaAlphabet.class));
+        pending.get(0).run();
+        assertEquals(1, engine.count("TTA", DnaAlphabet.class));
+        assertEquals(1, engine.getNbChanges());
+        assertEquals(1, engine.getIdsContaining("ATT", DnaAlphabet.class).size());
+    }
+
+    @Test
+    public void testSearchEngineRebuildReconcilesConcurrentChanges() throws Exception {
+        BiologicalSequence indexed = new BiologicalSequence("INDEXED", "GATTACA", new DnaAlphabet());
+        BiologicalSequence removed = new BiologicalSequence("REMOVED", "CATTAG", new DnaAlphabet());
+        Map<String, BiologicalSequence> stored = new HashMap<>();
+        stored.put(indexed.getId(), indexed);
+        SubstringSearchEngine engine = new SubstringSearchEngine(0);
+        engine.add(indexed);
+        engine.add(removed);
+        engine.remove(removed);
+        engine.rebuild(stored);
+        assertEquals(1, engine.count("TTA", DnaAlphabet.class));
+        assertEquals(0, engine.getNbChanges());
+        engine.add(indexed);
+        assertEquals(0, engine.getNbChanges());
+        engine.remove(indexed);
+        assertEquals(0, engine.count("TTA", DnaAlphabet.class));
+    }
 
+    @Test
+    public void testParallelScansMatchSequentialScans() throws Exception {
+        Set<String> chickens = new HashSet<>(), gattacas = new HashSet<>();
+        for (int index = 0; index < SequenceRepository.PARALLEL_SCAN_THRESHOLD; index++) {
+            String organism = index % 3 == 0 ? "chicken" : "cow";
+            String nucleotides = index % 7 == 0 ? "CCGATTACACC" : "CCGATCACACC";
+            repository.addBiologicalSequence(new BiologicalSequence("DNA" + index, organism, nucleotides, new DnaAlphabet()));
+            if (index % 3 == 0) chickens.add("DNA" + index);
+            if (index % 7 == 0) gattacas.add("DNA" + index);
+        }
+        chickens.add("DNAGLAPROTEIN3");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            repository.setQueryPool(pool);
+            assertEquals(SequenceRepository.PARALLEL_SCAN_THRESHOLD + 3, repository.getAllIds(DnaAlphabet.class).getQueryResult().size());
+            assertEquals(chickens, repository.getIdsForOrganism("chicken", DnaAlphabet.class).getQueryResult());
+            assertEquals(gattacas, repository.getIdsForSubsequence("GATTACA", DnaAlphabet.class).getQueryResult());
+            assertEquals(0, repository.getIdsForSubsequence("GATTACA", RnaAlphabet.class).getQueryResult().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetQueryPool_IllegalCase() {
+        repository.setQueryPool(null);
+    }
+
+    @Test
+    public void testSecondaryIndexesAreMaintained() throws Exception {
+        assertEquals(6, repository.getAllIds(Alphabet.class).getQueryResult().size());
+        assertEquals(2, repository.getIdsForOrganism("human", Alphabet.class).getQueryResult().size());
+        BiologicalSequence biologicalDnaSequence = new BiologicalSequence("NEWDNASTRING", "human", "GGGATTACA", new DnaAlphabet());
+        repository.addBiologicalSequence(biologicalDnaSequence);
+        assertEquals(2, repository.getIdsForOrganism("human", DnaAlphabet.class).getQueryResult().size());
+        assertEquals(1, repository.getIdsForOrganism("human", RnaAlphabet.class).getQueryResult().size());
+        assertEquals(4, repository.getAllIds(DnaAlphabet.class).getQueryResult().size());
+        repository.removeBiologicalSequence(biologicalDnaSequence);
+        repository.removeBiologicalSequence(repository.getBiologicalSequenceOf("DNAGLAPROTEIN"));
+        assertEquals(0, repository.getIdsForOrganism("human", DnaAlphabet.class).getQueryResult().size());
+        assertEquals(2, repository.getAllIds(DnaAlphabet.class).getQueryResult().size());
+        assertEquals(0, repository.getIdsForOrganism("cow", Alphabet.class).getQueryResult().size());
+    }
+
+    @Test
+    public void testAddBiologicalSequences_LegalCase() throws Exception {
+        List<BiologicalSequence> batch = new ArrayList<>();
+        batch.add(new BiologicalSequence("BATCH1", "human", "GGGATTACA", new DnaAlphabet()));
+        batch.add(new BiologicalSequence("BATCH2", "cow", "CCC", new DnaAlphabet()));
+        batch.add(new BiologicalSequence("BATCH3", "human", "GAUUACA", new RnaAlphabet()));
+        assertEquals(3, repository.addBiologicalSequences(batch));
+        assertEquals(9, repository.getAllIds(Alphabet.class).getQueryResult().size());
+        assertEquals(2, repository.getIdsForOrganism("human", DnaAlphabet.class).getQueryResult().size());
+        assertEquals(2, repository.getIdsForOrganism("human", RnaAlphabet.class).getQueryResult().size());
+        assertEquals(1, repository.getIdsForOrganism("cow", Alphabet.class).getQueryResult().size());
+        assertEquals(1, repository.getIdsForSubsequence("GATTACA", DnaAlphabet.class).getQueryResult().size());
+        assertTrue(repository.hasAsBiologicalSequence(batch.get(2)));
+    }
+
+    @Test
+    public void testAddBiologicalSequences_DuplicateInBatch() throws Exception {
+        List<BiologicalSequence> batch = new ArrayList<>();
+        batch.add(new BiologicalSequence("BATCH1", "human", "GGGATTACA", new DnaAlphabet()));
+        batch.add(new BiologicalSequence("BATCH1", "cow", "CCC", new DnaAlphabet()));
+        try {
+            repository.addBiologicalSequences(batch);
+            fail("Expected the duplicate id to be rejected");
+        } catch (IllegalIdException e) {
+            assertFalse(repository.hasBiologicalSequenceOf("BATCH1"));
+        }
+    }
+
+    @Test
+    public void testAddBiologicalSequences_StoredIdRejectsWholeBatch() throws Exception {
+        List<BiologicalSequence> batch = new ArrayList<>();
+        batch.add(new BiologicalSequence("BATCH1", "human", "GGGATTACA", new DnaAlphabet()));
+        batch.add(new BiologicalSequence("DNAGLAPROTEIN", "cow", "CCC", new DnaAlphabet()));
+        try {
+            repository.addBiologicalSequences(batch);
+            fail("Expected the stored id to be rejected");
+        } catch (IllegalIdException e) {
+            assertFalse(repository.hasBiologicalSequenceOf("BATCH1"));
+            assertEquals(6, repository.getAllIds(Alphabet.class).getQueryResult().size());
+            assertEquals(0, repository.getIdsForOrganism("cow", Alphabet.class).getQueryResult().size());
+        }
+    }
 }
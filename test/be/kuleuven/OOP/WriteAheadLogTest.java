@@ -0,0 +1,203 @@
+package be.kuleuven.OOP;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WriteAheadLogTest {
+
+    private Path directory;
+    private Path snapshotFile;
+    private Path logFile;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("wal");
+        snapshotFile = directory.resolve("repository.snapshot");
+        logFile = directory.resolve("repository.log");
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : directory.toFile().listFiles())
+            file.delete();
+        directory.toFile().delete();
+    }
+
+    @Test
+    public void testRecover_AdditionsAndRemovals() throws Exception {
+        SequenceRepository repository = new SequenceRepository();
+        try (WriteAheadLog log = WriteAheadLog.recover(repository, snapshotFile, logFile)) {
+            repository.addBiologicalSequence(new BiologicalSequence("GLOBIN", "MOUSE", "ACGTNNACGT", new DnaAlphabet()));
+            repository.addBiologicalSequence(new BiologicalSequence("ALB", "HUMAN", "ACGUU", new RnaAlphabet()));
+            repository.addBiologicalSequence(new BiologicalSequence("EPO", "HUMAN", "GGATTAATAC", new DnaAlphabet()));
+            repository.removeBiologicalSequence(repository.getBiologicalSequenceOf("ALB"));
+            assertEquals(4, log.getNbCommits());
+        }
+        SequenceRepository recovered = new SequenceRepository();
+        try (WriteAheadLog log = WriteAheadLog.recover(recovered, snapshotFile, logFile)) {
+            assertEquals(Files.size(logFile), log.getSize());
+            assertEquals(2, recovered.getNbBiologicalSequences());
+            assertEquals("ACGTNNACGT", recovered.getBiologicalSequenceOf("GLOBIN").getNucleotideSequence());
+            assertFalse(recovered.hasBiologicalSequenceOf("ALB"));
+        }
+    }
+
+    @Test
+    public void testRecover_Batch() throws Exception {
+        SequenceRepository repository = new SequenceRepository();
+        try (WriteAheadLog log = WriteAheadLog.recover(repository, snapshotFile, logFile)) {
+            List<BiologicalSequence> batch = new ArrayList<>();
+            batch.add(new BiologicalSequence("GLOBIN", "MOUSE", "ACGTNNACGT", new DnaAlphabet()));
+            batch.add(new BiologicalSequence("ALB", "HUMAN", "ACGUU", new RnaAlphabet()));
+            repository.addBiologicalSequences(batch);
+            assertEquals(1, log.getNbCommits());
+        }
+        SequenceRepository recovered = new SequenceRepository();
+        try (WriteAheadLog log = WriteAheadLog.recover(recovered, snapshotFile, logFile)) {
+            assertEquals(Files.size(logFile), log.getSize());
+            assertEquals(2, recovered.getNbBiologicalSequences());
+            assertEquals("ACGUU", recovered.getBiologicalSequenceOf("ALB").getNucleotideSequence());
+        }
+    }
+
+    @Test
+    public void testRecover_TornRecord() throws Exception {
+        SequenceRepository repository = new SequenceRepository();
+        try (WriteAheadLog log = WriteAheadLog.recover(repository, snapshotFile, logFile)) {
+            repository.addBiologicalSequence(new BiologicalSequence("GLOBIN", "MOUSE", "ACGTNNACGT", new DnaAlphabet()));
+            assertEquals(1, log.getNbCommits());
+        }
+        long size = Files.size(logFile);
+        try (RandomAccessFile output = new RandomAccessFile(logFile.toFile(), "rw")) {
+            output.seek(size);
+            output.writeInt(1000);
+            output.writeInt(42);
+            output.write(new byte[]{'A', 0, 0});
+        }
+        SequenceRepository recovered = new SequenceRepository();
+        try (WriteAheadLog log = WriteAheadLog.recover(recovered, snapshotFile, logFile)) {
+            assertEquals(1, recovered.getNbBiologicalSequences());
+            assertEquals(size, log.getSize());
+            assertEquals(size, Files.size(logFile));
+        }
+    }
+
+    private static String nucleotidesOf(int index) {
+        return "ACGTN".substring(index % 5) + "ACGT".substring(0, index % 4);
+    }
+
+    /**
+     * Return the sequence identifier of the given writer. The identifiers of all writers have the same hash code,
+     * since "Aa" and "BB" do, so that they are added under the same write lock.
+     */
+    private static String idOf(int writer) {
+        StringBuilder id = new StringBuilder();
+        for (int bit = 0; bit < 3; bit++)
+            id.append((writer >> bit & 1) == 0 ? "Aa" : "BB");
+        return id.toString();
+    }
+
+    @Test
+    public void testGroupCommit_ConcurrentAdditions() throws Exception {
+        final SequenceRepository repository = new ConcurrentSequenceRepository();
+        final int nbWriters = 8;
+        final CountDownLatch syncing = new CountDownLatch(1), release = new CountDownLatch(1);
+        WriteAheadLog.Fsync stalledFsync = channel -> {
+            syncing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            channel.force(false);
+        };
+        try (WriteAheadLog log = new WriteAheadLog(logFile, stalledFsync)) {
+            repository.setWriteAheadLog(log);
+            List<Thread> threads = new ArrayList<>();
+            for (int writer = 0; writer < nbWriters; writer++) {
+                final String id = idOf(writer), nucleotides = nucleotidesOf(writer);
+                threads.add(new Thread(() -> {
+                    try {
+                        repository.addBiologicalSequence(new BiologicalSequence(id, "HUMAN", nucleotides, new DnaAlphabet()));
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
+            }
+            threads.get(0).start();
+            syncing.await();
+            for (Thread thread : threads.subList(1, nbWriters)) thread.start();
+            long deadline = System.currentTimeMillis() + 10000;
+            for (Thread thread : threads.subList(1, nbWriters)) {
+                while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline)
+                    Thread.sleep(1);
+            }
+            long nbCommits = log.getNbCommits();
+            release.countDown();
+            for (Thread thread : threads) thread.join();
+            assertEquals(0, nbCommits);
+            assertEquals(nbWriters, repository.getNbBiologicalSequences());
+            assertEquals(2, log.getNbCommits());
+        }
+        SequenceRepository recovered = new SequenceRepository();
+        try (WriteAheadLog log = WriteAheadLog.recover(recovered, snapshotFile, logFile)) {
+            assertEquals(Files.size(logFile), log.getSize());
+            assertEquals(nbWriters, recovered.getNbBiologicalSequences());
+            for (int writer = 0; writer < nbWriters; writer++)
+                assertEquals(nucleotidesOf(writer), recovered.getBiologicalSequenceOf(idOf(writer)).getNucleotideSequence());
+        }
+    }
+
+    @Test
+    public void testCompactWriteAheadLog() throws Exception {
+        SequenceRepository repository = new SequenceRepository();
+        try (WriteAheadLog log = WriteAheadLog.recover(repository, snapshotFile, logFile)) {
+            repository.addBiologicalSequence(new BiologicalSequence("GLOBIN", "MOUSE", "ACGTNNACGT", new DnaAlphabet()));
+            repository.addBiologicalSequence(new BiologicalSequence("ALB", "HUMAN", "ACGUU", new RnaAlphabet()));
+            log.setCompactionThreshold(10);
+            assertTrue(log.needsCompaction());
+            repository.compactWriteAheadLog(snapshotFile);
+            assertEquals(0, log.getSize());
+            assertFalse(log.needsCompaction());
+            repository.removeBiologicalSequence(repository.getBiologicalSequenceOf("GLOBIN"));
+        }
+        SequenceRepository recovered = new SequenceRepository();
+        try (WriteAheadLog log = WriteAheadLog.recover(recovered, snapshotFile, logFile)) {
+            assertEquals(Files.size(logFile), log.getSize());
+            assertEquals(1, recovered.getNbBiologicalSequences());
+            assertTrue(recovered.hasBiologicalSequenceOf("ALB"));
+        }
+    }
+
+    @Test
+    public void testReplayInto_Idempotent() throws Exception {
+        SequenceRepository repository = new SequenceRepository();
+        try (WriteAheadLog log = WriteAheadLog.recover(repository, snapshotFile, logFile)) {
+            repository.addBiologicalSequence(new BiologicalSequence("GLOBIN", "MOUSE", "ACGT", new DnaAlphabet()));
+            repository.addBiologicalSequence(new BiologicalSequence("ALB", "HUMAN", "ACGUU", new RnaAlphabet()));
+            repository.removeBiologicalSequence(repository.getBiologicalSequenceOf("GLOBIN"));
+            RepositorySnapshot.write(repository, snapshotFile);
+            assertEquals(3, log.getNbCommits());
+        }
+        SequenceRepository recovered = new SequenceRepository();
+        try (WriteAheadLog log = WriteAheadLog.recover(recovered, snapshotFile, logFile)) {
+            assertEquals(Files.size(logFile), log.getSize());
+            assertEquals(1, recovered.getNbBiologicalSequences());
+            assertTrue(recovered.hasBiologicalSequenceOf("ALB"));
+        }
+    }
+}